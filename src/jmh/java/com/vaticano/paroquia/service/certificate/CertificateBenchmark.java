@@ -0,0 +1,178 @@
+package com.vaticano.paroquia.service.certificate;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks da geração de certificados (HTML, escape dos campos, PDF com e sem logo e Word).
+ *
+ * Executar com: mvn -Pbenchmark test-compile exec:exec
+ * Por omissão corre com -prof gc (gc.alloc.rate.norm = bytes alocados por operação); outros
+ * argumentos do JMH via -Djmh.args="...", p.ex. -Djmh.args="CertificateBenchmark.renderPdf -prof gc".
+ *
+ * O motor de PDF corre com um único worker, por isso renderPdf mede uma geração de cada vez,
+ * incluindo a passagem pela fila.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms512m", "-Xmx512m"})
+public class CertificateBenchmark {
+
+    @Param({"batismo", "casamento"})
+    private String type;
+
+    private CertificateTemplates templates;
+    private PdfRenderEngine pdfRenderEngine;
+    private DocxWriter docxWriter;
+    private CertificateData data;
+    private List<String> fieldValues;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        templates = new CertificateTemplates();
+        docxWriter = new DocxWriter(templates);
+
+        pdfRenderEngine = new PdfRenderEngine(templates, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(pdfRenderEngine, "threads", 1);
+        ReflectionTestUtils.setField(pdfRenderEngine, "queueCapacity", 4);
+        ReflectionTestUtils.setField(pdfRenderEngine, "timeout", Duration.ofSeconds(30));
+        pdfRenderEngine.start();
+
+        Map<String, Object> values = "casamento".equals(type) ? marriage() : baptism();
+        data = new CertificateData(values, LocalDate.of(2025, 3, 14));
+        fieldValues = values.values().stream().map(String::valueOf).toList();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pdfRenderEngine.stop();
+    }
+
+    @Benchmark
+    public String buildHtml() {
+        return templates.renderHtml(type, data, true);
+    }
+
+    @Benchmark
+    public void escapeHtml(Blackhole blackhole) {
+        for (String value : fieldValues) {
+            blackhole.consume(CertificateTemplates.escapeHtml(value));
+        }
+    }
+
+    @Benchmark
+    public void escapeHtmlAppend(Blackhole blackhole) {
+        StringBuilder out = new StringBuilder(2048);
+        for (String value : fieldValues) {
+            CertificateTemplates.appendEscapedHtml(out, value);
+        }
+        blackhole.consume(out);
+    }
+
+    @Benchmark
+    public void renderPdfWithLogo() {
+        pdfRenderEngine.await(pdfRenderEngine.submitTo(type, data, true, OutputStream.nullOutputStream()));
+    }
+
+    @Benchmark
+    public void renderPdfWithoutLogo() {
+        pdfRenderEngine.await(pdfRenderEngine.submitTo(type, data, false, OutputStream.nullOutputStream()));
+    }
+
+    @Benchmark
+    public void renderWord() throws IOException {
+        docxWriter.write(type, data, OutputStream.nullOutputStream());
+    }
+
+    // ========== Helper Methods ==========
+
+    private static Map<String, Object> baptism() {
+        Map<String, Object> values = new HashMap<>();
+        values.put("nome_oficiante", "António Manuel Cossa");
+        values.put("paroquia", "Paróquia de São José de Lhanguene");
+        values.put("folha", "47");
+        values.put("numero_assento", "1283");
+        values.put("ano_registo", "2009");
+        values.put("nome_baptizado", "Maria Helena Sitoe Macuácua");
+        values.put("sexo", "feminino");
+        values.put("dia_nascimento", "12");
+        values.put("mes_nascimento", "Abril");
+        values.put("ano_nascimento", "2008");
+        values.put("local_nascimento", "Hospital Central de Maputo");
+        values.put("nome_pai", "Alberto Macuácua");
+        values.put("profissao_pai", "Professor");
+        values.put("naturalidade_pai", "Xai-Xai, Gaza");
+        values.put("nome_mae", "Lurdes Sitoe");
+        values.put("profissao_mae", "Enfermeira");
+        values.put("naturalidade_mae", "Inhambane");
+        values.put("avo_paterno", "Joaquim Macuácua & Rosa Chissano");
+        values.put("avo_materno", "Filipe Sitoe & Amélia Nhantumbo");
+        values.put("dia_baptismo", "3");
+        values.put("mes_baptismo", "Agosto");
+        values.put("ano", "2009");
+        values.put("nome_padrinho", "Carlos Eduardo Mondlane");
+        values.put("profissao_padrinho", "Engenheiro");
+        values.put("estado_padrinho", "casado");
+        values.put("nome_madrinha", "Ana Paula Tembe");
+        values.put("profissao_madrinha", "Comerciante");
+        values.put("estado_madrinha", "casada");
+        values.put("ministro", "Pe. João Baptista Langa");
+        values.put("comunidade", "Comunidade de Santa Teresinha");
+        values.put("distrito", "KaMpfumo");
+        values.put("anotacoes", "Crismada em 2022 na Sé Catedral <ver livro 12>");
+        values.put("finalidade", "Casamento religioso");
+        values.put("local_emissao", "Maputo");
+        return values;
+    }
+
+    private static Map<String, Object> marriage() {
+        Map<String, Object> values = new HashMap<>();
+        values.put("nome_oficiante", "António Manuel Cossa");
+        values.put("paroquia", "Paróquia de São José de Lhanguene");
+        values.put("folha", "112");
+        values.put("numero_registo", "356");
+        values.put("ano_registo", "2021");
+        values.put("nome_noivo", "Edson Armando Chambal");
+        values.put("pai_noivo", "Armando Chambal");
+        values.put("mae_noivo", "Graça Muianga");
+        values.put("nome_noiva", "Célia Fátima Nhaca");
+        values.put("pai_noiva", "Fernando Nhaca");
+        values.put("mae_noiva", "Esperança Mabunda");
+        values.put("paroquia_baptismo", "Paróquia de Santo António da Polana");
+        values.put("nome_padrinho", "Rui Alberto Matsinhe");
+        values.put("nome_madrinha", "Sónia Maria Matsinhe");
+        values.put("ministro", "Pe. João Baptista Langa");
+        values.put("comunidade", "Comunidade de São Francisco de Assis");
+        values.put("distrito", "KaMaxaquene");
+        values.put("anotacoes", "Dispensa de proclamas concedida pela Cúria \"n.º 45/2021\"");
+        values.put("finalidade", "Registo civil");
+        values.put("local_emissao", "Maputo");
+        return values;
+    }
+}
@@ -0,0 +1,19 @@
+package com.vaticano.paroquia.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Caches em memória (Caffeine). Tamanho e TTL em spring.cache.caffeine.spec;
+ * as métricas de hits/misses são publicadas pelo actuator (cache.gets).
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    /** memberKey → MemberResponse. */
+    public static final String MEMBERS = "members";
+
+    /** memberId → memberKey. */
+    public static final String MEMBER_IDS = "member-ids";
+}
@@ -0,0 +1,125 @@
+package com.vaticano.paroquia.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Cria (de forma idempotente) os índices GIN pg_trgm usados pela busca de membros
+ * sem acentos e sem distinção de maiúsculas.
+ *
+ * O Hibernate não gera índices por expressão, por isso são criados aqui no arranque.
+ * Se a base de dados não permitir as extensões, a busca continua com LIKE simples.
+ *
+ * A aplicação já está a servir pedidos quando isto corre: os índices são criados com
+ * CREATE INDEX CONCURRENTLY (em autocommit, fora de transação), que não bloqueia escritas em
+ * members durante a construção. Um advisory lock serializa os nós que arrancam ao mesmo tempo,
+ * e um índice deixado inválido por uma construção interrompida é apagado e refeito.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class MemberSearchIndexInitializer {
+
+    private static final String[] DDL = {
+            "CREATE EXTENSION IF NOT EXISTS pg_trgm",
+            "CREATE EXTENSION IF NOT EXISTS unaccent",
+            // unaccent() é STABLE; um wrapper IMMUTABLE permite usá-lo em índices por expressão
+            """
+            CREATE OR REPLACE FUNCTION f_unaccent(text) RETURNS text
+                LANGUAGE sql IMMUTABLE PARALLEL SAFE STRICT
+                AS $$ SELECT public.unaccent('public.unaccent'::regdictionary, $1) $$
+            """
+    };
+
+    private static final String[][] INDEXES = {
+            {"idx_members_nome_completo_trgm", "USING gin (lower(f_unaccent(nome_completo)) gin_trgm_ops)"},
+            {"idx_members_comunidade_trgm", "USING gin (lower(f_unaccent(comunidade)) gin_trgm_ops)"}
+    };
+
+    private static final String INVALID_INDEXES_SQL = """
+            SELECT c.relname FROM pg_index i JOIN pg_class c ON c.oid = i.indexrelid
+            WHERE c.relname IN ('idx_members_nome_completo_trgm', 'idx_members_comunidade_trgm') AND NOT i.indisvalid
+            """;
+
+    // Chave do advisory lock partilhado pelos nós que criam estes índices
+    private static final long LOCK_KEY = 0x6d656d6265727367L;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${app.members.search.trigram-enabled:true}")
+    private boolean trigramEnabled;
+
+    private volatile boolean trigramAvailable = false;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void createSearchIndexes() {
+        if (!trigramEnabled) {
+            log.info("Busca trigram de membros desativada (app.members.search.trigram-enabled=false)");
+            return;
+        }
+        try {
+            jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+                // CREATE INDEX CONCURRENTLY não pode correr dentro de uma transação
+                connection.setAutoCommit(true);
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("SELECT pg_advisory_lock(" + LOCK_KEY + ")");
+                    try {
+                        createIndexes(statement);
+                    } finally {
+                        statement.execute("SELECT pg_advisory_unlock(" + LOCK_KEY + ")");
+                    }
+                }
+                return null;
+            });
+            trigramAvailable = true;
+            log.info("Índices trigram de membros disponíveis");
+        } catch (DataAccessException e) {
+            log.warn("Não foi possível criar índices pg_trgm/unaccent. Busca de membros usará LIKE: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Indica se a busca pode usar os índices trigram.
+     */
+    public boolean isTrigramAvailable() {
+        return trigramAvailable;
+    }
+
+    // ========== Helper Methods ==========
+
+    private void createIndexes(Statement statement) throws SQLException {
+        for (String ddl : DDL) {
+            statement.execute(ddl);
+        }
+
+        // Uma construção CONCURRENTLY interrompida deixa o índice inválido, e IF NOT EXISTS
+        // deixá-lo-ia assim para sempre. Com o lock, nenhum outro nó está a construí-lo.
+        List<String> invalid = new ArrayList<>();
+        try (ResultSet rs = statement.executeQuery(INVALID_INDEXES_SQL)) {
+            while (rs.next()) {
+                invalid.add(rs.getString(1));
+            }
+        }
+        for (String name : invalid) {
+            log.warn("Índice {} inválido (construção interrompida): a recriar", name);
+            statement.execute("DROP INDEX CONCURRENTLY IF EXISTS " + name);
+        }
+
+        for (String[] index : INDEXES) {
+            statement.execute("CREATE INDEX CONCURRENTLY IF NOT EXISTS " + index[0] + " ON members " + index[1]);
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.vaticano.paroquia.config;
 
 import com.vaticano.paroquia.security.jwt.JwtAuthenticationFilter;
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -10,8 +11,6 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
@@ -36,6 +35,9 @@ public class SecurityConfig {
                         .requestMatchers("/v3/api-docs/**", "/swagger-ui/**", "/swagger-ui.html").permitAll()
                         // Erro 404/500
                         .requestMatchers("/error").permitAll()
+                        // Respostas em streaming terminam num dispatch ASYNC, já depois de o pedido ter sido autorizado:
+                        // exportação de membros, relatório sacramental, certificado individual e ZIP de certificados
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                         // Todos os outros endpoints requerem autenticação
                         .anyRequest().authenticated()
                 )
@@ -43,9 +45,4 @@ public class SecurityConfig {
 
         return http.build();
     }
-
-    @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
-    }
 }
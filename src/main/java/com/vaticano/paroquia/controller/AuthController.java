@@ -6,9 +6,11 @@ import com.vaticano.paroquia.dto.request.RefreshTokenRequest;
 import com.vaticano.paroquia.dto.response.LoginResponse;
 import com.vaticano.paroquia.dto.response.MessageResponse;
 import com.vaticano.paroquia.dto.response.RefreshTokenResponse;
+import com.vaticano.paroquia.security.LoginRateLimiter;
 import com.vaticano.paroquia.service.AuthService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
@@ -21,6 +23,7 @@ import org.springframework.web.bind.annotation.*;
 public class AuthController {
 
     private final AuthService authService;
+    private final LoginRateLimiter loginRateLimiter;
 
     @PostMapping("/bootstrap")
     @Operation(summary = "Bootstrap admin inicial", description = "Cria o primeiro usuário administrador. Só funciona se não houver usuários cadastrados.")
@@ -31,8 +34,11 @@ public class AuthController {
 
     @PostMapping("/login")
     @Operation(summary = "Login", description = "Autentica um usuário e retorna access token e refresh token")
-    public ResponseEntity<LoginResponse> login(@Valid @RequestBody LoginRequest request) {
+    public ResponseEntity<LoginResponse> login(@Valid @RequestBody LoginRequest request, HttpServletRequest httpRequest) {
+        // Antes da transação: uma tentativa recusada não chega à base de dados
+        loginRateLimiter.acquire(request.getUsername(), httpRequest.getRemoteAddr());
         LoginResponse response = authService.login(request);
+        loginRateLimiter.reset(request.getUsername());
         return ResponseEntity.ok(response);
     }
 
@@ -1,6 +1,8 @@
 package com.vaticano.paroquia.controller;
 
+import com.vaticano.paroquia.dto.request.CertificateBatchRequest;
 import com.vaticano.paroquia.dto.request.CertificateGenerateRequest;
+import com.vaticano.paroquia.service.CertificateBatchService;
 import com.vaticano.paroquia.service.CertificateService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
@@ -8,9 +10,11 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
@@ -23,22 +27,54 @@ import java.nio.charset.StandardCharsets;
 public class CertificateController {
 
     private final CertificateService certificateService;
+    private final CertificateBatchService certificateBatchService;
 
     @PostMapping("/generate")
-    @Operation(summary = "Gerar certificado", description = "Gera e devolve certificado em PDF ou Word (DOCX)")
-    public ResponseEntity<byte[]> generateCertificate(@Valid @RequestBody CertificateGenerateRequest request) {
-        CertificateService.GeneratedCertificate generated = certificateService.generate(request);
+    @Operation(summary = "Gerar certificado", description = "Gera e devolve certificado em PDF ou Word (DOCX). "
+            + "Responde 304 se If-None-Match tiver o ETag do mesmo certificado")
+    public ResponseEntity<StreamingResponseBody> generateCertificate(
+            @Valid @RequestBody CertificateGenerateRequest request,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
+    ) {
+        CertificateService.GeneratedCertificate generated = certificateService.generate(request, ifNoneMatch);
+        String etag = "\"" + generated.getEtag() + "\"";
 
-        String encodedFilename = URLEncoder.encode(generated.getFilename(), StandardCharsets.UTF_8)
-                .replace("+", "%20");
+        if (generated.isNotModified()) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
 
-        HttpHeaders headers = new HttpHeaders();
-        headers.set(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename*=UTF-8''" + encodedFilename);
+        try {
+            String encodedFilename = URLEncoder.encode(generated.getFilename(), StandardCharsets.UTF_8)
+                    .replace("+", "%20");
+
+            HttpHeaders headers = new HttpHeaders();
+            headers.set(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename*=UTF-8''" + encodedFilename);
+            if (generated.getContentLength() >= 0) {
+                headers.setContentLength(generated.getContentLength());
+            }
+
+            // writeTo fecha o ficheiro depois de o enviar
+            return ResponseEntity.ok()
+                    .headers(headers)
+                    .eTag(etag)
+                    .contentType(MediaType.parseMediaType(generated.getContentType()))
+                    .body(generated::writeTo);
+        } catch (RuntimeException e) {
+            generated.close();
+            throw e;
+        }
+    }
+
+    @PostMapping("/batch")
+    @Operation(summary = "Gerar certificados em lote",
+            description = "Gera varios certificados (pedidos completos ou lista de membros) e devolve-os num ZIP")
+    public ResponseEntity<StreamingResponseBody> generateBatch(@Valid @RequestBody CertificateBatchRequest request) {
+        CertificateBatchService.CertificateBatch batch = certificateBatchService.prepare(request);
 
         return ResponseEntity.ok()
-                .headers(headers)
-                .contentType(MediaType.parseMediaType(generated.getContentType()))
-                .body(generated.getBytes());
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + batch.filename() + "\"")
+                .contentType(MediaType.parseMediaType("application/zip"))
+                .body(outputStream -> certificateBatchService.write(batch, outputStream));
     }
 }
 
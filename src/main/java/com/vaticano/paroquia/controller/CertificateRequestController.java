@@ -0,0 +1,91 @@
+package com.vaticano.paroquia.controller;
+
+import com.vaticano.paroquia.dto.request.CreateCertificateRequestRequest;
+import com.vaticano.paroquia.dto.request.RejectCertificateRequestRequest;
+import com.vaticano.paroquia.dto.response.CertificateRequestResponse;
+import com.vaticano.paroquia.service.CertificateRequestService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+
+@RestController
+@RequestMapping("/api/certificate-requests")
+@RequiredArgsConstructor
+@SecurityRequirement(name = "bearerAuth")
+@Tag(name = "Pedidos de certificado", description = "Pedidos de certificado gerados em segundo plano apos aprovacao")
+public class CertificateRequestController {
+
+    private static final int MAX_PAGE_SIZE = 100;
+
+    private final CertificateRequestService certificateRequestService;
+
+    @PostMapping
+    @Operation(summary = "Pedir certificado", description = "Cria um pedido de certificado para um membro do nucleo (fica pendente de aprovacao)")
+    public ResponseEntity<CertificateRequestResponse> create(@Valid @RequestBody CreateCertificateRequestRequest request) {
+        CertificateRequestResponse response = certificateRequestService.create(request);
+        return ResponseEntity.status(201).body(response);
+    }
+
+    @GetMapping
+    @Operation(summary = "Listar pedidos", description = "Lista pedidos de certificado, opcionalmente por estado (pendente, aprovado, recusado, emitido, falhado)")
+    public ResponseEntity<Page<CertificateRequestResponse>> list(
+            @RequestParam(required = false) String estado,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size
+    ) {
+        Pageable pageable = PageRequest.of(page, Math.max(1, Math.min(size, MAX_PAGE_SIZE)), Sort.by(Sort.Direction.DESC, "createdAt"));
+        return ResponseEntity.ok(certificateRequestService.list(estado, pageable));
+    }
+
+    @GetMapping("/{id}")
+    @Operation(summary = "Estado do pedido", description = "Estado do pedido, tentativas de geracao e ultimo erro")
+    public ResponseEntity<CertificateRequestResponse> get(@PathVariable String id) {
+        return ResponseEntity.ok(certificateRequestService.get(id));
+    }
+
+    @PostMapping("/{id}/approve")
+    @Operation(summary = "Aprovar pedido", description = "Aprova o pedido; o certificado e gerado em segundo plano. "
+            + "Pedidos falhados (tentativas esgotadas) podem ser aprovados de novo")
+    public ResponseEntity<CertificateRequestResponse> approve(@PathVariable String id) {
+        return ResponseEntity.ok(certificateRequestService.approve(id));
+    }
+
+    @PostMapping("/{id}/reject")
+    @Operation(summary = "Recusar pedido", description = "Recusa o pedido indicando o motivo")
+    public ResponseEntity<CertificateRequestResponse> reject(
+            @PathVariable String id,
+            @Valid @RequestBody RejectCertificateRequestRequest request
+    ) {
+        return ResponseEntity.ok(certificateRequestService.reject(id, request.getMotivo()));
+    }
+
+    @GetMapping("/{id}/download")
+    @Operation(summary = "Descarregar certificado", description = "Devolve o certificado emitido")
+    public ResponseEntity<Resource> download(@PathVariable String id) {
+        CertificateRequestService.IssuedCertificate issued = certificateRequestService.download(id);
+        FileSystemResource resource = new FileSystemResource(issued.file());
+
+        String encodedFilename = URLEncoder.encode(issued.filename(), StandardCharsets.UTF_8)
+                .replace("+", "%20");
+
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename*=UTF-8''" + encodedFilename)
+                .contentType(MediaType.parseMediaType(issued.contentType()))
+                .body(resource);
+    }
+}
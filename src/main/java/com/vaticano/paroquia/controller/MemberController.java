@@ -1,9 +1,18 @@
 package com.vaticano.paroquia.controller;
 
 import com.vaticano.paroquia.dto.request.MemberRequest;
+import com.vaticano.paroquia.dto.response.CursorPageResponse;
+import com.vaticano.paroquia.dto.response.MemberDuplicateResponse;
+import com.vaticano.paroquia.dto.response.MemberImportResponse;
 import com.vaticano.paroquia.dto.response.MemberResponse;
+import com.vaticano.paroquia.dto.response.MemberSummaryResponse;
 import com.vaticano.paroquia.dto.response.MessageResponse;
+import com.vaticano.paroquia.exception.BadRequestException;
+import com.vaticano.paroquia.service.MemberDuplicateService;
+import com.vaticano.paroquia.service.MemberExportService;
+import com.vaticano.paroquia.service.MemberImportService;
 import com.vaticano.paroquia.service.MemberService;
+import com.vaticano.paroquia.service.SacramentReportService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -13,8 +22,17 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
 
 @RestController
 @RequestMapping("/api/members")
@@ -23,7 +41,14 @@ import org.springframework.web.bind.annotation.*;
 @Tag(name = "Membros", description = "Gestão de membros paroquiais")
 public class MemberController {
 
+    private static final int MAX_SCROLL_SIZE = 1000;
+    private static final int MAX_DUPLICATES = 1000;
+
     private final MemberService memberService;
+    private final MemberImportService memberImportService;
+    private final MemberExportService memberExportService;
+    private final SacramentReportService sacramentReportService;
+    private final MemberDuplicateService memberDuplicateService;
 
     @GetMapping
     @Operation(summary = "Listar membros", description = "Lista todos os membros com paginação e busca opcional")
@@ -40,6 +65,76 @@ public class MemberController {
         return ResponseEntity.ok(members);
     }
 
+    @GetMapping("/summary")
+    @Operation(summary = "Listar membros (resumo)", description = "Listagem leve para ecrãs de lista: chave, nome, comunidade e sacramentos")
+    public ResponseEntity<Page<MemberSummaryResponse>> listMemberSummaries(
+            @RequestParam(required = false) String search,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "nomeCompleto") String sortBy,
+            @RequestParam(defaultValue = "ASC") String sortDir
+    ) {
+        Sort.Direction direction = sortDir.equalsIgnoreCase("ASC") ? Sort.Direction.ASC : Sort.Direction.DESC;
+        Pageable pageable = PageRequest.of(page, size, Sort.by(direction, sortBy));
+        Page<MemberSummaryResponse> members = memberService.listMemberSummaries(search, pageable);
+        return ResponseEntity.ok(members);
+    }
+
+    @GetMapping("/scroll")
+    @Operation(summary = "Listar membros por cursor", description = "Paginação keyset por nome, sem contagem total. Envie o nextCursor recebido em 'after' para obter a página seguinte")
+    public ResponseEntity<CursorPageResponse<MemberResponse>> scrollMembers(
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "100") int size
+    ) {
+        int boundedSize = Math.max(1, Math.min(size, MAX_SCROLL_SIZE));
+        CursorPageResponse<MemberResponse> members = memberService.scrollMembers(after, boundedSize);
+        return ResponseEntity.ok(members);
+    }
+
+    @GetMapping("/export")
+    @Operation(summary = "Exportar membros", description = "Exporta todos os membros em streaming: csv (layout do modelo de importação) ou ndjson")
+    public ResponseEntity<StreamingResponseBody> exportMembers(@RequestParam(defaultValue = "csv") String format) {
+        MemberExportService.ExportFormat exportFormat = MemberExportService.ExportFormat.fromValue(format);
+        StreamingResponseBody body = memberExportService.export(exportFormat);
+
+        String filename = "membros_" + LocalDate.now().format(DateTimeFormatter.BASIC_ISO_DATE) + "." + exportFormat.getExtension();
+
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+                .contentType(MediaType.parseMediaType(exportFormat.getContentType()))
+                .body(body);
+    }
+
+    @GetMapping("/sacraments/report")
+    @Operation(summary = "Relatório de estatística sacramental", description = "PDF com baptismos, crismas e casamentos por comunidade e por ano, opcionalmente entre dois anos")
+    public ResponseEntity<StreamingResponseBody> sacramentReport(
+            @RequestParam(required = false) Integer from,
+            @RequestParam(required = false) Integer to
+    ) {
+        StreamingResponseBody body = sacramentReportService.report(from, to);
+
+        String filename = "estatistica_sacramental_" + LocalDate.now().format(DateTimeFormatter.BASIC_ISO_DATE) + ".pdf";
+
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+                .contentType(MediaType.APPLICATION_PDF)
+                .body(body);
+    }
+
+    @GetMapping("/duplicates")
+    @Operation(summary = "Detetar membros duplicados", description = "Pares de membros provavelmente duplicados (nome aproximado, data de nascimento e pais), com pontuação entre 0 e 1")
+    public ResponseEntity<List<MemberDuplicateResponse>> findDuplicates(
+            @RequestParam(defaultValue = "0.85") double minScore,
+            @RequestParam(defaultValue = "200") int limit
+    ) {
+        if (minScore < 0 || minScore > 1) {
+            throw new BadRequestException("minScore deve estar entre 0 e 1");
+        }
+        int boundedLimit = Math.max(1, Math.min(limit, MAX_DUPLICATES));
+        List<MemberDuplicateResponse> duplicates = memberDuplicateService.findDuplicates(minScore, boundedLimit);
+        return ResponseEntity.ok(duplicates);
+    }
+
     @GetMapping("/{memberKey}")
     @Operation(summary = "Buscar membro por chave", description = "Retorna detalhes de um membro específico")
     public ResponseEntity<MemberResponse> getMemberByKey(@PathVariable String memberKey) {
@@ -47,6 +142,13 @@ public class MemberController {
         return ResponseEntity.ok(member);
     }
 
+    @GetMapping("/by-id/{memberId}")
+    @Operation(summary = "Buscar membro por memberId", description = "Retorna detalhes de um membro pelo identificador estável (mbr_...)")
+    public ResponseEntity<MemberResponse> getMemberByMemberId(@PathVariable String memberId) {
+        MemberResponse member = memberService.getMemberByMemberId(memberId);
+        return ResponseEntity.ok(member);
+    }
+
     @PostMapping
     @Operation(summary = "Criar membro", description = "Cria um novo membro no sistema")
     public ResponseEntity<MemberResponse> createMember(@Valid @RequestBody MemberRequest request) {
@@ -54,6 +156,16 @@ public class MemberController {
         return ResponseEntity.status(201).body(member);
     }
 
+    @PostMapping(value = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @Operation(summary = "Importar membros (CSV)", description = "Importa membros a partir de CSV no formato do Modelo_Importacao_Membros.csv (separador ';')")
+    public ResponseEntity<MemberImportResponse> importMembers(@RequestParam("file") MultipartFile file) throws IOException {
+        if (file.isEmpty()) {
+            throw new BadRequestException("Ficheiro CSV vazio");
+        }
+        MemberImportResponse response = memberImportService.importCsv(file.getInputStream(), file.getOriginalFilename());
+        return ResponseEntity.ok(response);
+    }
+
     @PutMapping("/{memberKey}")
     @Operation(summary = "Atualizar membro", description = "Atualiza dados de um membro existente")
     public ResponseEntity<MemberResponse> updateMember(
@@ -5,15 +5,20 @@ import com.vaticano.paroquia.domain.enums.TipoCertificado;
 import jakarta.persistence.*;
 import lombok.*;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.JdbcTypeCode;
 import org.hibernate.annotations.UpdateTimestamp;
+import org.hibernate.type.SqlTypes;
 
 import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
 
 @Entity
 @Table(name = "certificate_requests", indexes = {
-    @Index(name = "idx_cert_requests_member_key", columnList = "member_key"),
+    @Index(name = "idx_cert_requests_member_ref", columnList = "member_ref"),
     @Index(name = "idx_cert_requests_nucleo_id", columnList = "nucleo_id"),
-    @Index(name = "idx_cert_requests_estado", columnList = "estado")
+    @Index(name = "idx_cert_requests_estado", columnList = "estado"),
+    @Index(name = "idx_cert_requests_requested_by", columnList = "requested_by_user_id")
 })
 @Getter
 @Setter
@@ -35,8 +40,8 @@ public class CertificateRequest {
     @Builder.Default
     private EstadoCertificado estado = EstadoCertificado.PENDENTE;
 
-    @Column(name = "member_key", nullable = false, length = 200)
-    private String memberKey;
+    @Column(name = "member_ref", nullable = false)
+    private UUID memberRef;  // members.id
 
     @Column(name = "nucleo_id", nullable = false, length = 50)
     private String nucleoId;
@@ -53,6 +58,39 @@ public class CertificateRequest {
     @Column(name = "motivo_recusa", columnDefinition = "TEXT")
     private String motivoRecusa;  // Caso seja recusado
 
+    @Column(name = "formato", length = 10)
+    private String formato;  // pdf ou word
+
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(name = "dados", columnDefinition = "jsonb")
+    private Map<String, Object> dados;  // Campos do certificado além dos do membro (paroquia, assinante, ...)
+
+    // Processamento em fila (ver CertificateJobWorker)
+
+    @Column(name = "tentativas")
+    private Integer tentativas;
+
+    @Column(name = "locked_until")
+    private LocalDateTime lockedUntil;  // Reservado por um worker até esta hora
+
+    @Column(name = "erro", columnDefinition = "TEXT")
+    private String erro;  // Última falha de geração
+
+    @Column(name = "output_path", length = 500)
+    private String outputPath;
+
+    @Column(name = "output_filename", length = 300)
+    private String outputFilename;
+
+    @Column(name = "output_content_type", length = 100)
+    private String outputContentType;
+
+    @Column(name = "output_size")
+    private Long outputSize;
+
+    @Column(name = "emitido_at")
+    private LocalDateTime emitidoAt;
+
     @CreationTimestamp
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
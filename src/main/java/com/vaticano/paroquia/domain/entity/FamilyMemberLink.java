@@ -3,10 +3,12 @@ package com.vaticano.paroquia.domain.entity;
 import jakarta.persistence.*;
 import lombok.*;
 
+import java.util.UUID;
+
 @Entity
 @Table(name = "family_member_links", indexes = {
     @Index(name = "idx_family_member_links_family_id", columnList = "family_id"),
-    @Index(name = "idx_family_member_links_member_key", columnList = "member_key")
+    @Index(name = "idx_family_member_links_member_ref", columnList = "member_ref")
 })
 @Getter
 @Setter
@@ -22,8 +24,8 @@ public class FamilyMemberLink {
     @Column(name = "family_id", nullable = false, length = 50)
     private String familyId;
 
-    @Column(name = "member_key", nullable = false, length = 200)
-    private String memberKey;
+    @Column(name = "member_ref", nullable = false)
+    private UUID memberRef;  // members.id
 
     @Column(name = "relacao", length = 100)
     private String relacao;  // Ex: "pai", "filho", "mae"
@@ -7,10 +7,14 @@ import org.hibernate.annotations.UpdateTimestamp;
 import org.hibernate.annotations.SQLRestriction;
 
 import java.time.LocalDateTime;
+import java.util.UUID;
 
 @Entity
-@Table(name = "members", indexes = {
+@Table(name = "members", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_members_member_key", columnNames = "member_key")
+}, indexes = {
     @Index(name = "idx_members_nome_completo", columnList = "nome_completo"),
+    @Index(name = "idx_members_nome_completo_member_key", columnList = "nome_completo, member_key"),
     @Index(name = "idx_members_comunidade", columnList = "comunidade"),
     @Index(name = "idx_members_deleted_at", columnList = "deleted_at")
 })
@@ -23,8 +27,11 @@ import java.time.LocalDateTime;
 public class Member {
 
     @Id
+    @Column(name = "id", nullable = false, updatable = false)
+    private UUID id;  // UUIDv7 (16 bytes, ordenado por tempo de criação)
+
     @Column(name = "member_key", nullable = false, length = 200)
-    private String memberKey;  // Chave derivada via normalização
+    private String memberKey;  // Chave derivada via normalização (única, pode mudar ao corrigir dados)
 
     @Column(name = "member_id", unique = true, nullable = false, length = 50)
     private String memberId;  // ULID com prefixo mbr_
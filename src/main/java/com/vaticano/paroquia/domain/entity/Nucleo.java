@@ -9,6 +9,7 @@ import org.hibernate.annotations.SQLRestriction;
 import java.time.LocalDateTime;
 import java.util.HashSet;
 import java.util.Set;
+import java.util.UUID;
 
 @Entity
 @Table(name = "nucleos", indexes = {
@@ -62,9 +63,9 @@ public class Nucleo {
     // Relacionamentos Many-to-Many com Member
     @ElementCollection
     @CollectionTable(name = "nucleo_members", joinColumns = @JoinColumn(name = "nucleo_id"))
-    @Column(name = "member_key", length = 200)
+    @Column(name = "member_ref")
     @Builder.Default
-    private Set<String> memberKeys = new HashSet<>();
+    private Set<UUID> memberRefs = new HashSet<>();  // members.id
 
     // Relacionamentos Many-to-Many com User (chefes de núcleo)
     @ElementCollection
@@ -46,6 +46,7 @@ public class User {
     @Column(name = "password_hash", nullable = false, length = 256)
     private String passwordHash;
 
+    // Só para hashes SHA-512 antigos; vazio com BCrypt (o sal faz parte do hash)
     @Column(name = "salt", nullable = false, length = 128)
     private String salt;
 
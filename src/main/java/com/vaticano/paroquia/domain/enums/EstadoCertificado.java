@@ -4,7 +4,8 @@ public enum EstadoCertificado {
     PENDENTE("pendente"),
     APROVADO("aprovado"),
     RECUSADO("recusado"),
-    EMITIDO("emitido");
+    EMITIDO("emitido"),
+    FALHADO("falhado");  // Geração falhou em todas as tentativas; pode ser aprovado de novo
 
     private final String value;
 
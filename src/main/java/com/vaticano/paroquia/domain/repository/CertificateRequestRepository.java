@@ -9,17 +9,22 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.UUID;
 
 @Repository
-public interface CertificateRequestRepository extends JpaRepository<CertificateRequest, String> {
+public interface CertificateRequestRepository extends JpaRepository<CertificateRequest, String>, CertificateRequestRepositoryCustom {
 
     Page<CertificateRequest> findByEstado(EstadoCertificado estado, Pageable pageable);
 
-    List<CertificateRequest> findByMemberKey(String memberKey);
+    List<CertificateRequest> findByMemberRef(UUID memberRef);
 
     List<CertificateRequest> findByNucleoId(String nucleoId);
 
     Page<CertificateRequest> findByTipo(TipoCertificado tipo, Pageable pageable);
 
     List<CertificateRequest> findByRequestedByUserId(String userId);
+
+    Page<CertificateRequest> findByRequestedByUserId(String userId, Pageable pageable);
+
+    Page<CertificateRequest> findByRequestedByUserIdAndEstado(String userId, EstadoCertificado estado, Pageable pageable);
 }
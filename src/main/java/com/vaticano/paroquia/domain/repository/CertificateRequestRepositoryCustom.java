@@ -0,0 +1,34 @@
+package com.vaticano.paroquia.domain.repository;
+
+import java.util.List;
+
+/**
+ * Transições da fila de geração de certificados (PostgreSQL), feitas com SQL nativo para que vários
+ * nós possam processar a fila em simultâneo: as reservas usam SELECT ... FOR UPDATE SKIP LOCKED e
+ * um prazo (locked_until) na hora da base de dados.
+ */
+public interface CertificateRequestRepositoryCustom {
+
+    /**
+     * Reserva até limit pedidos APROVADO livres (sem reserva ou com reserva expirada) e com menos de
+     * maxAttempts tentativas, incrementando as tentativas. Retorna os ids reservados.
+     */
+    List<String> claimApproved(int limit, long leaseSeconds, int maxAttempts);
+
+    /**
+     * Devolve o pedido à fila sem contar a tentativa (ex: motor de PDF ocupado).
+     */
+    void release(String id);
+
+    /**
+     * Regista a falha e volta a disponibilizar o pedido daqui a retryDelaySeconds, ou, se já gastou
+     * maxAttempts tentativas, passa-o a FALHADO.
+     */
+    void markFailed(String id, String erro, long retryDelaySeconds, int maxAttempts);
+
+    /**
+     * Marca o pedido como EMITIDO com o ficheiro gerado. Retorna false se entretanto deixou de
+     * estar APROVADO (ex: recusado durante a geração).
+     */
+    boolean markIssued(String id, String outputPath, String outputFilename, String outputContentType, long outputSize);
+}
@@ -0,0 +1,59 @@
+package com.vaticano.paroquia.domain.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+@RequiredArgsConstructor
+public class CertificateRequestRepositoryCustomImpl implements CertificateRequestRepositoryCustom {
+
+    private static final String CLAIM_SQL = "UPDATE certificate_requests"
+            + " SET locked_until = now() + make_interval(secs => ?), tentativas = coalesce(tentativas, 0) + 1"
+            + " WHERE id IN ("
+            + "   SELECT id FROM certificate_requests"
+            + "   WHERE estado = 'APROVADO' AND (locked_until IS NULL OR locked_until < now())"
+            + "     AND coalesce(tentativas, 0) < ?"
+            + "   ORDER BY created_at"
+            + "   LIMIT ?"
+            + "   FOR UPDATE SKIP LOCKED"
+            + " ) RETURNING id";
+
+    private static final String RELEASE_SQL = "UPDATE certificate_requests"
+            + " SET locked_until = NULL, tentativas = greatest(coalesce(tentativas, 1) - 1, 0)"
+            + " WHERE id = ?";
+
+    private static final String FAILED_SQL = "UPDATE certificate_requests"
+            + " SET estado = CASE WHEN coalesce(tentativas, 0) >= ? THEN 'FALHADO' ELSE estado END,"
+            + "     locked_until = CASE WHEN coalesce(tentativas, 0) >= ? THEN NULL"
+            + "                         ELSE now() + make_interval(secs => ?) END,"
+            + "     erro = ?, updated_at = now()"
+            + " WHERE id = ? AND estado = 'APROVADO'";
+
+    private static final String ISSUED_SQL = "UPDATE certificate_requests"
+            + " SET estado = 'EMITIDO', locked_until = NULL, erro = NULL, output_path = ?, output_filename = ?,"
+            + "     output_content_type = ?, output_size = ?, emitido_at = now(), updated_at = now()"
+            + " WHERE id = ? AND estado = 'APROVADO'";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public List<String> claimApproved(int limit, long leaseSeconds, int maxAttempts) {
+        return jdbcTemplate.queryForList(CLAIM_SQL, String.class, (double) leaseSeconds, maxAttempts, limit);
+    }
+
+    @Override
+    public void release(String id) {
+        jdbcTemplate.update(RELEASE_SQL, id);
+    }
+
+    @Override
+    public void markFailed(String id, String erro, long retryDelaySeconds, int maxAttempts) {
+        jdbcTemplate.update(FAILED_SQL, maxAttempts, maxAttempts, (double) retryDelaySeconds, erro, id);
+    }
+
+    @Override
+    public boolean markIssued(String id, String outputPath, String outputFilename, String outputContentType, long outputSize) {
+        return jdbcTemplate.update(ISSUED_SQL, outputPath, outputFilename, outputContentType, outputSize, id) > 0;
+    }
+}
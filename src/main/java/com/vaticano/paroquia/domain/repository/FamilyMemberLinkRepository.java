@@ -6,17 +6,18 @@ import org.springframework.stereotype.Repository;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.UUID;
 
 @Repository
 public interface FamilyMemberLinkRepository extends JpaRepository<FamilyMemberLink, String> {
 
     List<FamilyMemberLink> findByFamilyId(String familyId);
 
-    List<FamilyMemberLink> findByMemberKey(String memberKey);
+    List<FamilyMemberLink> findByMemberRef(UUID memberRef);
 
-    Optional<FamilyMemberLink> findByFamilyIdAndMemberKey(String familyId, String memberKey);
+    Optional<FamilyMemberLink> findByFamilyIdAndMemberRef(String familyId, UUID memberRef);
 
-    void deleteByFamilyIdAndMemberKey(String familyId, String memberKey);
+    void deleteByFamilyIdAndMemberRef(String familyId, UUID memberRef);
 
-    boolean existsByFamilyIdAndMemberKey(String familyId, String memberKey);
+    boolean existsByFamilyIdAndMemberRef(String familyId, UUID memberRef);
 }
@@ -0,0 +1,14 @@
+package com.vaticano.paroquia.domain.repository;
+
+/**
+ * Campos de identificação de um membro usados na deteção de duplicados.
+ */
+public record MemberMatchCandidate(
+        String memberKey,
+        String nomeCompleto,
+        String comunidade,
+        String dataNascimento,
+        String nomePai,
+        String nomeMae
+) {
+}
@@ -1,21 +1,41 @@
 package com.vaticano.paroquia.domain.repository;
 
 import com.vaticano.paroquia.domain.entity.Member;
+import com.vaticano.paroquia.dto.response.MemberSummaryResponse;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Stream;
 
 @Repository
-public interface MemberRepository extends JpaRepository<Member, String> {
+public interface MemberRepository extends JpaRepository<Member, UUID>, MemberRepositoryCustom {
+
+    Optional<Member> findByMemberKey(String memberKey);
 
     Optional<Member> findByMemberId(String memberId);
 
+    List<Member> findByMemberKeyIn(Collection<String> memberKeys);
+
+    /**
+     * Campos de identificação de todos os membros ativos, para a deteção de duplicados.
+     */
+    @Query("SELECT new com.vaticano.paroquia.domain.repository.MemberMatchCandidate(" +
+           "m.memberKey, m.nomeCompleto, m.comunidade, m.dataNascimento, m.nomePai, m.nomeMae) " +
+           "FROM Member m")
+    List<MemberMatchCandidate> findAllMatchCandidates();
+
     boolean existsByMemberKey(String memberKey);
 
     @Query("SELECT m FROM Member m WHERE " +
@@ -23,6 +43,97 @@ public interface MemberRepository extends JpaRepository<Member, String> {
            "LOWER(m.comunidade) LIKE LOWER(CONCAT('%', :search, '%'))")
     Page<Member> searchMembers(@Param("search") String search, Pageable pageable);
 
+    /**
+     * Busca sem acentos e sem distinção de maiúsculas servida pelos índices GIN pg_trgm
+     * (ver MemberSearchIndexInitializer), ordenada por similaridade com o nome.
+     * likeTerm deve vir com %, _ e \ escapados.
+     */
+    @Query(value = """
+            SELECT m.* FROM members m
+            WHERE m.deleted_at IS NULL
+              AND (lower(f_unaccent(m.nome_completo)) LIKE '%' || lower(f_unaccent(:likeTerm)) || '%'
+                OR lower(f_unaccent(m.comunidade)) LIKE '%' || lower(f_unaccent(:likeTerm)) || '%')
+            ORDER BY similarity(lower(f_unaccent(m.nome_completo)), lower(f_unaccent(:term))) DESC,
+                     m.nome_completo, m.member_key
+            """,
+            countQuery = """
+            SELECT count(*) FROM members m
+            WHERE m.deleted_at IS NULL
+              AND (lower(f_unaccent(m.nome_completo)) LIKE '%' || lower(f_unaccent(:likeTerm)) || '%'
+                OR lower(f_unaccent(m.comunidade)) LIKE '%' || lower(f_unaccent(:likeTerm)) || '%')
+            """,
+            nativeQuery = true)
+    Page<Member> searchMembersTrigram(@Param("term") String term, @Param("likeTerm") String likeTerm, Pageable pageable);
+
+    @Query(value = "SELECT new com.vaticano.paroquia.dto.response.MemberSummaryResponse(" +
+                   "m.memberKey, m.memberId, m.nomeCompleto, m.comunidade, m.batizado, m.crismado, m.casado) " +
+                   "FROM Member m",
+           countQuery = "SELECT count(m) FROM Member m")
+    Page<MemberSummaryResponse> findAllSummaries(Pageable pageable);
+
+    @Query(value = "SELECT new com.vaticano.paroquia.dto.response.MemberSummaryResponse(" +
+                   "m.memberKey, m.memberId, m.nomeCompleto, m.comunidade, m.batizado, m.crismado, m.casado) " +
+                   "FROM Member m WHERE " +
+                   "LOWER(m.nomeCompleto) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
+                   "LOWER(m.comunidade) LIKE LOWER(CONCAT('%', :search, '%'))",
+           countQuery = "SELECT count(m) FROM Member m WHERE " +
+                   "LOWER(m.nomeCompleto) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
+                   "LOWER(m.comunidade) LIKE LOWER(CONCAT('%', :search, '%'))")
+    Page<MemberSummaryResponse> searchSummaries(@Param("search") String search, Pageable pageable);
+
+    /**
+     * Variante resumida de searchMembersTrigram (aliases entre aspas para preservar o nome dos componentes do record).
+     */
+    @Query(value = """
+            SELECT m.member_key AS "memberKey", m.member_id AS "memberId", m.nome_completo AS "nomeCompleto",
+                   m.comunidade AS "comunidade", m.batizado AS "batizado", m.crismado AS "crismado", m.casado AS "casado"
+            FROM members m
+            WHERE m.deleted_at IS NULL
+              AND (lower(f_unaccent(m.nome_completo)) LIKE '%' || lower(f_unaccent(:likeTerm)) || '%'
+                OR lower(f_unaccent(m.comunidade)) LIKE '%' || lower(f_unaccent(:likeTerm)) || '%')
+            ORDER BY similarity(lower(f_unaccent(m.nome_completo)), lower(f_unaccent(:term))) DESC,
+                     m.nome_completo, m.member_key
+            """,
+            countQuery = """
+            SELECT count(*) FROM members m
+            WHERE m.deleted_at IS NULL
+              AND (lower(f_unaccent(m.nome_completo)) LIKE '%' || lower(f_unaccent(:likeTerm)) || '%'
+                OR lower(f_unaccent(m.comunidade)) LIKE '%' || lower(f_unaccent(:likeTerm)) || '%')
+            """,
+            nativeQuery = true)
+    Page<MemberSummaryResponse> searchSummariesTrigram(@Param("term") String term, @Param("likeTerm") String likeTerm, Pageable pageable);
+
+    /**
+     * Primeira página da paginação keyset (sem count).
+     */
+    Slice<Member> findAllByOrderByNomeCompletoAscMemberKeyAsc(Pageable pageable);
+
+    /**
+     * Páginas seguintes da paginação keyset: continua após (nomeCompleto, memberKey).
+     * Servida pelo índice idx_members_nome_completo_member_key, sem OFFSET nem count: a comparação
+     * de row values é uma única condição de intervalo sobre o índice (a forma com OR não o é).
+     */
+    @Query(value = """
+            SELECT m.* FROM members m
+            WHERE (m.nome_completo, m.member_key) > (:nomeCompleto, :memberKey)
+              AND m.deleted_at IS NULL
+            ORDER BY m.nome_completo ASC, m.member_key ASC
+            """,
+            nativeQuery = true)
+    Slice<Member> findAfter(@Param("nomeCompleto") String nomeCompleto,
+                            @Param("memberKey") String memberKey,
+                            Pageable pageable);
+
+    /**
+     * Percorre todos os membros por cursor JDBC (requer transação aberta e fechar o Stream).
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT m FROM Member m ORDER BY m.nomeCompleto ASC, m.memberKey ASC")
+    Stream<Member> streamAllForExport();
+
     List<Member> findByComunidade(String comunidade);
 
     Page<Member> findByBatizadoTrue(Pageable pageable);
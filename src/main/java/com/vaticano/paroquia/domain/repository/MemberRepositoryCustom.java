@@ -0,0 +1,42 @@
+package com.vaticano.paroquia.domain.repository;
+
+import com.vaticano.paroquia.domain.entity.Member;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Operações nativas (PostgreSQL) de escrita de membros num único round trip,
+ * usando INSERT ... ON CONFLICT (member_key) em vez de existsById + save.
+ */
+public interface MemberRepositoryCustom {
+
+    /**
+     * Insere o membro se a chave não existir. Retorna o registo gravado, ou vazio se já existia.
+     */
+    Optional<Member> insertIfAbsent(Member member);
+
+    /**
+     * Insere ou atualiza o membro pela member_key. Membros apagados (soft delete) não são reativados
+     * e são reportados como UNCHANGED.
+     */
+    MemberUpsertResult upsert(Member member);
+
+    /**
+     * Upsert em lote (um único statement por bloco). Chaves repetidas no lote: prevalece a última.
+     */
+    List<MemberUpsertResult> upsertAll(List<Member> members);
+
+    /**
+     * Atualiza o membro identificado por currentKey, incluindo a própria member_key se tiver mudado.
+     * Retorna vazio se o membro não existir. Lança DuplicateKeyException se a nova chave já existir.
+     */
+    Optional<Member> updateByKey(String currentKey, Member member);
+
+    /**
+     * Baptismos, crismas e casamentos por comunidade e ano, numa única passagem pela tabela.
+     * O ano é o primeiro ano de quatro dígitos da data (campo de texto livre). Com fromYear/toYear
+     * (opcionais) os registos sem ano ficam de fora.
+     */
+    List<SacramentCount> countSacramentsByComunidadeAndYear(Integer fromYear, Integer toYear);
+}
@@ -0,0 +1,253 @@
+package com.vaticano.paroquia.domain.repository;
+
+import com.vaticano.paroquia.domain.entity.Member;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+@RequiredArgsConstructor
+public class MemberRepositoryCustomImpl implements MemberRepositoryCustom {
+
+    /** Limite de parâmetros por statement no protocolo do PostgreSQL é 32767. */
+    private static final int MAX_ROWS_PER_STATEMENT = 1000;
+
+    /** Colunas de dados, pela ordem de bind. */
+    private static final List<String> COLUMNS = List.of(
+            "id", "member_key", "member_id", "ord_original", "nome_completo", "comunidade", "data_baptismo",
+            "data_nascimento", "naturalidade", "nome_pai", "naturalidade_pai", "estado_civil", "profissao",
+            "nome_mae", "avos_paternos", "avos_maternos", "nome_padrinho", "estado_civil_padrinho",
+            "profissao_padrinho", "residencia_padrinho", "nome_madrinha", "estado_civil_madrinha",
+            "profissao_madrinha", "residencia_madrinha", "data_crisma", "data_casamento", "numero_assento",
+            "observacoes", "batizado", "crismado", "casado"
+    );
+
+    /** Colunas atualizadas no conflito (a identidade e o created_at nunca mudam). */
+    private static final List<String> UPDATABLE_COLUMNS = COLUMNS.subList(3, COLUMNS.size());
+
+    private static final String COLUMN_LIST = String.join(", ", COLUMNS) + ", created_at, updated_at";
+
+    private static final String ROW_PLACEHOLDERS = "(" + "?, ".repeat(COLUMNS.size()) + "now(), now())";
+
+    private static final String UPSERT_CONFLICT_CLAUSE = buildUpsertConflictClause();
+
+    private static final String INSERT_IF_ABSENT_SQL = "INSERT INTO members (" + COLUMN_LIST + ") VALUES "
+            + ROW_PLACEHOLDERS + " ON CONFLICT (member_key) DO NOTHING RETURNING *";
+
+    private static final String UPDATE_BY_KEY_SQL = "UPDATE members SET member_key = ?, "
+            + String.join(" = ?, ", UPDATABLE_COLUMNS) + " = ?, updated_at = now()"
+            + " WHERE member_key = ? AND deleted_at IS NULL RETURNING *";
+
+    /** Uma linha por sacramento recebido (LATERAL VALUES), agregada por comunidade e ano. */
+    private static final String SACRAMENT_COUNT_SQL = """
+            WITH s AS (
+                SELECT NULLIF(TRIM(m.comunidade), '') AS comunidade,
+                       x.tipo,
+                       CAST(substring(x.data FROM '(1[6-9][0-9]{2}|20[0-9]{2})') AS INTEGER) AS ano
+                FROM members m
+                CROSS JOIN LATERAL (VALUES
+                    (1, m.data_baptismo, m.batizado),
+                    (2, m.data_crisma, m.crismado),
+                    (3, m.data_casamento, m.casado)
+                ) AS x(tipo, data, recebido)
+                WHERE m.deleted_at IS NULL
+                  AND (x.recebido OR NULLIF(TRIM(x.data), '') IS NOT NULL)
+            )
+            SELECT comunidade, ano,
+                   COUNT(*) FILTER (WHERE tipo = 1) AS baptismos,
+                   COUNT(*) FILTER (WHERE tipo = 2) AS crismas,
+                   COUNT(*) FILTER (WHERE tipo = 3) AS casamentos
+            FROM s
+            WHERE (CAST(? AS INTEGER) IS NULL OR ano >= ?)
+              AND (CAST(? AS INTEGER) IS NULL OR ano <= ?)
+            GROUP BY comunidade, ano
+            ORDER BY comunidade NULLS LAST, ano NULLS LAST
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public Optional<Member> insertIfAbsent(Member member) {
+        List<Member> rows = jdbcTemplate.query(INSERT_IF_ABSENT_SQL, ps -> bind(ps, 1, member), MEMBER_ROW_MAPPER);
+        return rows.stream().findFirst();
+    }
+
+    @Override
+    public MemberUpsertResult upsert(Member member) {
+        return upsertAll(List.of(member)).get(0);
+    }
+
+    @Override
+    public List<MemberUpsertResult> upsertAll(List<Member> members) {
+        // Um mesmo statement não pode afetar a mesma linha duas vezes: deduplica pela chave (prevalece a última)
+        Map<String, Member> unique = new LinkedHashMap<>();
+        for (Member member : members) {
+            unique.put(member.getMemberKey(), member);
+        }
+        List<Member> rows = new ArrayList<>(unique.values());
+
+        Map<String, MemberUpsertResult.Status> outcomes = new HashMap<>();
+        for (int from = 0; from < rows.size(); from += MAX_ROWS_PER_STATEMENT) {
+            List<Member> chunk = rows.subList(from, Math.min(from + MAX_ROWS_PER_STATEMENT, rows.size()));
+            String sql = "INSERT INTO members (" + COLUMN_LIST + ") VALUES "
+                    + String.join(", ", Collections.nCopies(chunk.size(), ROW_PLACEHOLDERS))
+                    + UPSERT_CONFLICT_CLAUSE;
+
+            jdbcTemplate.query(sql, ps -> {
+                int index = 1;
+                for (Member member : chunk) {
+                    index = bind(ps, index, member);
+                }
+            }, rs -> {
+                outcomes.put(rs.getString("member_key"), rs.getBoolean("inserted")
+                        ? MemberUpsertResult.Status.INSERTED
+                        : MemberUpsertResult.Status.UPDATED);
+            });
+        }
+
+        // Linhas não devolvidas pelo RETURNING não foram escritas: dados iguais (ou membro apagado)
+        List<MemberUpsertResult> results = new ArrayList<>(members.size());
+        for (Member member : members) {
+            results.add(new MemberUpsertResult(member.getMemberKey(),
+                    outcomes.getOrDefault(member.getMemberKey(), MemberUpsertResult.Status.UNCHANGED)));
+        }
+        return results;
+    }
+
+    @Override
+    public Optional<Member> updateByKey(String currentKey, Member member) {
+        List<Member> rows = jdbcTemplate.query(UPDATE_BY_KEY_SQL, ps -> {
+            ps.setString(1, member.getMemberKey());
+            int index = bindUpdatable(ps, 2, member);
+            ps.setString(index, currentKey);
+        }, MEMBER_ROW_MAPPER);
+        return rows.stream().findFirst();
+    }
+
+    @Override
+    public List<SacramentCount> countSacramentsByComunidadeAndYear(Integer fromYear, Integer toYear) {
+        return jdbcTemplate.query(SACRAMENT_COUNT_SQL, ps -> {
+            ps.setObject(1, fromYear, Types.INTEGER);
+            ps.setObject(2, fromYear, Types.INTEGER);
+            ps.setObject(3, toYear, Types.INTEGER);
+            ps.setObject(4, toYear, Types.INTEGER);
+        }, (rs, rowNum) -> new SacramentCount(
+                rs.getString("comunidade"),
+                rs.getObject("ano", Integer.class),
+                rs.getLong("baptismos"),
+                rs.getLong("crismas"),
+                rs.getLong("casamentos")
+        ));
+    }
+
+    // ========== Helper Methods ==========
+
+    private static String buildUpsertConflictClause() {
+        StringBuilder sql = new StringBuilder(" ON CONFLICT (member_key) DO UPDATE SET ");
+        for (String column : UPDATABLE_COLUMNS) {
+            sql.append(column).append(" = EXCLUDED.").append(column).append(", ");
+        }
+        sql.append("updated_at = now()");
+
+        // Só escreve se algum campo mudou e o membro não estiver apagado
+        sql.append(" WHERE members.deleted_at IS NULL AND (");
+        sql.append(String.join(", ", UPDATABLE_COLUMNS.stream().map(c -> "members." + c).toList()));
+        sql.append(") IS DISTINCT FROM (");
+        sql.append(String.join(", ", UPDATABLE_COLUMNS.stream().map(c -> "EXCLUDED." + c).toList()));
+        sql.append(")");
+
+        // xmax = 0 apenas em linhas acabadas de inserir
+        sql.append(" RETURNING member_key, (xmax = 0) AS inserted");
+        return sql.toString();
+    }
+
+    private static int bind(PreparedStatement ps, int index, Member m) throws SQLException {
+        ps.setObject(index++, m.getId());
+        ps.setString(index++, m.getMemberKey());
+        ps.setString(index++, m.getMemberId());
+        return bindUpdatable(ps, index, m);
+    }
+
+    private static int bindUpdatable(PreparedStatement ps, int index, Member m) throws SQLException {
+        ps.setString(index++, m.getOrdOriginal());
+        ps.setString(index++, m.getNomeCompleto());
+        ps.setString(index++, m.getComunidade());
+        ps.setString(index++, m.getDataBaptismo());
+        ps.setString(index++, m.getDataNascimento());
+        ps.setString(index++, m.getNaturalidade());
+        ps.setString(index++, m.getNomePai());
+        ps.setString(index++, m.getNaturalidadePai());
+        ps.setString(index++, m.getEstadoCivil());
+        ps.setString(index++, m.getProfissao());
+        ps.setString(index++, m.getNomeMae());
+        ps.setString(index++, m.getAvosPaternos());
+        ps.setString(index++, m.getAvosMaternos());
+        ps.setString(index++, m.getNomePadrinho());
+        ps.setString(index++, m.getEstadoCivilPadrinho());
+        ps.setString(index++, m.getProfissaoPadrinho());
+        ps.setString(index++, m.getResidenciaPadrinho());
+        ps.setString(index++, m.getNomeMadrinha());
+        ps.setString(index++, m.getEstadoCivilMadrinha());
+        ps.setString(index++, m.getProfissaoMadrinha());
+        ps.setString(index++, m.getResidenciaMadrinha());
+        ps.setString(index++, m.getDataCrisma());
+        ps.setString(index++, m.getDataCasamento());
+        ps.setString(index++, m.getNumeroAssento());
+        ps.setString(index++, m.getObservacoes());
+        ps.setBoolean(index++, Boolean.TRUE.equals(m.getBatizado()));
+        ps.setBoolean(index++, Boolean.TRUE.equals(m.getCrismado()));
+        ps.setBoolean(index++, Boolean.TRUE.equals(m.getCasado()));
+        return index;
+    }
+
+    private static final RowMapper<Member> MEMBER_ROW_MAPPER = (ResultSet rs, int rowNum) -> Member.builder()
+            .id(rs.getObject("id", UUID.class))
+            .memberKey(rs.getString("member_key"))
+            .memberId(rs.getString("member_id"))
+            .ordOriginal(rs.getString("ord_original"))
+            .nomeCompleto(rs.getString("nome_completo"))
+            .comunidade(rs.getString("comunidade"))
+            .dataBaptismo(rs.getString("data_baptismo"))
+            .dataNascimento(rs.getString("data_nascimento"))
+            .naturalidade(rs.getString("naturalidade"))
+            .nomePai(rs.getString("nome_pai"))
+            .naturalidadePai(rs.getString("naturalidade_pai"))
+            .estadoCivil(rs.getString("estado_civil"))
+            .profissao(rs.getString("profissao"))
+            .nomeMae(rs.getString("nome_mae"))
+            .avosPaternos(rs.getString("avos_paternos"))
+            .avosMaternos(rs.getString("avos_maternos"))
+            .nomePadrinho(rs.getString("nome_padrinho"))
+            .estadoCivilPadrinho(rs.getString("estado_civil_padrinho"))
+            .profissaoPadrinho(rs.getString("profissao_padrinho"))
+            .residenciaPadrinho(rs.getString("residencia_padrinho"))
+            .nomeMadrinha(rs.getString("nome_madrinha"))
+            .estadoCivilMadrinha(rs.getString("estado_civil_madrinha"))
+            .profissaoMadrinha(rs.getString("profissao_madrinha"))
+            .residenciaMadrinha(rs.getString("residencia_madrinha"))
+            .dataCrisma(rs.getString("data_crisma"))
+            .dataCasamento(rs.getString("data_casamento"))
+            .numeroAssento(rs.getString("numero_assento"))
+            .observacoes(rs.getString("observacoes"))
+            .batizado(rs.getBoolean("batizado"))
+            .crismado(rs.getBoolean("crismado"))
+            .casado(rs.getBoolean("casado"))
+            .createdAt(rs.getObject("created_at", LocalDateTime.class))
+            .updatedAt(rs.getObject("updated_at", LocalDateTime.class))
+            .deletedAt(rs.getObject("deleted_at", LocalDateTime.class))
+            .deletedBy(rs.getString("deleted_by"))
+            .build();
+}
@@ -0,0 +1,13 @@
+package com.vaticano.paroquia.domain.repository;
+
+/**
+ * Resultado do upsert de um membro por member_key.
+ */
+public record MemberUpsertResult(String memberKey, Status status) {
+
+    public enum Status {
+        INSERTED,
+        UPDATED,
+        UNCHANGED
+    }
+}
@@ -11,7 +11,7 @@ import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface RefreshTokenRepository extends JpaRepository<RefreshToken, String> {
+public interface RefreshTokenRepository extends JpaRepository<RefreshToken, String>, RefreshTokenRepositoryCustom {
 
     Optional<RefreshToken> findByTokenHash(String tokenHash);
 
@@ -22,6 +22,6 @@ public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Stri
     void revokeAllByUserId(String userId, LocalDateTime revokedAt);
 
     @Modifying
-    @Query("DELETE FROM RefreshToken rt WHERE rt.expiresAt < :now OR rt.revoked = true")
-    void deleteExpiredAndRevoked(LocalDateTime now);
+    @Query("UPDATE RefreshToken rt SET rt.revoked = true, rt.revokedAt = :revokedAt WHERE rt.tokenHash = :tokenHash AND rt.revoked = false")
+    int revokeByTokenHash(String tokenHash, LocalDateTime revokedAt);
 }
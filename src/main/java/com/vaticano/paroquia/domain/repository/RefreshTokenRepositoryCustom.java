@@ -0,0 +1,29 @@
+package com.vaticano.paroquia.domain.repository;
+
+import com.vaticano.paroquia.domain.entity.RefreshToken;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Consultas nativas (PostgreSQL) de manutenção dos refresh tokens: limpeza em blocos e leitura
+ * do índice em memória (RefreshTokenStore). Cada statement corre na sua própria transação.
+ */
+public interface RefreshTokenRepositoryCustom {
+
+    /**
+     * Apaga até limit tokens expirados ou revogados antes de revokedBefore. Linhas bloqueadas por
+     * outras transações são saltadas (SKIP LOCKED). Retorna o número de linhas apagadas.
+     */
+    int deleteExpiredAndRevoked(LocalDateTime now, LocalDateTime revokedBefore, int limit);
+
+    /**
+     * Até limit tokens válidos (não revogados e não expirados), só com os campos do índice.
+     */
+    List<RefreshToken> findActive(LocalDateTime now, int limit);
+
+    /**
+     * Hashes dos tokens revogados desde since (por este ou por outros nós).
+     */
+    List<String> findHashesRevokedSince(LocalDateTime since);
+}
@@ -0,0 +1,51 @@
+package com.vaticano.paroquia.domain.repository;
+
+import com.vaticano.paroquia.domain.entity.RefreshToken;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@RequiredArgsConstructor
+public class RefreshTokenRepositoryCustomImpl implements RefreshTokenRepositoryCustom {
+
+    private static final String DELETE_EXPIRED_AND_REVOKED_SQL = "DELETE FROM refresh_tokens"
+            + " WHERE token_id IN ("
+            + "   SELECT token_id FROM refresh_tokens"
+            + "   WHERE expires_at < ? OR (revoked = true AND (revoked_at IS NULL OR revoked_at < ?))"
+            + "   LIMIT ?"
+            + "   FOR UPDATE SKIP LOCKED"
+            + " )";
+
+    private static final String FIND_ACTIVE_SQL = "SELECT token_id, user_id, token_hash, expires_at FROM refresh_tokens"
+            + " WHERE revoked = false AND expires_at > ?"
+            + " LIMIT ?";
+
+    private static final String FIND_REVOKED_SINCE_SQL = "SELECT token_hash FROM refresh_tokens"
+            + " WHERE revoked = true AND revoked_at >= ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public int deleteExpiredAndRevoked(LocalDateTime now, LocalDateTime revokedBefore, int limit) {
+        return jdbcTemplate.update(DELETE_EXPIRED_AND_REVOKED_SQL, Timestamp.valueOf(now), Timestamp.valueOf(revokedBefore), limit);
+    }
+
+    @Override
+    public List<RefreshToken> findActive(LocalDateTime now, int limit) {
+        return jdbcTemplate.query(FIND_ACTIVE_SQL, (rs, rowNum) -> RefreshToken.builder()
+                .tokenId(rs.getString("token_id"))
+                .userId(rs.getString("user_id"))
+                .tokenHash(rs.getString("token_hash"))
+                .expiresAt(rs.getTimestamp("expires_at").toLocalDateTime())
+                .revoked(false)
+                .build(), Timestamp.valueOf(now), limit);
+    }
+
+    @Override
+    public List<String> findHashesRevokedSince(LocalDateTime since) {
+        return jdbcTemplate.queryForList(FIND_REVOKED_SINCE_SQL, String.class, Timestamp.valueOf(since));
+    }
+}
@@ -0,0 +1,14 @@
+package com.vaticano.paroquia.domain.repository;
+
+/**
+ * Sacramentos registados numa comunidade num ano. ano é null quando a data do registo não tem
+ * um ano reconhecível.
+ */
+public record SacramentCount(
+        String comunidade,
+        Integer ano,
+        long baptismos,
+        long crismas,
+        long casamentos
+) {
+}
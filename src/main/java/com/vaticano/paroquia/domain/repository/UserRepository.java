@@ -5,9 +5,11 @@ import com.vaticano.paroquia.domain.enums.Role;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
@@ -39,4 +41,16 @@ public interface UserRepository extends JpaRepository<User, String> {
     List<User> findByActiveTrue();
 
     long countByRoleAndActiveTrue(Role role);
+
+    /**
+     * Substitui o hash da senha (atualização para BCrypt) se o hash gravado ainda for currentHash.
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE User u SET u.passwordHash = :newHash, u.salt = '' WHERE u.userId = :userId AND u.passwordHash = :currentHash")
+    int replacePasswordHash(
+            @Param("userId") String userId,
+            @Param("currentHash") String currentHash,
+            @Param("newHash") String newHash
+    );
 }
@@ -0,0 +1,33 @@
+package com.vaticano.paroquia.dto.request;
+
+import jakarta.validation.Valid;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Lote de certificados devolvido num único ZIP.
+ *
+ * Duas formas (podem combinar-se):
+ * - requests: pedidos completos, iguais aos de /api/certificates/generate
+ * - memberKeys: um certificado do tipo/formato indicados por membro, preenchido com os dados
+ *   do registo; data tem os campos comuns (paroquia, assinante, cargo_assinante, ...)
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CertificateBatchRequest {
+
+    @Valid
+    private List<CertificateGenerateRequest> requests;
+
+    private String type;
+    private String format;
+    private Map<String, Object> data;
+    private List<String> memberKeys;
+}
@@ -0,0 +1,33 @@
+package com.vaticano.paroquia.dto.request;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CreateCertificateRequestRequest {
+
+    @NotBlank(message = "Tipo de certificado é obrigatório")
+    private String tipo;  // batismo, crisma, casamento ou declaracao
+
+    private String formato;  // pdf (padrão) ou word
+
+    @NotBlank(message = "Membro é obrigatório")
+    private String memberKey;
+
+    @NotBlank(message = "Núcleo é obrigatório")
+    private String nucleoId;
+
+    private Map<String, Object> dados;  // Campos que não vêm do registo do membro (paroquia, assinante, ...)
+
+    @Size(max = 2000, message = "Observações não podem exceder 2000 caracteres")
+    private String observacoes;
+}
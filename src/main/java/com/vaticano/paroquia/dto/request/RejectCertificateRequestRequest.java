@@ -0,0 +1,19 @@
+package com.vaticano.paroquia.dto.request;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RejectCertificateRequestRequest {
+
+    @NotBlank(message = "Motivo da recusa é obrigatório")
+    @Size(max = 2000, message = "Motivo não pode exceder 2000 caracteres")
+    private String motivo;
+}
@@ -0,0 +1,53 @@
+package com.vaticano.paroquia.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CertificateRequestResponse {
+
+    private String id;
+
+    private String tipo;
+
+    private String estado;
+
+    private String formato;
+
+    private String memberKey;
+
+    private String nucleoId;
+
+    private String observacoes;
+
+    private String requestedByUserId;
+
+    private String processedByUserId;
+
+    private String motivoRecusa;
+
+    private Integer tentativas;
+
+    private String erro;
+
+    private String filename;  // Disponível para download quando EMITIDO
+
+    private Long size;
+
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
+    private LocalDateTime createdAt;
+
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
+    private LocalDateTime updatedAt;
+
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
+    private LocalDateTime emitidoAt;
+}
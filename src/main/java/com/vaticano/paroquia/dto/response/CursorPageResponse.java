@@ -0,0 +1,23 @@
+package com.vaticano.paroquia.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Página por cursor (keyset): sem total de elementos, apenas o cursor para a página seguinte.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPageResponse<T> {
+
+    private List<T> content;
+    private int size;
+    private boolean hasNext;
+    private String nextCursor;  // Opaco; enviar em "after" para obter a página seguinte
+}
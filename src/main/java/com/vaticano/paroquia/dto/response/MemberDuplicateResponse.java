@@ -0,0 +1,35 @@
+package com.vaticano.paroquia.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Par de membros provavelmente duplicados, com a pontuação de semelhança (0 a 1).
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MemberDuplicateResponse {
+
+    private double score;
+    private double nomeScore;
+    private double pais;  // Semelhança dos nomes do pai e da mãe
+    private boolean mesmaDataNascimento;
+
+    private MemberSummary membroA;
+    private MemberSummary membroB;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class MemberSummary {
+        private String memberKey;
+        private String nomeCompleto;
+        private String comunidade;
+        private String dataNascimento;
+    }
+}
@@ -0,0 +1,36 @@
+package com.vaticano.paroquia.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MemberImportResponse {
+
+    private long totalLinhas;
+    private long inseridos;
+    private long atualizados;
+    private long inalterados;
+    private long duplicados;  // Repetidos dentro do próprio ficheiro
+    private long ignorados;
+    private long duracaoMs;
+
+    @Builder.Default
+    private List<LinhaErro> erros = new ArrayList<>();
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class LinhaErro {
+        private long linha;
+        private String motivo;
+    }
+}
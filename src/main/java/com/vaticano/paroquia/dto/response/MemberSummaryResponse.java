@@ -0,0 +1,16 @@
+package com.vaticano.paroquia.dto.response;
+
+/**
+ * Linha resumida de membro para ecrãs de listagem: projetada diretamente na query,
+ * sem entidade gerida nem campos longos (ex: observacoes).
+ */
+public record MemberSummaryResponse(
+        String memberKey,
+        String memberId,
+        String nomeCompleto,
+        String comunidade,
+        Boolean batizado,
+        Boolean crismado,
+        Boolean casado
+) {
+}
@@ -0,0 +1,19 @@
+package com.vaticano.paroquia.exception;
+
+/**
+ * Capacidade esgotada temporariamente (ex: fila de geração de certificados cheia).
+ * Respondida com 503 e Retry-After.
+ */
+public class ServiceUnavailableException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public ServiceUnavailableException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
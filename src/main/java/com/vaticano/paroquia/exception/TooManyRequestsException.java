@@ -0,0 +1,19 @@
+package com.vaticano.paroquia.exception;
+
+/**
+ * Demasiados pedidos do mesmo cliente (ex: tentativas de login).
+ * Respondida com 429 e Retry-After.
+ */
+public class TooManyRequestsException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public TooManyRequestsException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
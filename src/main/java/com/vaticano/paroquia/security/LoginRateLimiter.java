@@ -0,0 +1,234 @@
+package com.vaticano.paroquia.security;
+
+import com.vaticano.paroquia.exception.TooManyRequestsException;
+import com.vaticano.paroquia.util.NormalizeUtil;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Limite de tentativas de login por cliente (IP) e por utilizador (username normalizado).
+ *
+ * Cada chave tem um token bucket: até capacity tentativas seguidas, repostas ao ritmo de
+ * refill-per-minute. O IP é verificado primeiro; uma tentativa recusada pelo IP não toca no bucket
+ * do utilizador, por isso um só cliente não enche a tabela com usernames inventados. Um login com
+ * sucesso repõe o bucket do utilizador.
+ *
+ * Os buckets estão repartidos por STRIPES mapas, cada um com o seu lock, para que pedidos de
+ * clientes diferentes quase nunca esperem uns pelos outros. Cada mapa guarda no máximo
+ * max-keys / STRIPES buckets (sai o usado há mais tempo) e a limpeza periódica retira os que já
+ * voltaram a encher, que valem o mesmo que não existir.
+ *
+ * O IP é o de request.getRemoteAddr(); atrás de um proxy é preciso server.forward-headers-strategy.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class LoginRateLimiter {
+
+    private static final int STRIPES = 64;
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.auth.login-rate-limit.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.auth.login-rate-limit.ip-capacity:30}")
+    private int ipCapacity;
+
+    @Value("${app.auth.login-rate-limit.ip-refill-per-minute:10}")
+    private double ipRefillPerMinute;
+
+    @Value("${app.auth.login-rate-limit.username-capacity:10}")
+    private int usernameCapacity;
+
+    @Value("${app.auth.login-rate-limit.username-refill-per-minute:5}")
+    private double usernameRefillPerMinute;
+
+    @Value("${app.auth.login-rate-limit.max-keys:100000}")
+    private int maxKeys;
+
+    private BucketTable ipBuckets;
+    private BucketTable usernameBuckets;
+
+    @PostConstruct
+    void init() {
+        ipBuckets = new BucketTable("ip", ipCapacity, ipRefillPerMinute, maxKeys);
+        usernameBuckets = new BucketTable("username", usernameCapacity, usernameRefillPerMinute, maxKeys);
+    }
+
+    /**
+     * Consome uma tentativa do IP e do utilizador. Lança TooManyRequestsException se algum estiver esgotado.
+     */
+    public void acquire(String username, String clientIp) {
+        if (!enabled) return;
+
+        long now = System.nanoTime();
+        ipBuckets.acquire(clientIp == null ? "" : clientIp, now);
+
+        String usernameNorm = NormalizeUtil.normalizeForKey(username);
+        if (usernameNorm != null && !usernameNorm.isEmpty()) {
+            usernameBuckets.acquire(usernameNorm, now);
+        }
+    }
+
+    /**
+     * Login com sucesso: as tentativas falhadas anteriores deixam de contar para o utilizador.
+     */
+    public void reset(String username) {
+        if (!enabled) return;
+
+        String usernameNorm = NormalizeUtil.normalizeForKey(username);
+        if (usernameNorm != null && !usernameNorm.isEmpty()) {
+            usernameBuckets.remove(usernameNorm);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.auth.login-rate-limit.sweep-interval-ms:60000}")
+    public void evictIdle() {
+        long now = System.nanoTime();
+        int evicted = ipBuckets.evictFull(now) + usernameBuckets.evictFull(now);
+        if (evicted > 0) {
+            log.debug("Limite de login: {} buckets inativos removidos", evicted);
+        }
+    }
+
+    // ========== Helper Methods ==========
+
+    private final class BucketTable {
+
+        private final int capacity;
+        private final double tokensPerNano;
+        private final Stripe[] stripes = new Stripe[STRIPES];
+        private final Counter rejectedCounter;
+
+        BucketTable(String key, int capacity, double refillPerMinute, int maxKeys) {
+            this.capacity = Math.max(1, capacity);
+            this.tokensPerNano = Math.max(refillPerMinute, 0.001) / TimeUnit.MINUTES.toNanos(1);
+            int maxPerStripe = Math.max(16, (maxKeys + STRIPES - 1) / STRIPES);
+            for (int i = 0; i < STRIPES; i++) {
+                stripes[i] = new Stripe(maxPerStripe);
+            }
+            rejectedCounter = Counter.builder("auth.login.rate_limit.rejected")
+                    .description("Tentativas de login recusadas pelo limite")
+                    .tag("key", key)
+                    .register(meterRegistry);
+            Gauge.builder("auth.login.rate_limit.buckets", this, BucketTable::size)
+                    .description("Buckets de tentativas de login em memória")
+                    .tag("key", key)
+                    .register(meterRegistry);
+        }
+
+        void acquire(String key, long now) {
+            Stripe stripe = stripe(key);
+            long waitNanos;
+            stripe.lock.lock();
+            try {
+                Bucket bucket = stripe.buckets.get(key);
+                if (bucket == null) {
+                    bucket = new Bucket(capacity, now);
+                    stripe.buckets.put(key, bucket);
+                }
+                double tokens = tokensAt(bucket, now);
+                bucket.updatedAt = now;
+                if (tokens >= 1) {
+                    bucket.tokens = tokens - 1;
+                    return;
+                }
+                bucket.tokens = tokens;
+                waitNanos = (long) Math.ceil((1 - tokens) / tokensPerNano);
+            } finally {
+                stripe.lock.unlock();
+            }
+
+            rejectedCounter.increment();
+            long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+            throw new TooManyRequestsException("Muitas tentativas de login. Tente novamente mais tarde.", retryAfterSeconds);
+        }
+
+        void remove(String key) {
+            Stripe stripe = stripe(key);
+            stripe.lock.lock();
+            try {
+                stripe.buckets.remove(key);
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+
+        int evictFull(long now) {
+            int evicted = 0;
+            for (Stripe stripe : stripes) {
+                stripe.lock.lock();
+                try {
+                    int before = stripe.buckets.size();
+                    stripe.buckets.values().removeIf(bucket -> tokensAt(bucket, now) >= capacity);
+                    evicted += before - stripe.buckets.size();
+                } finally {
+                    stripe.lock.unlock();
+                }
+            }
+            return evicted;
+        }
+
+        int size() {
+            int size = 0;
+            for (Stripe stripe : stripes) {
+                stripe.lock.lock();
+                try {
+                    size += stripe.buckets.size();
+                } finally {
+                    stripe.lock.unlock();
+                }
+            }
+            return size;
+        }
+
+        private double tokensAt(Bucket bucket, long now) {
+            return Math.min(capacity, bucket.tokens + (now - bucket.updatedAt) * tokensPerNano);
+        }
+
+        private Stripe stripe(String key) {
+            int hash = key.hashCode();
+            return stripes[(hash ^ (hash >>> 16)) & (STRIPES - 1)];
+        }
+    }
+
+    private static final class Stripe {
+
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Map<String, Bucket> buckets;
+
+        Stripe(int maxEntries) {
+            // Ordem de acesso: quando cheio sai o bucket usado há mais tempo
+            this.buckets = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Bucket> eldest) {
+                    return size() > maxEntries;
+                }
+            };
+        }
+    }
+
+    private static final class Bucket {
+
+        private double tokens;
+        private long updatedAt;
+
+        Bucket(double tokens, long updatedAt) {
+            this.tokens = tokens;
+            this.updatedAt = updatedAt;
+        }
+    }
+}
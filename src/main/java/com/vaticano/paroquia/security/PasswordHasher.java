@@ -0,0 +1,276 @@
+package com.vaticano.paroquia.security;
+
+import com.vaticano.paroquia.exception.BadRequestException;
+import com.vaticano.paroquia.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Hash e verificação de senhas com BCrypt num pool dedicado e limitado.
+ *
+ * - O custo (strength) é calibrado no arranque para que um hash demore cerca de target-ms nesta
+ *   máquina, nunca abaixo de min-strength; strength fixa-o e dispensa a calibração.
+ * - Os hashes correm em poucos workers (por omissão metade dos processadores) com fila limitada:
+ *   com a fila cheia o pedido é rejeitado de imediato (503) em vez de ocupar todos os cores.
+ * - Os hashes SHA-512 antigos (hex + coluna salt) continuam a ser aceites; verify devolve o novo
+ *   hash BCrypt para o chamador gravar, tal como para hashes BCrypt com custo abaixo do atual.
+ * - Utilizador inexistente e senha errada num hash SHA-512 gastam o mesmo tempo que um BCrypt
+ *   (verifyDummy), para o login não revelar quem existe.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class PasswordHasher {
+
+    private static final int MAX_STRENGTH = 16;
+    private static final int MAX_PASSWORD_BYTES = 72;  // limite do BCrypt
+    private static final long RETRY_AFTER_SECONDS = 2;
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.auth.password.strength:0}")
+    private int fixedStrength;  // 0 = calibrar no arranque
+
+    @Value("${app.auth.password.min-strength:10}")
+    private int minStrength;
+
+    @Value("${app.auth.password.target-ms:250}")
+    private long targetMs;
+
+    @Value("${app.auth.password.threads:0}")
+    private int threads;  // 0 = metade dos processadores
+
+    @Value("${app.auth.password.queue-capacity:64}")
+    private int queueCapacity;
+
+    @Value("${app.auth.password.timeout:5s}")
+    private Duration timeout;
+
+    private ThreadPoolExecutor executor;
+    private BCryptPasswordEncoder encoder;
+    private int strength;
+    private String dummyHash;
+    private Counter rejectedCounter;
+    private Counter upgradedCounter;
+
+    /**
+     * Resultado de verify. upgradedHash (não nulo só se a senha confere) deve substituir o hash gravado.
+     */
+    public record Verification(boolean matches, String upgradedHash) {
+    }
+
+    @PostConstruct
+    void start() {
+        int poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger threadNumber = new AtomicInteger();
+        executor = new ThreadPoolExecutor(
+                poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hash-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+
+        strength = fixedStrength > 0 ? fixedStrength : calibrate();
+        encoder = new BCryptPasswordEncoder(strength);
+        dummyHash = encoder.encode(randomPassword());
+
+        rejectedCounter = Counter.builder("auth.passwords.rejected")
+                .description("Verificações de senha rejeitadas por fila cheia")
+                .register(meterRegistry);
+        upgradedCounter = Counter.builder("auth.passwords.upgraded")
+                .description("Hashes de senha antigos ou de custo inferior substituídos no login")
+                .register(meterRegistry);
+        Gauge.builder("auth.passwords.queue.size", executor, e -> e.getQueue().size())
+                .description("Hashes de senha à espera de um worker")
+                .register(meterRegistry);
+        Gauge.builder("auth.passwords.strength", this, hasher -> hasher.strength)
+                .description("Custo BCrypt dos novos hashes de senha")
+                .register(meterRegistry);
+
+        log.info("Hash de senhas: BCrypt custo {}{}, {} workers, fila {}", strength,
+                fixedStrength > 0 ? " (fixo)" : " (calibrado para " + targetMs + " ms)", poolSize, queueCapacity);
+    }
+
+    @PreDestroy
+    void stop() {
+        executor.shutdown();
+    }
+
+    /**
+     * Hash BCrypt de uma nova senha. O sal vai dentro do hash: a coluna salt fica vazia.
+     */
+    public String hash(String password) {
+        if (password.getBytes(StandardCharsets.UTF_8).length > MAX_PASSWORD_BYTES) {
+            throw new BadRequestException("Senha não pode exceder " + MAX_PASSWORD_BYTES + " bytes");
+        }
+        return run("hash", () -> encoder.encode(password));
+    }
+
+    /**
+     * Verifica a senha contra o hash gravado (BCrypt ou SHA-512 antigo com salt).
+     */
+    public Verification verify(String password, String passwordHash, String salt) {
+        if (!isBcrypt(passwordHash)) {
+            // SHA-512 é barato: verificado aqui; o custo BCrypt vem do novo hash ou, se a senha não
+            // confere, de uma verificação fictícia, para o tempo não distinguir utilizadores antigos
+            // de inexistentes
+            if (!MessageDigest.isEqual(
+                    legacyHash(password, salt).getBytes(StandardCharsets.UTF_8),
+                    passwordHash.getBytes(StandardCharsets.UTF_8))) {
+                verifyDummy(password);
+                return new Verification(false, null);
+            }
+            return new Verification(true, upgrade(password));
+        }
+
+        return run("verify", () -> {
+            if (!encoder.matches(password, passwordHash)) {
+                return new Verification(false, null);
+            }
+            boolean weaker = encoder.upgradeEncoding(passwordHash);
+            return new Verification(true, weaker ? encodeForUpgrade(password) : null);
+        });
+    }
+
+    /**
+     * Verificação para um utilizador que não existe: mesmo custo que verify, resultado sempre falso.
+     */
+    public void verifyDummy(String password) {
+        run("verify", () -> encoder.matches(password, dummyHash));
+    }
+
+    public int getStrength() {
+        return strength;
+    }
+
+    // ========== Helper Methods ==========
+
+    private <T> T run(String operation, Supplier<T> task) {
+        long queuedAt = System.nanoTime();
+        CompletableFuture<T> future;
+        try {
+            future = CompletableFuture.supplyAsync(() -> {
+                long start = System.nanoTime();
+                try {
+                    return task.get();
+                } finally {
+                    long end = System.nanoTime();
+                    Timer.builder("auth.passwords.queue.wait")
+                            .description("Tempo de espera na fila de hash de senhas")
+                            .register(meterRegistry)
+                            .record(start - queuedAt, TimeUnit.NANOSECONDS);
+                    Timer.builder("auth.passwords.hash")
+                            .description("Tempo de cálculo do hash de senha")
+                            .tag("operation", operation)
+                            .register(meterRegistry)
+                            .record(end - start, TimeUnit.NANOSECONDS);
+                }
+            }, executor);
+        } catch (RejectedExecutionException e) {
+            rejectedCounter.increment();
+            throw new ServiceUnavailableException("Servidor ocupado. Tente novamente dentro de instantes", RETRY_AFTER_SECONDS);
+        }
+
+        try {
+            return future.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            throw new ServiceUnavailableException("Tempo esgotado a verificar a senha", RETRY_AFTER_SECONDS);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException("Verificação da senha interrompida", RETRY_AFTER_SECONDS);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Erro ao calcular hash de senha", e.getCause());
+        }
+    }
+
+    private String upgrade(String password) {
+        if (password.getBytes(StandardCharsets.UTF_8).length > MAX_PASSWORD_BYTES) {
+            // Não cabe no BCrypt: mantém o hash antigo até o utilizador mudar a senha
+            return null;
+        }
+        return run("hash", () -> encodeForUpgrade(password));
+    }
+
+    private String encodeForUpgrade(String password) {
+        upgradedCounter.increment();
+        return encoder.encode(password);
+    }
+
+    /**
+     * Custo cujo hash demora no máximo targetMs, a partir de uma medição com min-strength
+     * (cada +1 duplica o tempo).
+     */
+    private int calibrate() {
+        BCryptPasswordEncoder probe = new BCryptPasswordEncoder(minStrength);
+        String password = randomPassword();
+        probe.encode(password);  // aquecimento (JIT)
+
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < 3; i++) {
+            long start = System.nanoTime();
+            probe.encode(password);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+
+        long target = TimeUnit.MILLISECONDS.toNanos(targetMs);
+        int calibrated = minStrength;
+        while (calibrated < MAX_STRENGTH && best * 2 <= target) {
+            best *= 2;
+            calibrated++;
+        }
+        return calibrated;
+    }
+
+    private static boolean isBcrypt(String passwordHash) {
+        return passwordHash.startsWith("$2");
+    }
+
+    private static String legacyHash(String password, String salt) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-512");
+            digest.update(salt.getBytes(StandardCharsets.UTF_8));
+            byte[] hash = digest.digest(password.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException("Erro ao gerar hash de senha", e);
+        }
+    }
+
+    private static String randomPassword() {
+        byte[] bytes = new byte[24];
+        new SecureRandom().nextBytes(bytes);
+        return Base64.getEncoder().encodeToString(bytes);
+    }
+}
@@ -40,28 +40,27 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         try {
             final String jwt = authHeader.substring(7);
 
-            if (jwtService.validateToken(jwt)) {
-                String userId = jwtService.getUserIdFromToken(jwt);
-                String username = jwtService.getUsernameFromToken(jwt);
-                String role = jwtService.getRoleFromToken(jwt);
+            // Uma única verificação da assinatura por token (e nenhuma se já estiver em cache)
+            JwtService.VerifiedToken token = jwtService.verify(jwt).orElse(null);
+            if (token != null && token.userId() != null && token.role() != null
+                    && SecurityContextHolder.getContext().getAuthentication() == null) {
+                String role = token.role();
 
-                if (userId != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                    // Cria autenticação com role como authority
-                    List<SimpleGrantedAuthority> authorities = List.of(
-                            new SimpleGrantedAuthority("ROLE_" + role.toUpperCase())
-                    );
+                // Cria autenticação com role como authority
+                List<SimpleGrantedAuthority> authorities = List.of(
+                        new SimpleGrantedAuthority("ROLE_" + role.toUpperCase())
+                );
 
-                    UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                            userId,  // Principal é o userId
-                            null,    // Credentials
-                            authorities
-                    );
+                UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
+                        token.userId(),  // Principal é o userId
+                        null,    // Credentials
+                        authorities
+                );
 
-                    authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                    SecurityContextHolder.getContext().setAuthentication(authToken);
+                authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                SecurityContextHolder.getContext().setAuthentication(authToken);
 
-                    log.debug("Usuário autenticado: {} ({})", username, role);
-                }
+                log.debug("Usuário autenticado: {} ({})", token.username(), role);
             }
         } catch (Exception e) {
             log.error("Erro ao processar JWT: {}", e.getMessage());
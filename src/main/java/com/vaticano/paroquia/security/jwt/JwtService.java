@@ -1,22 +1,46 @@
 package com.vaticano.paroquia.security.jwt;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import com.vaticano.paroquia.domain.enums.Role;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HexFormat;
 import java.util.Map;
-
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Emissão e verificação de JWT (HS512).
+ *
+ * A chave e o parser são criados uma vez no arranque. Tokens verificados ficam numa cache pequena
+ * indexada pelo SHA-256 do token, com cada entrada a expirar no exp do próprio token: pedidos
+ * seguidos com o mesmo token não voltam a verificar a assinatura. Só tokens válidos entram na cache.
+ */
 @Service
+@RequiredArgsConstructor
 @Slf4j
 public class JwtService {
 
+    private static final int MIN_SECRET_BITS = 512;
+
+    private final MeterRegistry meterRegistry;
+
     @Value("${app.jwt.secret}")
     private String jwtSecret;
 
@@ -26,9 +50,53 @@ public class JwtService {
     @Value("${app.jwt.refresh-token-expiration-ms}")
     private long refreshTokenExpirationMs;
 
+    @Value("${app.jwt.cache-max-size:10000}")
+    private long cacheMaxSize;
+
+    private SecretKey signingKey;
+    private JwtParser parser;
+    private Cache<String, VerifiedToken> verifiedTokens;
+
+    @PostConstruct
+    void init() {
+        // Keys.hmacShaKeyFor aceita chaves de 256 bits, que só falhariam ao assinar o primeiro token:
+        // o HS512 exige 512 bits, verificados aqui para falhar no arranque
+        byte[] secret = jwtSecret.getBytes(StandardCharsets.UTF_8);
+        if (secret.length * 8 < MIN_SECRET_BITS) {
+            throw new IllegalStateException("app.jwt.secret tem " + secret.length * 8 + " bits; o HS512 exige pelo menos "
+                    + MIN_SECRET_BITS + " (" + MIN_SECRET_BITS / 8 + " bytes)");
+        }
+        signingKey = Keys.hmacShaKeyFor(secret);
+        parser = Jwts.parser()
+                .setSigningKey(signingKey)
+                .build();
+
+        verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfter(new Expiry<String, VerifiedToken>() {
+                    @Override
+                    public long expireAfterCreate(String key, VerifiedToken token, long currentTime) {
+                        long remainingMs = token.expiresAtMs() - System.currentTimeMillis();
+                        return TimeUnit.MILLISECONDS.toNanos(Math.max(0, remainingMs));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, VerifiedToken token, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, VerifiedToken token, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, verifiedTokens, "jwt-tokens");
+    }
+
     private SecretKey getSigningKey() {
-        byte[] keyBytes = jwtSecret.getBytes(StandardCharsets.UTF_8);
-        return Keys.hmacShaKeyFor(keyBytes);
+        return signingKey;
     }
 
     /**
@@ -62,36 +130,48 @@ public class JwtService {
     }
 
     /**
-     * Extrai userId do token.
+     * Verifica o token (assinatura e expiração) uma única vez e devolve os seus dados, ou vazio se
+     * for inválido. Usa a cache de tokens já verificados.
      */
-    public String getUserIdFromToken(String token) {
-        return getClaims(token).getSubject();
-    }
+    public Optional<VerifiedToken> verify(String token) {
+        if (token == null || token.isBlank()) return Optional.empty();
 
-    /**
-     * Extrai username do token.
-     */
-    public String getUsernameFromToken(String token) {
-        return getClaims(token).get("username", String.class);
+        String key = digest(token);
+        VerifiedToken cached = verifiedTokens.getIfPresent(key);
+        if (cached != null && cached.expiresAtMs() > System.currentTimeMillis()) {
+            return Optional.of(cached);
+        }
+
+        Claims claims = parseClaims(token);
+        if (claims == null) return Optional.empty();
+
+        Date expiration = claims.getExpiration();
+        VerifiedToken verified = new VerifiedToken(
+                claims.getSubject(),
+                claims.get("username", String.class),
+                claims.get("role", String.class),
+                expiration == null ? Long.MAX_VALUE : expiration.getTime()
+        );
+        // Sem exp o token não expira: não fica em cache para não ficar lá para sempre
+        if (expiration != null) {
+            verifiedTokens.put(key, verified);
+        }
+        return Optional.of(verified);
     }
 
     /**
-     * Extrai role do token.
+     * Valida token JWT.
      */
-    public String getRoleFromToken(String token) {
-        return getClaims(token).get("role", String.class);
+    public boolean validateToken(String token) {
+        return verify(token).isPresent();
     }
 
     /**
-     * Valida token JWT.
+     * Claims verificados, ou null se o token for inválido.
      */
-    public boolean validateToken(String token) {
+    private Claims parseClaims(String token) {
         try {
-            Jwts.parser()
-                    .setSigningKey(getSigningKey())
-                    .build()
-                    .parseClaimsJws(token);
-            return true;
+            return parser.parseClaimsJws(token).getBody();
         } catch (ExpiredJwtException e) {
             log.warn("JWT token expirado: {}", e.getMessage());
         } catch (MalformedJwtException e) {
@@ -103,26 +183,21 @@ public class JwtService {
         } catch (Exception e) {
             log.warn("Erro ao validar JWT: {}", e.getMessage());
         }
-        return false;
+        return null;
     }
 
-    /**
-     * Verifica se token está expirado.
-     */
-    public boolean isTokenExpired(String token) {
+    private static String digest(String token) {
         try {
-            Date expiration = getClaims(token).getExpiration();
-            return expiration.before(new Date());
-        } catch (Exception e) {
-            return true;
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponível", e);
         }
     }
 
-    private Claims getClaims(String token) {
-        return Jwts.parser()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+    /**
+     * Dados de um token com assinatura e expiração já verificadas.
+     */
+    public record VerifiedToken(String userId, String username, String role, long expiresAtMs) {
     }
 }
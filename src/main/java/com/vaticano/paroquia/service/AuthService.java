@@ -13,6 +13,7 @@ import com.vaticano.paroquia.dto.response.MessageResponse;
 import com.vaticano.paroquia.dto.response.RefreshTokenResponse;
 import com.vaticano.paroquia.exception.BadRequestException;
 import com.vaticano.paroquia.exception.UnauthorizedException;
+import com.vaticano.paroquia.security.PasswordHasher;
 import com.vaticano.paroquia.security.SecurityUtils;
 import com.vaticano.paroquia.security.jwt.JwtService;
 import com.vaticano.paroquia.util.NormalizeUtil;
@@ -21,15 +22,12 @@ import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
 import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
-import java.security.SecureRandom;
 import java.time.LocalDateTime;
-import java.util.Base64;
 import java.util.HexFormat;
 
 @Service
@@ -39,10 +37,12 @@ public class AuthService {
 
     private final UserRepository userRepository;
     private final RefreshTokenRepository refreshTokenRepository;
+    private final RefreshTokenStore refreshTokenStore;
     private final JwtService jwtService;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHasher passwordHasher;
     private final UlidGenerator ulidGenerator;
     private final SecurityUtils securityUtils;
+    private final UserActivityRecorder userActivityRecorder;
 
     @Value("${app.jwt.refresh-token-expiration-ms}")
     private long refreshTokenExpirationMs;
@@ -57,8 +57,7 @@ public class AuthService {
             throw new BadRequestException("Sistema já possui usuários cadastrados. Bootstrap não é permitido.");
         }
 
-        String salt = generateSalt();
-        String passwordHash = hashPassword("admin123", salt);
+        String passwordHash = passwordHasher.hash("admin123");
 
         User admin = User.builder()
                 .userId(ulidGenerator.generateUserId())
@@ -68,7 +67,7 @@ public class AuthService {
                 .role(Role.SUPER_ADMIN)
                 .active(true)
                 .passwordHash(passwordHash)
-                .salt(salt)
+                .salt("")
                 .build();
 
         userRepository.save(admin);
@@ -80,27 +79,38 @@ public class AuthService {
 
     /**
      * Login: Autentica usuário e retorna access token + refresh token.
+     *
+     * Sem transação própria: a verificação da senha pode esperar pelo pool de hash e não deve
+     * prender uma ligação à base de dados. Cada escrita corre na transação do repositório.
      */
-    @Transactional
     public LoginResponse login(LoginRequest request) {
         String usernameNorm = NormalizeUtil.normalizeForKey(request.getUsername());
 
-        User user = userRepository.findByUsernameNorm(usernameNorm)
-                .orElseThrow(() -> new UnauthorizedException("Credenciais inválidas"));
+        User user = userRepository.findByUsernameNorm(usernameNorm).orElse(null);
+        if (user == null) {
+            // Mesmo custo que uma senha errada: o tempo de resposta não revela se o usuário existe
+            passwordHasher.verifyDummy(request.getPassword());
+            throw new UnauthorizedException("Credenciais inválidas");
+        }
 
         if (!user.getActive()) {
             throw new UnauthorizedException("Usuário desativado");
         }
 
         // Verifica senha
-        String passwordHash = hashPassword(request.getPassword(), user.getSalt());
-        if (!passwordHash.equals(user.getPasswordHash())) {
+        PasswordHasher.Verification verification =
+                passwordHasher.verify(request.getPassword(), user.getPasswordHash(), user.getSalt());
+        if (!verification.matches()) {
             throw new UnauthorizedException("Credenciais inválidas");
         }
 
-        // Atualiza último login
-        user.setLastLoginAt(LocalDateTime.now());
-        userRepository.save(user);
+        // Hash SHA-512 antigo ou BCrypt de custo inferior: substituído agora que temos a senha
+        if (verification.upgradedHash() != null) {
+            upgradePasswordHash(user, verification.upgradedHash());
+        }
+
+        // Último login gravado em diferido: o login não escreve na linha do utilizador
+        userActivityRecorder.recordLogin(user.getUserId(), LocalDateTime.now());
 
         // Gera tokens
         String accessToken = jwtService.generateAccessToken(user.getUserId(), user.getUsername(), user.getRole());
@@ -128,7 +138,7 @@ public class AuthService {
     public RefreshTokenResponse refresh(RefreshTokenRequest request) {
         String tokenHash = hashRefreshToken(request.getRefreshToken());
 
-        RefreshToken refreshToken = refreshTokenRepository.findByTokenHash(tokenHash)
+        RefreshToken refreshToken = refreshTokenStore.find(tokenHash)
                 .orElseThrow(() -> new UnauthorizedException("Refresh token inválido"));
 
         if (!refreshToken.isValid()) {
@@ -158,12 +168,10 @@ public class AuthService {
     public MessageResponse logout(RefreshTokenRequest request) {
         String tokenHash = hashRefreshToken(request.getRefreshToken());
 
-        refreshTokenRepository.findByTokenHash(tokenHash).ifPresent(token -> {
-            token.setRevoked(true);
-            token.setRevokedAt(LocalDateTime.now());
-            refreshTokenRepository.save(token);
-            log.info("Refresh token revogado para usuário: {}", token.getUserId());
-        });
+        // Um único UPDATE pelo hash, sem ler o token antes
+        refreshTokenStore.revoke(tokenHash).ifPresentOrElse(
+                token -> log.info("Refresh token revogado para usuário: {}", token.getUserId()),
+                () -> log.debug("Logout com refresh token fora do índice ou já revogado"));
 
         return new MessageResponse("Logout realizado com sucesso");
     }
@@ -182,21 +190,19 @@ public class AuthService {
                 .orElseThrow(() -> new UnauthorizedException("Usuário não encontrado"));
 
         // Verifica senha atual
-        String currentPasswordHash = hashPassword(request.getCurrentPassword(), user.getSalt());
-        if (!currentPasswordHash.equals(user.getPasswordHash())) {
+        if (!passwordHasher.verify(request.getCurrentPassword(), user.getPasswordHash(), user.getSalt()).matches()) {
             throw new UnauthorizedException("Senha atual incorreta");
         }
 
         // Gera nova senha hash
-        String newSalt = generateSalt();
-        String newPasswordHash = hashPassword(request.getNewPassword(), newSalt);
+        String newPasswordHash = passwordHasher.hash(request.getNewPassword());
 
-        user.setSalt(newSalt);
+        user.setSalt("");
         user.setPasswordHash(newPasswordHash);
         userRepository.save(user);
 
         // Revoga todos os refresh tokens existentes
-        refreshTokenRepository.revokeAllByUserId(currentUserId, LocalDateTime.now());
+        refreshTokenStore.revokeAllByUserId(currentUserId);
 
         log.info("Senha alterada com sucesso para usuário: {}", user.getUsername());
 
@@ -217,25 +223,21 @@ public class AuthService {
                 .build();
 
         refreshTokenRepository.save(refreshToken);
+        refreshTokenStore.register(refreshToken);
 
         return rawToken;
     }
 
-    private String generateSalt() {
-        SecureRandom random = new SecureRandom();
-        byte[] salt = new byte[64];
-        random.nextBytes(salt);
-        return Base64.getEncoder().encodeToString(salt);
-    }
-
-    private String hashPassword(String password, String salt) {
+    private void upgradePasswordHash(User user, String newPasswordHash) {
         try {
-            MessageDigest digest = MessageDigest.getInstance("SHA-512");
-            digest.update(salt.getBytes(StandardCharsets.UTF_8));
-            byte[] hash = digest.digest(password.getBytes(StandardCharsets.UTF_8));
-            return HexFormat.of().formatHex(hash);
-        } catch (NoSuchAlgorithmException e) {
-            throw new RuntimeException("Erro ao gerar hash de senha", e);
+            // Só se o hash gravado ainda for o verificado: uma mudança de senha em paralelo prevalece
+            int rows = userRepository.replacePasswordHash(user.getUserId(), user.getPasswordHash(), newPasswordHash);
+            if (rows > 0) {
+                log.info("Hash de senha atualizado para usuário: {}", user.getUsername());
+            }
+        } catch (Exception e) {
+            // O login não falha por isto: o hash é atualizado num próximo login
+            log.warn("Nao foi possivel atualizar o hash de senha do usuário {}", user.getUsername(), e);
         }
     }
 
@@ -0,0 +1,267 @@
+package com.vaticano.paroquia.service;
+
+import com.vaticano.paroquia.domain.entity.Member;
+import com.vaticano.paroquia.domain.enums.Role;
+import com.vaticano.paroquia.domain.repository.MemberRepository;
+import com.vaticano.paroquia.dto.request.CertificateBatchRequest;
+import com.vaticano.paroquia.dto.request.CertificateGenerateRequest;
+import com.vaticano.paroquia.exception.BadRequestException;
+import com.vaticano.paroquia.exception.ResourceNotFoundException;
+import com.vaticano.paroquia.exception.ServiceUnavailableException;
+import com.vaticano.paroquia.security.SecurityUtils;
+import com.vaticano.paroquia.service.certificate.CertificateData;
+import com.vaticano.paroquia.service.certificate.MemberCertificateData;
+import com.vaticano.paroquia.service.certificate.PdfRenderEngine;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Geração de certificados em lote (ex: uma turma de crisma inteira) devolvidos num ZIP.
+ *
+ * prepare valida o pedido e resolve os dados de cada certificado no thread do pedido HTTP;
+ * write gera os PDFs no PdfRenderEngine e escreve cada um no ZIP assim que fica pronto.
+ * Nunca há mais documentos em memória do que workers do motor de PDF.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CertificateBatchService {
+
+    private static final String ERRORS_ENTRY = "erros.txt";
+    private static final long BUSY_BACKOFF_MS = 50;
+    private static final DateTimeFormatter ZIP_NAME_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss");
+
+    private final SecurityUtils securityUtils;
+    private final AuditService auditService;
+    private final CertificateService certificateService;
+    private final MemberRepository memberRepository;
+    private final PdfRenderEngine pdfRenderEngine;
+
+    @Value("${app.certificates.batch.max-items:500}")
+    private int maxItems;
+
+    /**
+     * Valida o lote e resolve os dados de todos os certificados. Erros de validação (tipo, formato,
+     * membro inexistente) são devolvidos antes de começar a enviar o ZIP.
+     */
+    public CertificateBatch prepare(CertificateBatchRequest request) {
+        securityUtils.requireAnyRole(Role.SUPER_ADMIN, Role.SECRETARIO);
+
+        List<CertificateGenerateRequest> requests = request.getRequests() == null ? List.of() : request.getRequests();
+        List<String> memberKeys = request.getMemberKeys() == null ? List.of() : request.getMemberKeys();
+        int total = requests.size() + memberKeys.size();
+        if (total == 0) {
+            throw new BadRequestException("Indique os pedidos (requests) ou os membros (memberKeys) do lote");
+        }
+        if (total > maxItems) {
+            throw new BadRequestException("O lote excede o máximo de " + maxItems + " certificados");
+        }
+
+        List<BatchItem> items = new ArrayList<>(total);
+        Set<String> filenames = new HashSet<>();
+
+        for (CertificateGenerateRequest item : requests) {
+            String type = certificateService.normalizeType(item.getType());
+            String format = certificateService.normalizeFormat(item.getFormat());
+            items.add(buildItem(type, format, item.getData(), filenames));
+        }
+
+        if (!memberKeys.isEmpty()) {
+            String type = certificateService.normalizeType(request.getType());
+            String format = certificateService.normalizeFormat(request.getFormat());
+            if ("casamento".equals(type)) {
+                throw new BadRequestException("Certidões de casamento precisam dos dados dos dois noivos: use requests");
+            }
+            Map<String, Member> members = new HashMap<>();
+            for (Member member : memberRepository.findByMemberKeyIn(memberKeys)) {
+                members.put(member.getMemberKey(), member);
+            }
+            for (String memberKey : memberKeys) {
+                Member member = members.get(memberKey);
+                if (member == null) {
+                    throw new ResourceNotFoundException("Membro não encontrado: " + memberKey);
+                }
+                items.add(buildItem(type, format, MemberCertificateData.from(member, request.getData()), filenames));
+            }
+        }
+
+        String filename = "certidoes_" + LocalDateTime.now().format(ZIP_NAME_FORMAT) + ".zip";
+        return new CertificateBatch(filename, List.copyOf(items));
+    }
+
+    /**
+     * Gera os certificados do lote e escreve-os no ZIP pela ordem em que ficam prontos.
+     * Falhas de um certificado não interrompem o lote: ficam listadas em erros.txt. O registo de
+     * auditoria é feito no fim, com o número de certificados gerados e de erros.
+     */
+    public void write(CertificateBatch batch, OutputStream outputStream) throws IOException {
+        List<BatchItem> items = batch.items();
+        int window = pdfRenderEngine.getPoolSize();
+        long timeoutMs = pdfRenderEngine.getTimeout().toMillis();
+        BlockingQueue<Completed> completed = new LinkedBlockingQueue<>();
+        List<String> errors = new ArrayList<>();
+        // Documentos submetidos ao motor, para os cancelar se o lote parar a meio
+        List<CompletableFuture<byte[]>> submitted = new ArrayList<>(items.size());
+
+        ZipOutputStream zip = new ZipOutputStream(outputStream, StandardCharsets.UTF_8);
+        // Os PDFs já vêm comprimidos: compressão rápida chega
+        zip.setLevel(Deflater.BEST_SPEED);
+
+        int next = 0;
+        int inFlight = 0;
+        int written = 0;
+        long busySince = 0;
+        boolean finished = false;
+        try {
+            while (written < items.size()) {
+                // Manter no máximo "window" documentos em curso
+                while (next < items.size() && inFlight < window) {
+                    CompletableFuture<byte[]> future;
+                    try {
+                        future = render(items.get(next));
+                    } catch (ServiceUnavailableException e) {
+                        // Fila do motor cheia com pedidos de outros utilizadores
+                        if (inFlight > 0) break;
+                        if (busySince == 0) busySince = System.currentTimeMillis();
+                        if (System.currentTimeMillis() - busySince > timeoutMs) {
+                            throw new IOException("Motor de PDF ocupado durante demasiado tempo", e);
+                        }
+                        Thread.sleep(BUSY_BACKOFF_MS);
+                        continue;
+                    }
+                    busySince = 0;
+                    int index = next++;
+                    inFlight++;
+                    submitted.add(future);
+                    future.whenComplete((bytes, error) -> completed.add(new Completed(index, bytes, error)));
+                }
+
+                Completed result = completed.poll(timeoutMs, TimeUnit.MILLISECONDS);
+                if (result == null) {
+                    throw new IOException("Tempo esgotado a gerar o lote de certificados");
+                }
+                inFlight--;
+                written++;
+
+                BatchItem item = items.get(result.index());
+                if (result.error() == null) {
+                    zip.putNextEntry(new ZipEntry(item.filename()));
+                    zip.write(result.bytes());
+                    zip.closeEntry();
+                } else {
+                    Throwable cause = PdfRenderEngine.unwrap(result.error());
+                    // O detalhe fica só no log: erros.txt vai para o cliente
+                    log.warn("Erro ao gerar {} no lote de certificados", item.filename(), cause);
+                    errors.add(item.filename() + ": " + errorMessage(cause));
+                }
+            }
+
+            if (!errors.isEmpty()) {
+                zip.putNextEntry(new ZipEntry(ERRORS_ENTRY));
+                zip.write((String.join("\n", errors) + "\n").getBytes(StandardCharsets.UTF_8));
+                zip.closeEntry();
+            }
+            zip.finish();
+            zip.flush();
+            finished = true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Geração do lote interrompida", e);
+        } finally {
+            if (!finished) {
+                // Motor ocupado, tempo esgotado, interrupção ou cliente que desligou: os documentos
+                // ainda em curso já não têm quem os leia e libertam os workers
+                int cancelled = 0;
+                for (CompletableFuture<byte[]> future : submitted) {
+                    if (future.cancel(true)) cancelled++;
+                }
+                log.warn("Lote de certificados interrompido: {} de {} escritos, {} cancelados", written, items.size(), cancelled);
+            }
+        }
+
+        int generated = items.size() - errors.size();
+        log.info("Lote de certificados gerado: {} documentos, {} erros", generated, errors.size());
+
+        // Só depois de enviado o ZIP, com o que foi realmente gerado
+        auditService.log(
+                "certificate_batch_generated",
+                "Lote de " + generated + " de " + items.size() + " certificados gerado",
+                Map.of("total", items.size(), "gerados", generated, "erros", errors.size())
+        );
+    }
+
+    // ========== Helper Methods ==========
+
+    /**
+     * Mensagem fixa por tipo de falha para erros.txt, sem o texto interno da exceção.
+     */
+    private static String errorMessage(Throwable cause) {
+        if (cause instanceof CancellationException) {
+            return "geração cancelada";
+        }
+        if (cause instanceof TimeoutException) {
+            return "tempo esgotado ao gerar o documento";
+        }
+        if (cause instanceof IOException || cause instanceof UncheckedIOException) {
+            return "erro de escrita ao gerar o documento";
+        }
+        return "erro interno ao gerar o documento";
+    }
+
+    private CompletableFuture<byte[]> render(BatchItem item) {
+        if ("pdf".equals(item.format())) {
+            return pdfRenderEngine.submit(item.type(), item.data(), pdfRenderEngine.isLogoEnabled());
+        }
+        try {
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream(16 * 1024);
+            certificateService.renderWord(item.type(), item.data(), outputStream);
+            return CompletableFuture.completedFuture(outputStream.toByteArray());
+        } catch (RuntimeException | IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private BatchItem buildItem(String type, String format, Map<String, Object> data, Set<String> filenames) {
+        String base = certificateService.buildFilenameBase(type, data);
+        String extension = CertificateService.extension(format);
+        String filename = base + "." + extension;
+        for (int suffix = 2; !filenames.add(filename); suffix++) {
+            filename = base + "_" + suffix + "." + extension;
+        }
+        return new BatchItem(filename, type, format, new CertificateData(data));
+    }
+
+    public record CertificateBatch(String filename, List<BatchItem> items) {
+    }
+
+    public record BatchItem(String filename, String type, String format, CertificateData data) {
+    }
+
+    private record Completed(int index, byte[] bytes, Throwable error) {
+    }
+}
@@ -0,0 +1,225 @@
+package com.vaticano.paroquia.service;
+
+import com.vaticano.paroquia.domain.entity.CertificateRequest;
+import com.vaticano.paroquia.domain.entity.Member;
+import com.vaticano.paroquia.domain.repository.CertificateRequestRepository;
+import com.vaticano.paroquia.domain.repository.MemberRepository;
+import com.vaticano.paroquia.exception.ServiceUnavailableException;
+import com.vaticano.paroquia.service.certificate.CertificateData;
+import com.vaticano.paroquia.service.certificate.MemberCertificateData;
+import com.vaticano.paroquia.service.certificate.PdfRenderEngine;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Processa a fila de pedidos de certificado APROVADO.
+ *
+ * Em cada ciclo reserva tantos pedidos quantos os workers do PdfRenderEngine (FOR UPDATE SKIP LOCKED,
+ * por isso vários nós partilham a fila sem gerar o mesmo pedido duas vezes), gera-os em paralelo,
+ * grava os ficheiros em app.certificates.jobs.path e marca os pedidos como EMITIDO. Enquanto houver
+ * trabalho o ciclo repete sem esperar pelo intervalo, até max-batches-per-poll lotes, para não ocupar
+ * o scheduler; se o motor estiver ocupado com pedidos interativos, espera pelo próximo ciclo. Um nó
+ * que morra a meio perde a reserva quando locked_until expira e o pedido volta à fila.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CertificateJobWorker {
+
+    private final CertificateRequestRepository certificateRequestRepository;
+    private final MemberRepository memberRepository;
+    private final CertificateService certificateService;
+    private final PdfRenderEngine pdfRenderEngine;
+    private final AuditService auditService;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.certificates.jobs.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.certificates.jobs.path:./certificates-issued}")
+    private String path;
+
+    @Value("${app.certificates.jobs.lease-seconds:300}")
+    private long leaseSeconds;
+
+    @Value("${app.certificates.jobs.max-attempts:3}")
+    private int maxAttempts;
+
+    @Value("${app.certificates.jobs.retry-delay-seconds:60}")
+    private long retryDelaySeconds;
+
+    @Value("${app.certificates.jobs.max-batches-per-poll:10}")
+    private int maxBatchesPerPoll;
+
+    @Scheduled(fixedDelayString = "${app.certificates.jobs.poll-interval-ms:5000}")
+    public void poll() {
+        if (!enabled) return;
+
+        try {
+            int batchSize = pdfRenderEngine.getPoolSize();
+            for (int batch = 0; batch < maxBatchesPerPoll; batch++) {
+                // Lote incompleto: fila vazia, motor ocupado ou falhas; o resto fica para o próximo ciclo
+                if (processBatch(batchSize) < batchSize) break;
+            }
+        } catch (Exception e) {
+            // O próximo ciclo tenta de novo; reservas perdidas expiram sozinhas
+            log.error("Erro ao processar fila de certificados", e);
+        }
+    }
+
+    // ========== Helper Methods ==========
+
+    /**
+     * Reserva e gera um lote. Retorna o número de pedidos efetivamente submetidos ao motor (os
+     * devolvidos à fila por motor ocupado e os que falharam logo não contam).
+     */
+    private int processBatch(int batchSize) {
+        List<String> ids = certificateRequestRepository.claimApproved(batchSize, leaseSeconds, maxAttempts);
+        if (ids.isEmpty()) return 0;
+
+        List<Job> jobs = new ArrayList<>(ids.size());
+        boolean busy = false;
+        for (CertificateRequest certificateRequest : certificateRequestRepository.findAllById(ids)) {
+            if (busy) {
+                certificateRequestRepository.release(certificateRequest.getId());
+                continue;
+            }
+            try {
+                Job job = submit(certificateRequest);
+                if (job != null) jobs.add(job);
+            } catch (ServiceUnavailableException e) {
+                // Motor de PDF ocupado com pedidos interativos: este e os restantes voltam à fila
+                // sem gastar tentativa
+                busy = true;
+                certificateRequestRepository.release(certificateRequest.getId());
+            }
+        }
+
+        long timeoutMs = pdfRenderEngine.getTimeout().toMillis();
+        for (Job job : jobs) {
+            try {
+                job.future().get(timeoutMs, TimeUnit.MILLISECONDS);
+                job.output().close();
+                store(job);
+            } catch (Exception e) {
+                job.future().cancel(true);
+                discard(job);
+                fail(job.request(), PdfRenderEngine.unwrap(e));
+            }
+        }
+        return jobs.size();
+    }
+
+    private Job submit(CertificateRequest certificateRequest) {
+        String id = certificateRequest.getId();
+        try {
+            Member member = memberRepository.findById(certificateRequest.getMemberRef()).orElse(null);
+            if (member == null) {
+                fail(certificateRequest, new IllegalStateException("Membro do pedido não encontrado"));
+                return null;
+            }
+
+            String type = certificateRequest.getTipo().getValue();
+            String format = certificateRequest.getFormato() == null ? "pdf" : certificateRequest.getFormato();
+            Map<String, Object> data = MemberCertificateData.from(member, certificateRequest.getDados());
+            CertificateData certificateData = new CertificateData(data);
+            String filename = certificateService.buildFilenameBase(type, data) + "." + CertificateService.extension(format);
+
+            // O documento é gerado diretamente para um ficheiro temporário na pasta final
+            Path directory = directory();
+            Path temp = Files.createTempFile(directory, id, ".tmp");
+            OutputStream output = Files.newOutputStream(temp);
+            Job job = new Job(certificateRequest, format, filename, temp, output, null);
+            try {
+                CompletableFuture<Void> future;
+                if ("pdf".equals(format)) {
+                    future = pdfRenderEngine.submitTo(type, certificateData, pdfRenderEngine.isLogoEnabled(), output);
+                } else {
+                    certificateService.renderWord(type, certificateData, output);
+                    future = CompletableFuture.completedFuture(null);
+                }
+                return new Job(certificateRequest, format, filename, temp, output, future);
+            } catch (RuntimeException | IOException e) {
+                discard(job);
+                throw e;
+            }
+        } catch (ServiceUnavailableException e) {
+            // Motor ocupado: tratado pelo lote
+            throw e;
+        } catch (Exception e) {
+            fail(certificateRequest, e);
+            return null;
+        }
+    }
+
+    private void store(Job job) throws IOException {
+        CertificateRequest certificateRequest = job.request();
+        Path target = directory().resolve(certificateRequest.getId() + "." + CertificateService.extension(job.format()));
+        Files.move(job.temp(), target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        long size = Files.size(target);
+
+        boolean issued = certificateRequestRepository.markIssued(
+                certificateRequest.getId(), target.toString(), job.filename(),
+                CertificateService.contentType(job.format()), size);
+        if (!issued) {
+            // Recusado enquanto era gerado
+            Files.deleteIfExists(target);
+            return;
+        }
+
+        meterRegistry.counter("certificates.jobs", "outcome", "issued").increment();
+        auditService.log(
+                "certificate_issued",
+                "Certificado de " + certificateRequest.getTipo().getValue() + " emitido",
+                null,
+                certificateRequest.getId()
+        );
+    }
+
+    private void discard(Job job) {
+        try {
+            job.output().close();
+            Files.deleteIfExists(job.temp());
+        } catch (IOException e) {
+            log.warn("Nao foi possivel apagar ficheiro temporário {}", job.temp(), e);
+        }
+    }
+
+    private Path directory() throws IOException {
+        Path directory = Paths.get(path).toAbsolutePath().normalize();
+        Files.createDirectories(directory);
+        return directory;
+    }
+
+    private void fail(CertificateRequest certificateRequest, Throwable error) {
+        int attempts = certificateRequest.getTentativas() == null ? 1 : certificateRequest.getTentativas();
+        log.warn("Falha ao gerar certificado {} (tentativa {}/{})", certificateRequest.getId(), attempts, maxAttempts, error);
+        meterRegistry.counter("certificates.jobs", "outcome", "failed").increment();
+
+        String message = error.getMessage() == null ? error.getClass().getSimpleName() : error.getMessage();
+        certificateRequestRepository.markFailed(certificateRequest.getId(), message, retryDelaySeconds * attempts, maxAttempts);
+        if (attempts >= maxAttempts) {
+            log.error("Certificado {} marcado como falhado após {} tentativas", certificateRequest.getId(), attempts);
+        }
+    }
+
+    private record Job(CertificateRequest request, String format, String filename,
+                       Path temp, OutputStream output, CompletableFuture<Void> future) {
+    }
+}
@@ -0,0 +1,276 @@
+package com.vaticano.paroquia.service;
+
+import com.vaticano.paroquia.domain.entity.CertificateRequest;
+import com.vaticano.paroquia.domain.entity.Member;
+import com.vaticano.paroquia.domain.entity.Nucleo;
+import com.vaticano.paroquia.domain.enums.EstadoCertificado;
+import com.vaticano.paroquia.domain.enums.Role;
+import com.vaticano.paroquia.domain.enums.TipoCertificado;
+import com.vaticano.paroquia.domain.repository.CertificateRequestRepository;
+import com.vaticano.paroquia.domain.repository.MemberRepository;
+import com.vaticano.paroquia.domain.repository.NucleoRepository;
+import com.vaticano.paroquia.dto.request.CreateCertificateRequestRequest;
+import com.vaticano.paroquia.dto.response.CertificateRequestResponse;
+import com.vaticano.paroquia.exception.BadRequestException;
+import com.vaticano.paroquia.exception.ForbiddenException;
+import com.vaticano.paroquia.exception.ResourceNotFoundException;
+import com.vaticano.paroquia.security.SecurityUtils;
+import com.vaticano.paroquia.util.UlidGenerator;
+import jakarta.transaction.Transactional;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Pedidos de certificado: o chefe de núcleo pede, o secretário aprova ou recusa e o
+ * CertificateJobWorker gera o documento fora do pedido HTTP. O pedido passa a EMITIDO
+ * quando o ficheiro está disponível para download.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CertificateRequestService {
+
+    private final CertificateRequestRepository certificateRequestRepository;
+    private final MemberRepository memberRepository;
+    private final NucleoRepository nucleoRepository;
+    private final CertificateService certificateService;
+    private final UlidGenerator ulidGenerator;
+    private final SecurityUtils securityUtils;
+    private final AuditService auditService;
+
+    @Value("${app.certificates.jobs.max-attempts:3}")
+    private int maxAttempts;
+
+    @Transactional
+    public CertificateRequestResponse create(CreateCertificateRequestRequest request) {
+        securityUtils.requireAnyRole(Role.SUPER_ADMIN, Role.SECRETARIO, Role.CHEFE_NUCLEO);
+
+        TipoCertificado tipo = parseTipo(request.getTipo());
+        String formato = request.getFormato() == null || request.getFormato().isBlank()
+                ? "pdf"
+                : certificateService.normalizeFormat(request.getFormato());
+
+        Member member = memberRepository.findByMemberKey(request.getMemberKey())
+                .orElseThrow(() -> new ResourceNotFoundException("Membro não encontrado"));
+        Nucleo nucleo = nucleoRepository.findById(request.getNucleoId())
+                .orElseThrow(() -> new ResourceNotFoundException("Núcleo não encontrado"));
+
+        String userId = securityUtils.getCurrentUserId();
+        if (!canManage() && !nucleo.getChefeUserIds().contains(userId)) {
+            throw new ForbiddenException("Só pode pedir certificados para membros do seu núcleo");
+        }
+        if (!nucleo.getMemberRefs().contains(member.getId())) {
+            throw new BadRequestException("O membro não pertence ao núcleo indicado");
+        }
+
+        CertificateRequest certificateRequest = CertificateRequest.builder()
+                .id(ulidGenerator.generateCertificateRequestId())
+                .tipo(tipo)
+                .formato(formato)
+                .memberRef(member.getId())
+                .nucleoId(nucleo.getId())
+                .dados(request.getDados())
+                .observacoes(request.getObservacoes())
+                .requestedByUserId(userId)
+                .tentativas(0)
+                .build();
+        certificateRequest = certificateRequestRepository.save(certificateRequest);
+
+        auditService.log(
+                "certificate_requested",
+                "Certificado de " + tipo.getValue() + " pedido",
+                null,
+                certificateRequest.getId()
+        );
+
+        return toResponse(certificateRequest, member.getMemberKey());
+    }
+
+    public CertificateRequestResponse get(String id) {
+        CertificateRequest certificateRequest = findVisible(id);
+        return toResponse(certificateRequest, memberKeyOf(certificateRequest.getMemberRef()));
+    }
+
+    /**
+     * Secretário/admin vêem todos os pedidos; chefes de núcleo só os que fizeram.
+     */
+    public Page<CertificateRequestResponse> list(String estado, Pageable pageable) {
+        securityUtils.requireAnyRole(Role.SUPER_ADMIN, Role.SECRETARIO, Role.CHEFE_NUCLEO);
+
+        EstadoCertificado filter = estado == null || estado.isBlank() ? null : parseEstado(estado);
+        Page<CertificateRequest> page;
+        if (canManage()) {
+            page = filter == null
+                    ? certificateRequestRepository.findAll(pageable)
+                    : certificateRequestRepository.findByEstado(filter, pageable);
+        } else {
+            String userId = securityUtils.getCurrentUserId();
+            page = filter == null
+                    ? certificateRequestRepository.findByRequestedByUserId(userId, pageable)
+                    : certificateRequestRepository.findByRequestedByUserIdAndEstado(userId, filter, pageable);
+        }
+
+        // Chaves dos membros da página numa única query
+        Set<UUID> memberRefs = new HashSet<>();
+        page.forEach(certificateRequest -> memberRefs.add(certificateRequest.getMemberRef()));
+        Map<UUID, String> memberKeys = new HashMap<>();
+        memberRepository.findAllById(memberRefs).forEach(member -> memberKeys.put(member.getId(), member.getMemberKey()));
+
+        return page.map(certificateRequest -> toResponse(certificateRequest, memberKeys.get(certificateRequest.getMemberRef())));
+    }
+
+    /**
+     * Aprova o pedido, que entra na fila de geração. Um pedido FALHADO (tentativas esgotadas) pode
+     * ser aprovado de novo para voltar a tentar; um APROVADO só se já esgotou as tentativas e não
+     * está reservado por um worker (pedidos anteriores ao estado FALHADO).
+     */
+    @Transactional
+    public CertificateRequestResponse approve(String id) {
+        securityUtils.requireAnyRole(Role.SUPER_ADMIN, Role.SECRETARIO);
+
+        CertificateRequest certificateRequest = certificateRequestRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Pedido de certificado não encontrado"));
+        if (certificateRequest.getEstado() == EstadoCertificado.APROVADO && !isExhausted(certificateRequest)) {
+            throw new BadRequestException("O pedido já está aprovado e na fila de geração");
+        }
+        if (certificateRequest.getEstado() != EstadoCertificado.PENDENTE
+                && certificateRequest.getEstado() != EstadoCertificado.FALHADO
+                && certificateRequest.getEstado() != EstadoCertificado.APROVADO) {
+            throw new BadRequestException("Só pedidos pendentes ou falhados podem ser aprovados");
+        }
+
+        certificateRequest.setEstado(EstadoCertificado.APROVADO);
+        certificateRequest.setProcessedByUserId(securityUtils.getCurrentUserId());
+        certificateRequest.setTentativas(0);
+        certificateRequest.setErro(null);
+        certificateRequest.setLockedUntil(null);
+        certificateRequest = certificateRequestRepository.save(certificateRequest);
+
+        auditService.log("certificate_request_approved", "Pedido de certificado aprovado", null, id);
+
+        return toResponse(certificateRequest, memberKeyOf(certificateRequest.getMemberRef()));
+    }
+
+    @Transactional
+    public CertificateRequestResponse reject(String id, String motivo) {
+        securityUtils.requireAnyRole(Role.SUPER_ADMIN, Role.SECRETARIO);
+
+        CertificateRequest certificateRequest = certificateRequestRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Pedido de certificado não encontrado"));
+        if (certificateRequest.getEstado() == EstadoCertificado.EMITIDO) {
+            throw new BadRequestException("O certificado já foi emitido");
+        }
+
+        certificateRequest.setEstado(EstadoCertificado.RECUSADO);
+        certificateRequest.setMotivoRecusa(motivo);
+        certificateRequest.setProcessedByUserId(securityUtils.getCurrentUserId());
+        certificateRequest.setLockedUntil(null);
+        certificateRequest = certificateRequestRepository.save(certificateRequest);
+
+        auditService.log("certificate_request_rejected", "Pedido de certificado recusado", null, id);
+
+        return toResponse(certificateRequest, memberKeyOf(certificateRequest.getMemberRef()));
+    }
+
+    /**
+     * Ficheiro emitido para download.
+     */
+    public IssuedCertificate download(String id) {
+        CertificateRequest certificateRequest = findVisible(id);
+        if (certificateRequest.getEstado() != EstadoCertificado.EMITIDO || certificateRequest.getOutputPath() == null) {
+            throw new BadRequestException("O certificado ainda não foi emitido");
+        }
+
+        Path file = Paths.get(certificateRequest.getOutputPath());
+        if (!Files.isRegularFile(file)) {
+            log.error("Ficheiro do certificado {} em falta: {}", id, file);
+            throw new ResourceNotFoundException("Ficheiro do certificado não encontrado");
+        }
+        return new IssuedCertificate(file, certificateRequest.getOutputFilename(), certificateRequest.getOutputContentType());
+    }
+
+    // ========== Helper Methods ==========
+
+    /**
+     * Sem tentativas por gastar e sem reserva em vigor: nenhum worker o vai (re)tentar.
+     */
+    private boolean isExhausted(CertificateRequest certificateRequest) {
+        int attempts = certificateRequest.getTentativas() == null ? 0 : certificateRequest.getTentativas();
+        LocalDateTime lockedUntil = certificateRequest.getLockedUntil();
+        return attempts >= maxAttempts && (lockedUntil == null || lockedUntil.isBefore(LocalDateTime.now()));
+    }
+
+    private CertificateRequest findVisible(String id) {
+        securityUtils.requireAnyRole(Role.SUPER_ADMIN, Role.SECRETARIO, Role.CHEFE_NUCLEO);
+
+        CertificateRequest certificateRequest = certificateRequestRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Pedido de certificado não encontrado"));
+        if (!canManage() && !certificateRequest.getRequestedByUserId().equals(securityUtils.getCurrentUserId())) {
+            throw new ForbiddenException();
+        }
+        return certificateRequest;
+    }
+
+    private boolean canManage() {
+        return securityUtils.isSuperAdmin() || securityUtils.isSecretario();
+    }
+
+    private String memberKeyOf(UUID memberRef) {
+        return memberRepository.findById(memberRef).map(Member::getMemberKey).orElse(null);
+    }
+
+    private TipoCertificado parseTipo(String value) {
+        try {
+            return TipoCertificado.fromValue(value.trim());
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Tipo de certificado invalido. Use: batismo, crisma, casamento ou declaracao");
+        }
+    }
+
+    private EstadoCertificado parseEstado(String value) {
+        try {
+            return EstadoCertificado.fromValue(value.trim());
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Estado invalido. Use: pendente, aprovado, recusado, emitido ou falhado");
+        }
+    }
+
+    private CertificateRequestResponse toResponse(CertificateRequest certificateRequest, String memberKey) {
+        return CertificateRequestResponse.builder()
+                .id(certificateRequest.getId())
+                .tipo(certificateRequest.getTipo().getValue())
+                .estado(certificateRequest.getEstado().getValue())
+                .formato(certificateRequest.getFormato())
+                .memberKey(memberKey)
+                .nucleoId(certificateRequest.getNucleoId())
+                .observacoes(certificateRequest.getObservacoes())
+                .requestedByUserId(certificateRequest.getRequestedByUserId())
+                .processedByUserId(certificateRequest.getProcessedByUserId())
+                .motivoRecusa(certificateRequest.getMotivoRecusa())
+                .tentativas(certificateRequest.getTentativas())
+                .erro(certificateRequest.getErro())
+                .filename(certificateRequest.getOutputFilename())
+                .size(certificateRequest.getOutputSize())
+                .createdAt(certificateRequest.getCreatedAt())
+                .updatedAt(certificateRequest.getUpdatedAt())
+                .emitidoAt(certificateRequest.getEmitidoAt())
+                .build();
+    }
+
+    public record IssuedCertificate(Path file, String filename, String contentType) {
+    }
+}
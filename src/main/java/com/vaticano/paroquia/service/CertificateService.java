@@ -4,19 +4,30 @@ import com.vaticano.paroquia.domain.enums.Role;
 import com.vaticano.paroquia.dto.request.CertificateGenerateRequest;
 import com.vaticano.paroquia.exception.BadRequestException;
 import com.vaticano.paroquia.security.SecurityUtils;
+import com.vaticano.paroquia.service.certificate.CertificateData;
+import com.vaticano.paroquia.service.certificate.CertificateFileCache;
+import com.vaticano.paroquia.service.certificate.CertificateTemplates;
+import com.vaticano.paroquia.service.certificate.DocxWriter;
+import com.vaticano.paroquia.service.certificate.PdfRenderEngine;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.core.io.Resource;
-import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
 import org.springframework.stereotype.Service;
-import org.xhtmlrenderer.pdf.ITextRenderer;
-
-import java.io.ByteArrayOutputStream;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.lang.ref.Cleaner;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.text.Normalizer;
-import java.time.LocalDate;
-import java.util.Base64;
 import java.util.Locale;
 import java.util.Map;
 
@@ -27,31 +38,44 @@ public class CertificateService {
 
     private final SecurityUtils securityUtils;
     private final AuditService auditService;
-
-    public GeneratedCertificate generate(CertificateGenerateRequest request) {
+    private final CertificateTemplates certificateTemplates;
+    private final PdfRenderEngine pdfRenderEngine;
+    private final CertificateFileCache certificateFileCache;
+    private final DocxWriter docxWriter;
+
+    /**
+     * Gera o certificado, ou reutiliza-o da cache em disco se já foi gerado com os mesmos dados.
+     * Se ifNoneMatch contiver o ETag do certificado o cliente já o tem: devolve notModified sem conteúdo.
+     *
+     * O documento nunca fica inteiro em memória: é gerado para um ficheiro da cache, ou, com a cache
+     * desativada, para um ficheiro temporário, e enviado a partir dele. O motor de PDF só escreve em
+     * ficheiros; o stream da resposta é escrito apenas pelo thread do pedido.
+     */
+    public GeneratedCertificate generate(CertificateGenerateRequest request, String ifNoneMatch) {
         securityUtils.requireAnyRole(Role.SUPER_ADMIN, Role.SECRETARIO);
 
         String type = normalizeType(request.getType());
         String format = normalizeFormat(request.getFormat());
         Map<String, Object> data = request.getData();
+        CertificateData certificateData = new CertificateData(data);
 
-        String filenameBase = buildFilenameBase(type, data);
-        byte[] content;
-        String contentType;
-        String extension;
-
-        if ("pdf".equals(format)) {
-            String html = buildHtml(type, data);
-            content = renderPdf(html);
-            contentType = "application/pdf";
-            extension = "pdf";
-        } else {
-            content = renderWord(type, data);
-            contentType = "application/msword";
-            extension = "doc";
+        String filename = buildFilenameBase(type, data) + "." + extension(format);
+        boolean withLogo = !"pdf".equals(format) || pdfRenderEngine.isLogoEnabled();
+        String etag = certificateFileCache.key(type, format, certificateData, withLogo);
+
+        if (etagMatches(ifNoneMatch, etag)) {
+            return new GeneratedCertificate(filename, contentType(format), etag, null);
         }
 
-        String filename = filenameBase + "." + extension;
+        FileChannel file = certificateFileCache.open(etag).orElse(null);
+        if (file == null) {
+            StreamingResponseBody content = "pdf".equals(format)
+                    ? outputStream -> pdfRenderEngine.renderTo(type, certificateData, outputStream)
+                    : outputStream -> renderWord(type, certificateData, outputStream);
+            file = certificateFileCache.write(etag, extension(format), content).orElse(null);
+            if (file == null) file = writeTempFile(content);
+        }
+        GeneratedCertificate generated = new GeneratedCertificate(filename, contentType(format), etag, file);
 
         auditService.log(
                 "certificate_generated",
@@ -60,16 +84,16 @@ public class CertificateService {
                 request.getMemberKey()
         );
 
-        return new GeneratedCertificate(filename, contentType, content);
+        return generated;
     }
 
-    private String normalizeType(String value) {
+    String normalizeType(String value) {
         String type = String.valueOf(value == null ? "" : value).trim().toLowerCase(Locale.ROOT);
-        if ("batismo".equals(type) || "casamento".equals(type)) return type;
-        throw new BadRequestException("Tipo de certificado invalido. Use: batismo ou casamento");
+        if (certificateTemplates.get(type) != null) return type;
+        throw new BadRequestException("Tipo de certificado invalido. Use: " + String.join(", ", certificateTemplates.types()));
     }
 
-    private String normalizeFormat(String value) {
+    String normalizeFormat(String value) {
         String format = String.valueOf(value == null ? "" : value).trim().toLowerCase(Locale.ROOT);
         if ("pdf".equals(format) || "word".equals(format) || "docx".equals(format)) {
             return "docx".equals(format) ? "word" : format;
@@ -77,8 +101,10 @@ public class CertificateService {
         throw new BadRequestException("Formato invalido. Use: pdf ou word");
     }
 
-    private String buildFilenameBase(String type, Map<String, Object> data) {
+    String buildFilenameBase(String type, Map<String, Object> data) {
         String name = value(data, "nome_baptizado");
+        if (name.isBlank()) name = value(data, "nome_crismado");
+        if (name.isBlank()) name = value(data, "nome");
         if (name.isBlank()) {
             String noivo = value(data, "nome_noivo");
             String noiva = value(data, "nome_noiva");
@@ -88,216 +114,53 @@ public class CertificateService {
         return "certidao_" + type + "_" + slug(name);
     }
 
-    private byte[] renderPdf(String html) {
-        try (ByteArrayOutputStream outputStream = new ByteArrayOutputStream()) {
-            ITextRenderer renderer = new ITextRenderer();
-            renderer.setDocumentFromString(html);
-            renderer.layout();
-            renderer.createPDF(outputStream);
-            return outputStream.toByteArray();
-        } catch (Exception ex) {
-            log.warn("Erro ao gerar PDF com logo. Tentando fallback sem logo.", ex);
-            try (ByteArrayOutputStream outputStream = new ByteArrayOutputStream()) {
-                String fallbackHtml = stripLogo(html);
-                ITextRenderer renderer = new ITextRenderer();
-                renderer.setDocumentFromString(fallbackHtml);
-                renderer.layout();
-                renderer.createPDF(outputStream);
-                return outputStream.toByteArray();
-            } catch (Exception fallbackEx) {
-                log.error("Erro ao gerar PDF de certificado no fallback", fallbackEx);
-                throw new BadRequestException("Nao foi possivel gerar o PDF do certificado");
-            }
-        }
+    static String contentType(String format) {
+        return "pdf".equals(format) ? "application/pdf" : DocxWriter.CONTENT_TYPE;
     }
 
-    private byte[] renderWord(String type, Map<String, Object> data) {
-        String html = buildHtml(type, data);
-        return html.getBytes(StandardCharsets.UTF_8);
+    static String extension(String format) {
+        return "pdf".equals(format) ? "pdf" : "docx";
     }
 
-    private String buildHtml(String type, Map<String, Object> data) {
-        String logoHtml = logoHtml();
-        String headerTop = "batismo".equals(type) ? "<div class=\"subtitle\">ARQUIDIOCESE DE MAPUTO - MOCAMBIQUE</div>" : "";
-        String title = "batismo".equals(type) ? "CERTIDAO DE BAPTISMO" : "CERTIDAO DE CASAMENTO";
-        String body = "batismo".equals(type) ? buildBaptismBody(data) : buildMarriageBody(data);
-        String wrapperClass = "batismo".equals(type) ? "page" : "page marriage";
-
-        return "<html xmlns=\"http://www.w3.org/1999/xhtml\">"
-                + "<head><meta charset=\"UTF-8\"/>"
-                + "<style>"
-                + "@page { size: A4; margin: 20mm 18mm 20mm 22mm; }"
-                + "body { font-family: 'Times New Roman', serif; font-size: 12pt; line-height: 1.45; color: #111111; }"
-                + ".page { width: 100%; }"
-                + ".marriage { border-left: 2px solid #10366f; padding-left: 10mm; }"
-                + ".header { text-align: center; margin-bottom: 14pt; }"
-                + ".logo-wrap { text-align: center; margin-bottom: 6pt; height: 52px; }"
-                + ".logo { width: 48px; height: 48px; object-fit: contain; }"
-                + ".subtitle { font-size: 11.5pt; font-weight: 700; letter-spacing: 0.3px; margin-bottom: 3pt; color: #10366f; }"
-                + ".title { font-size: 18pt; font-weight: 700; letter-spacing: 0.5px; margin-bottom: 10pt; color: #10366f; }"
-                + "p { margin: 0 0 8pt 0; text-align: left; }"
-                + ".fill { display: inline-block; border-bottom: 1px dotted #1f2937; min-width: 70px; padding: 0 3px; }"
-                + ".fill.short { min-width: 48px; }"
-                + ".fill.mid { min-width: 120px; }"
-                + ".fill.long { min-width: 220px; }"
-                + ".fill.xlong { min-width: 300px; }"
-                + ".spacer { margin-top: 10pt; }"
-                + ".signature { margin-top: 24pt; text-align: right; }"
-                + ".sigline { display: inline-block; border-bottom: 1px dotted #1f2937; min-width: 230px; height: 18px; }"
-                + "</style></head>"
-                + "<body><div class=\"" + wrapperClass + "\">"
-                + "<div class=\"header\">" + logoHtml + headerTop + "<div class=\"title\">" + escapeHtml(title) + "</div></div>"
-                + body
-                + "</div></body></html>";
+    void renderWord(String type, CertificateData data, OutputStream outputStream) throws IOException {
+        docxWriter.write(type, data, outputStream);
     }
 
-    private String buildMarriageBody(Map<String, Object> data) {
-        DateParts parts = emissionDateParts(data);
-        String noivoMae = value(data, "mae_noivo");
-        String noivaMae = value(data, "mae_noiva");
-
-        return ""
-                + pRaw("Padre " + fill(value(data, "nome_oficiante"), "xlong") + " da " + fill(value(data, "paroquia"), "xlong") + ".")
-                + pRaw("CERTIFICO que das folhas " + fill(value(data, "folha"), "short")
-                + " sob o n. " + fill(value(data, "numero_registo"), "mid")
-                + " do Livro de Registo de Casamentos celebrados nesta " + fill(value(data, "paroquia"), "long")
-                + " referentes ao ano de " + fill(value(data, "ano"), "short") + ".")
-                + pRaw("Consta que no dia " + fill(parts.day, "short")
-                + " do mes de " + fill(parts.month, "mid")
-                + " do ano de " + fill(parts.year, "short")
-                + " foi celebrado o casamento canonico de " + fill(value(data, "nome_noivo"), "xlong") + ".")
-                + pRaw("Filho de " + fill(value(data, "pai_noivo"), "xlong")
-                + " e de " + fill(noivoMae, "xlong") + ".")
-                + pRaw("Com " + fill(value(data, "nome_noiva"), "xlong")
-                + ", filha de " + fill(value(data, "pai_noiva"), "xlong")
-                + " e de " + fill(noivaMae, "xlong") + ".")
-                + pRaw("Sendo oficiante " + fill(value(data, "nome_oficiante"), "xlong") + ".")
-                + pRaw("Foram testemunhas " + fill(value(data, "nome_testemunha_1"), "xlong")
-                + " e " + fill(value(data, "nome_testemunha_2"), "xlong") + ".")
-                + pRaw("Por ser verdade, passo a presente certidao que assino e autentico com o "
-                + fill(value(data, "autenticacao"), "mid") + ".")
-                + pRaw(fill(defaultIfBlank(value(data, "local_emissao"), "Matola"), "mid")
-                + ", aos " + fill(parts.day, "short")
-                + " de " + fill(parts.month, "mid")
-                + " de " + fill(parts.year, "short") + ".")
-                + "<div class=\"signature\">"
-                + "<p>O " + fill(value(data, "cargo_assinante"), "mid") + "</p>"
-                + "<p><span class=\"sigline\"></span></p>"
-                + "<p>" + escapeHtml(value(data, "assinante")) + "</p>"
-                + "</div>";
-    }
-
-    private String buildBaptismBody(Map<String, Object> data) {
-        DateParts parts = emissionDateParts(data);
-        String diaBatismo = value(data, "dia_baptismo");
-        String mesBatismo = value(data, "mes_baptismo");
-        String anoBatismo = defaultIfBlank(value(data, "ano_registo"), parts.year);
-        String dataBatismo = value(data, "data_baptismo");
-        String sexo = value(data, "sexo");
-        String anotacoes = value(data, "anotacoes");
-
-        String whenBaptism;
-        if (!dataBatismo.isBlank()) {
-            whenBaptism = "no dia " + fill(dataBatismo, "mid");
-        } else {
-            whenBaptism = "no dia " + fill(diaBatismo, "short")
-                    + " do mes de " + fill(mesBatismo, "mid")
-                    + " do referido ano de " + fill(anoBatismo, "short");
-        }
-
-        return ""
-                + pRaw("Padre " + fill(value(data, "nome_oficiante"), "xlong") + " da " + fill(value(data, "paroquia"), "xlong") + ".")
-                + pRaw("CERTIFICO que as folhas " + fill(value(data, "folha"), "short")
-                + " sob o n. " + fill(value(data, "numero_assento"), "mid")
-                + " do Livro de Registo de Baptismos desta " + fill(value(data, "paroquia"), "long")
-                + " referente ao ano de " + fill(defaultIfBlank(value(data, "ano_registo"), parts.year), "short") + ".")
-                + pRaw("Consta que " + whenBaptism
-                + " foi baptizado nesta " + fill(value(data, "paroquia"), "mid")
-                + " um individuo do sexo " + fill(sexo, "mid")
-                + " com o nome de " + fill(value(data, "nome_baptizado"), "xlong") + ".")
-                + pRaw("Nascido em " + fill(value(data, "local_nascimento"), "mid")
-                + ", distrito de " + fill(value(data, "distrito"), "mid")
-                + ", aos " + fill(value(data, "dia_nascimento"), "short")
-                + " do mes de " + fill(value(data, "mes_nascimento"), "mid")
-                + " do ano de " + fill(value(data, "ano_nascimento"), "short") + ".")
-                + pRaw("Filho de " + fill(value(data, "nome_pai"), "xlong")
-                + ", profissao " + fill(value(data, "profissao_pai"), "mid")
-                + ", natural de " + fill(value(data, "naturalidade_pai"), "mid") + ".")
-                + pRaw("E de " + fill(value(data, "nome_mae"), "xlong")
-                + ", profissao " + fill(value(data, "profissao_mae"), "mid")
-                + ", natural de " + fill(value(data, "naturalidade_mae"), "mid") + ".")
-                + pRaw("Neto paterno de " + fill(value(data, "avo_paterno"), "xlong")
-                + " e materno de " + fill(value(data, "avo_materno"), "xlong") + ".")
-                + pRaw("Foram padrinhos: " + fill(value(data, "nome_padrinho"), "xlong")
-                + " (estado " + fill(value(data, "estado_padrinho"), "mid")
-                + ", profissao " + fill(value(data, "profissao_padrinho"), "mid") + ")")
-                + pRaw("E " + fill(value(data, "nome_madrinha"), "xlong")
-                + " (estado " + fill(value(data, "estado_madrinha"), "mid")
-                + ", profissao " + fill(value(data, "profissao_madrinha"), "mid") + ").")
-                + pRaw("A margem: " + fill(anotacoes, "xlong"))
-                + pRaw("Por ser verdade passo a presente Certidao que vou assinar e autenticar com o "
-                + fill(value(data, "autenticacao"), "mid")
-                + " em uso nesta " + fill(value(data, "paroquia"), "mid") + ".")
-                + pRaw(fill(defaultIfBlank(value(data, "local_emissao"), "Matola"), "mid")
-                + ", aos " + fill(parts.day, "short")
-                + " de " + fill(parts.month, "mid")
-                + " de " + fill(parts.year, "short") + ".")
-                + "<div class=\"signature\">"
-                + "<p>O " + fill(value(data, "cargo_assinante"), "mid") + "</p>"
-                + "<p><span class=\"sigline\"></span></p>"
-                + "<p>" + escapeHtml(value(data, "assinante")) + "</p>"
-                + "</div>";
-    }
-
-    private String logoHtml() {
-        String logoDataUri = resolveLogoDataUri();
-        if (logoDataUri.isBlank()) return "";
-        return "<div class=\"logo-wrap\"><img class=\"logo\" src=\"" + logoDataUri + "\" alt=\"Logo\" width=\"48\" height=\"48\"/></div>";
-    }
-
-    private String resolveLogoDataUri() {
+    /**
+     * Cache desativada ou indisponível: documento gerado num temporário, apagado quando o canal fechar.
+     */
+    private FileChannel writeTempFile(StreamingResponseBody content) {
+        Path temp = null;
         try {
-            PathMatchingResourcePatternResolver resolver = new PathMatchingResourcePatternResolver();
-            Resource[] resources = resolver.getResources("classpath*:static/logo*");
-            if (resources.length == 0) return "";
-
-            Resource logo = resources[0];
-            byte[] bytes = logo.getInputStream().readAllBytes();
-            String filename = logo.getFilename() == null ? "" : logo.getFilename().toLowerCase(Locale.ROOT);
-            String mimeType = "image/png";
-            if (filename.endsWith(".jpg") || filename.endsWith(".jpeg")) mimeType = "image/jpeg";
-            if (filename.endsWith(".svg")) mimeType = "image/svg+xml";
-
-            return "data:" + mimeType + ";base64," + Base64.getEncoder().encodeToString(bytes);
-        } catch (Exception ex) {
-            log.warn("Nao foi possivel carregar logo de resources/static para certificado", ex);
-            return "";
+            temp = Files.createTempFile("certificado", ".tmp");
+            try (OutputStream outputStream = Files.newOutputStream(temp)) {
+                content.writeTo(outputStream);
+            }
+            FileChannel channel = FileChannel.open(temp, StandardOpenOption.READ, StandardOpenOption.DELETE_ON_CLOSE);
+            temp = null;
+            return channel;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Nao foi possivel gravar o certificado em ficheiro temporário", e);
+        } finally {
+            if (temp != null) {
+                try {
+                    Files.deleteIfExists(temp);
+                } catch (IOException e) {
+                    log.warn("Nao foi possivel apagar temporário de certificado: {}", temp, e);
+                }
+            }
         }
     }
 
-    private DateParts emissionDateParts(Map<String, Object> data) {
-        String day = value(data, "dia");
-        String month = value(data, "mes");
-        String year = value(data, "ano");
-
-        if (!day.isBlank() && !month.isBlank() && !year.isBlank()) {
-            return new DateParts(day, month, year);
+    private boolean etagMatches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) return false;
+        for (String candidate : ifNoneMatch.split(",")) {
+            String value = candidate.trim();
+            if (value.startsWith("W/")) value = value.substring(2);
+            // Sem "*": num POST não há representação atual a que se possa referir
+            if (("\"" + etag + "\"").equals(value)) return true;
         }
-
-        LocalDate now = LocalDate.now();
-        String[] monthNames = {
-                "Janeiro", "Fevereiro", "Marco", "Abril", "Maio", "Junho",
-                "Julho", "Agosto", "Setembro", "Outubro", "Novembro", "Dezembro"
-        };
-        return new DateParts(
-                day.isBlank() ? String.valueOf(now.getDayOfMonth()) : day,
-                month.isBlank() ? monthNames[now.getMonthValue() - 1] : month,
-                year.isBlank() ? String.valueOf(now.getYear()) : year
-        );
-    }
-
-    private String stripLogo(String html) {
-        return html.replaceFirst("(?s)<div class=\\\"logo-wrap\\\">.*?</div>", "");
+        return false;
     }
 
     private String value(Map<String, Object> data, String key) {
@@ -306,45 +169,6 @@ public class CertificateService {
         return raw == null ? "" : String.valueOf(raw).trim();
     }
 
-    private String pRaw(String raw) {
-        return "<p>" + raw + "</p>";
-    }
-
-    private String fill(String value, String sizeClass) {
-        String classes = "fill" + (sizeClass == null || sizeClass.isBlank() ? "" : " " + sizeClass);
-        String safe = escapeHtml(value);
-        if (safe.isBlank()) safe = "&nbsp;";
-        return "<span class=\"" + classes + "\">" + safe + "</span>";
-    }
-
-    private String defaultIfBlank(String value, String fallback) {
-        return value == null || value.isBlank() ? fallback : value;
-    }
-
-    private String escapeHtml(String value) {
-        String sanitized = sanitizeXmlText(value);
-        return sanitized
-                .replace("&", "&amp;")
-                .replace("<", "&lt;")
-                .replace(">", "&gt;")
-                .replace("\"", "&quot;")
-                .replace("'", "&#39;");
-    }
-
-    private String sanitizeXmlText(String value) {
-        String input = String.valueOf(value == null ? "" : value);
-        StringBuilder out = new StringBuilder(input.length());
-        input.codePoints().forEach(cp -> {
-            if (cp == 0x9 || cp == 0xA || cp == 0xD
-                    || (cp >= 0x20 && cp <= 0xD7FF)
-                    || (cp >= 0xE000 && cp <= 0xFFFD)
-                    || (cp >= 0x10000 && cp <= 0x10FFFF)) {
-                out.appendCodePoint(cp);
-            }
-        });
-        return out.toString().trim();
-    }
-
     private String slug(String value) {
         String normalized = Normalizer.normalize(value, Normalizer.Form.NFD)
                 .replaceAll("\\p{M}+", "");
@@ -355,18 +179,93 @@ public class CertificateService {
         return slug.isBlank() ? "membro" : slug;
     }
 
+    /**
+     * Certificado pronto a enviar, num ficheiro já aberto (cache ou temporário).
+     * Sem ficheiro é a resposta a um If-None-Match que coincide (304).
+     *
+     * O canal é fechado por writeTo ou por close, o que acontecer primeiro. Se a resposta for
+     * abandonada antes de o corpo ser escrito (cliente que desliga, pedido assíncrono que não chega
+     * a correr), o Cleaner fecha-o quando o objeto deixar de ser usado, para o ficheiro temporário
+     * (DELETE_ON_CLOSE) não ficar no disco.
+     */
     @Getter
-    public static class GeneratedCertificate {
+    public static class GeneratedCertificate implements AutoCloseable {
+
+        private static final Cleaner CLEANER = Cleaner.create();
+
         private final String filename;
         private final String contentType;
-        private final byte[] bytes;
+        private final String etag;
+        private final long contentLength;  // -1 se o tamanho não pôde ser lido
+
+        @Getter(AccessLevel.NONE)
+        private final FileChannel file;
 
-        public GeneratedCertificate(String filename, String contentType, byte[] bytes) {
+        @Getter(AccessLevel.NONE)
+        private final Cleaner.Cleanable cleanable;
+
+        public GeneratedCertificate(String filename, String contentType, String etag, FileChannel file) {
             this.filename = new String(String.valueOf(filename).getBytes(StandardCharsets.UTF_8), StandardCharsets.UTF_8);
             this.contentType = contentType;
-            this.bytes = bytes;
+            this.etag = etag;
+            this.file = file;
+            this.contentLength = sizeOf(file);
+            this.cleanable = file == null ? null : CLEANER.register(this, new ChannelCloser(file));
+        }
+
+        public boolean isNotModified() {
+            return file == null;
+        }
+
+        /**
+         * Escreve o documento na resposta. A partir do ficheiro usa FileChannel.transferTo,
+         * sem carregar o documento em memória. O ficheiro foi aberto no thread do pedido, por isso
+         * continua legível mesmo que a cache o apague entretanto; o canal é fechado no fim.
+         */
+        public void writeTo(OutputStream outputStream) throws IOException {
+            try {
+                WritableByteChannel target = Channels.newChannel(outputStream);
+                long size = file.size();
+                long position = 0;
+                while (position < size) {
+                    position += file.transferTo(position, size - position, target);
+                }
+            } finally {
+                close();
+            }
+        }
+
+        /**
+         * Fecha o ficheiro sem o enviar. Pode ser chamado mais de uma vez.
+         */
+        @Override
+        public void close() {
+            if (cleanable != null) {
+                cleanable.clean();
+            }
+        }
+
+        private static long sizeOf(FileChannel file) {
+            if (file == null) return -1;
+            try {
+                return file.size();
+            } catch (IOException e) {
+                return -1;
+            }
         }
     }
 
-    private record DateParts(String day, String month, String year) {}
+    /**
+     * Ação do Cleaner: não pode referir o GeneratedCertificate, só o canal.
+     */
+    private record ChannelCloser(FileChannel channel) implements Runnable {
+        @Override
+        public void run() {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                log.warn("Nao foi possivel fechar ficheiro de certificado", e);
+            }
+        }
+    }
 }
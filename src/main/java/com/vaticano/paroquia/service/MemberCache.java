@@ -0,0 +1,108 @@
+package com.vaticano.paroquia.service;
+
+import com.vaticano.paroquia.config.CacheConfig;
+import com.vaticano.paroquia.dto.response.MemberResponse;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache read-through dos detalhes de membros, à frente de findById/findByMemberId.
+ *
+ * Guarda MemberResponse (não a entidade) para que nada do que sai do cache seja gerido pelo JPA.
+ *
+ * Só as leituras põem no cache; as escritas apenas invalidam, depois do commit. Uma leitura que
+ * começou antes de uma invalidação pode ter lido a versão anterior à escrita: por isso o leitor
+ * tira um stamp (readStamp) antes de ir à base de dados e putIfCurrent só guarda se nenhuma
+ * invalidação aconteceu entretanto. A invalidação incrementa o contador antes de remover a
+ * entrada, e o leitor volta a conferir o contador depois de guardar; em qualquer ordem, ou o
+ * leitor desiste ou a remoção apaga o que ele guardou.
+ */
+@Component
+public class MemberCache {
+
+    private final Cache members;
+    private final Cache memberIds;
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public MemberCache(CacheManager cacheManager) {
+        this.members = requireCache(cacheManager, CacheConfig.MEMBERS);
+        this.memberIds = requireCache(cacheManager, CacheConfig.MEMBER_IDS);
+    }
+
+    public MemberResponse get(String memberKey) {
+        return members.get(memberKey, MemberResponse.class);
+    }
+
+    public String getMemberKey(String memberId) {
+        return memberIds.get(memberId, String.class);
+    }
+
+    /**
+     * Stamp a tirar antes de ler da base de dados o membro a passar a putIfCurrent.
+     */
+    public long readStamp() {
+        return invalidations.get();
+    }
+
+    /**
+     * Guarda o membro lido, a não ser que tenha havido uma invalidação depois de readStamp.
+     * Nunca substitui uma entrada já presente.
+     */
+    public void putIfCurrent(MemberResponse member, long readStamp) {
+        if (invalidations.get() != readStamp) {
+            return;
+        }
+        members.putIfAbsent(member.getMemberKey(), member);
+        // memberId → memberKey é só uma pista: quem o usa confere o memberId da entrada
+        memberIds.put(member.getMemberId(), member.getMemberKey());
+        if (invalidations.get() != readStamp) {
+            // Uma escrita invalidou durante o put: a entrada pode ser a versão anterior
+            members.evict(member.getMemberKey());
+        }
+    }
+
+    /**
+     * Invalida o membro; dentro de uma transação só depois do commit.
+     */
+    public void evict(String memberKey) {
+        evictAll(List.of(memberKey));
+    }
+
+    public void evictAll(Collection<String> memberKeys) {
+        List<String> keys = List.copyOf(memberKeys);
+        afterCommit(() -> {
+            invalidations.incrementAndGet();
+            keys.forEach(members::evict);
+        });
+    }
+
+    // ========== Helper Methods ==========
+
+    private static Cache requireCache(CacheManager cacheManager, String name) {
+        Cache cache = cacheManager.getCache(name);
+        if (cache == null) {
+            throw new IllegalStateException("Cache não configurado: " + name);
+        }
+        return cache;
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,198 @@
+package com.vaticano.paroquia.service;
+
+import com.vaticano.paroquia.domain.enums.Role;
+import com.vaticano.paroquia.domain.repository.MemberMatchCandidate;
+import com.vaticano.paroquia.domain.repository.MemberRepository;
+import com.vaticano.paroquia.dto.response.MemberDuplicateResponse;
+import com.vaticano.paroquia.security.SecurityUtils;
+import com.vaticano.paroquia.util.NameMatchUtil;
+import com.vaticano.paroquia.util.NormalizeUtil;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Deteção de membros provavelmente duplicados (grafias diferentes do mesmo nome, nomes do meio
+ * abreviados, datas escritas de formas diferentes).
+ *
+ * Para evitar comparar todos com todos, os membros são agrupados em blocos pelo código fonético
+ * do apelido e pelo ano de nascimento; só se comparam pares dentro do mesmo bloco.
+ * Os blocos são independentes e processados em paralelo.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class MemberDuplicateService {
+
+    /** Blocos maiores que isto são subdivididos pela inicial do primeiro nome. */
+    private static final int MAX_BLOCK_SIZE = 2000;
+
+    private static final double NAME_WEIGHT = 0.6;
+    private static final double DATE_WEIGHT = 0.2;
+    private static final double PARENTS_WEIGHT = 0.2;
+    private static final double UNKNOWN_SCORE = 0.5;
+
+    private final MemberRepository memberRepository;
+    private final SecurityUtils securityUtils;
+
+    /**
+     * Lista pares de membros com pontuação igual ou superior a minScore, do mais provável para o menos.
+     */
+    public List<MemberDuplicateResponse> findDuplicates(double minScore, int limit) {
+        securityUtils.requireAnyRole(Role.SUPER_ADMIN, Role.SECRETARIO);
+
+        long start = System.currentTimeMillis();
+        List<MemberMatchCandidate> candidates = memberRepository.findAllMatchCandidates();
+        Collection<List<Prepared>> blocks = buildBlocks(candidates);
+
+        List<MemberDuplicateResponse> duplicates = blocks.parallelStream()
+                .flatMap(block -> compareBlock(block, minScore).stream())
+                .sorted(Comparator.comparingDouble(MemberDuplicateResponse::getScore).reversed()
+                        .thenComparing(d -> d.getMembroA().getMemberKey())
+                        .thenComparing(d -> d.getMembroB().getMemberKey()))
+                .limit(limit)
+                .toList();
+
+        log.info("Deteção de duplicados: {} membros, {} blocos, {} pares encontrados em {} ms",
+                candidates.size(), blocks.size(), duplicates.size(), System.currentTimeMillis() - start);
+        return duplicates;
+    }
+
+    // ========== Helper Methods ==========
+
+    private Collection<List<Prepared>> buildBlocks(List<MemberMatchCandidate> candidates) {
+        Map<String, List<Prepared>> blocks = new HashMap<>();
+        for (MemberMatchCandidate candidate : candidates) {
+            Prepared prepared = prepare(candidate);
+            if (prepared.name().isEmpty()) {
+                continue;
+            }
+            blocks.computeIfAbsent(prepared.blockKey(), k -> new ArrayList<>()).add(prepared);
+        }
+
+        List<List<Prepared>> result = new ArrayList<>(blocks.size());
+        for (List<Prepared> block : blocks.values()) {
+            if (block.size() < 2) {
+                continue;
+            }
+            if (block.size() <= MAX_BLOCK_SIZE) {
+                result.add(block);
+                continue;
+            }
+            // Apelido e ano muito comuns: compara apenas dentro da mesma inicial do primeiro nome
+            Map<Character, List<Prepared>> byInitial = new HashMap<>();
+            for (Prepared prepared : block) {
+                byInitial.computeIfAbsent(prepared.name().charAt(0), k -> new ArrayList<>()).add(prepared);
+            }
+            byInitial.values().stream().filter(b -> b.size() > 1).forEach(result::add);
+        }
+        return result;
+    }
+
+    private Prepared prepare(MemberMatchCandidate candidate) {
+        String name = NormalizeUtil.normalizeForKey(candidate.nomeCompleto());
+        // Ano da data já canónica ("30/06/08" → 2008), para ficar no mesmo bloco que "30 de Junho de 2008"
+        String birthDate = NameMatchUtil.canonicalDate(candidate.dataNascimento());
+        String year = birthDate.isEmpty() ? NameMatchUtil.birthYear(candidate.dataNascimento()) : birthDate.substring(0, 4);
+        String blockKey = NameMatchUtil.phoneticKey(NameMatchUtil.surname(candidate.nomeCompleto()))
+                + "|" + (year.isEmpty() ? "?" : year);
+        return new Prepared(
+                candidate,
+                name,
+                blockKey,
+                NameMatchUtil.nameTokens(candidate.nomeCompleto()),
+                birthDate,
+                NormalizeUtil.normalizeForKey(candidate.nomePai()),
+                NormalizeUtil.normalizeForKey(candidate.nomeMae())
+        );
+    }
+
+    private List<MemberDuplicateResponse> compareBlock(List<Prepared> block, double minScore) {
+        // Limite superior da pontuação quando o nome vale x: usado para descartar cedo
+        double minNameScore = (minScore - DATE_WEIGHT - PARENTS_WEIGHT) / NAME_WEIGHT;
+
+        List<MemberDuplicateResponse> found = new ArrayList<>();
+        for (int i = 0; i < block.size(); i++) {
+            Prepared a = block.get(i);
+            for (int j = i + 1; j < block.size(); j++) {
+                Prepared b = block.get(j);
+
+                double nameScore = NameMatchUtil.nameSimilarity(a.nameTokens(), b.nameTokens());
+                if (nameScore < minNameScore) {
+                    continue;
+                }
+
+                boolean sameDate = !a.birthDate().isEmpty() && a.birthDate().equals(b.birthDate());
+                double dateScore = sameDate ? 1.0
+                        : (a.birthDate().isEmpty() || b.birthDate().isEmpty()) ? UNKNOWN_SCORE : 0.0;
+                double parentsScore = parentsScore(a, b);
+
+                double score = NAME_WEIGHT * nameScore + DATE_WEIGHT * dateScore + PARENTS_WEIGHT * parentsScore;
+                if (score < minScore) {
+                    continue;
+                }
+
+                // Ordem estável dentro do par
+                boolean swap = a.candidate().memberKey().compareTo(b.candidate().memberKey()) > 0;
+                found.add(MemberDuplicateResponse.builder()
+                        .score(round(score))
+                        .nomeScore(round(nameScore))
+                        .pais(round(parentsScore))
+                        .mesmaDataNascimento(sameDate)
+                        .membroA(toSummary(swap ? b : a))
+                        .membroB(toSummary(swap ? a : b))
+                        .build());
+            }
+        }
+        return found;
+    }
+
+    private double parentsScore(Prepared a, Prepared b) {
+        double total = 0;
+        int compared = 0;
+        if (!a.nomePai().isEmpty() && !b.nomePai().isEmpty()) {
+            total += NameMatchUtil.jaroWinkler(a.nomePai(), b.nomePai());
+            compared++;
+        }
+        if (!a.nomeMae().isEmpty() && !b.nomeMae().isEmpty()) {
+            total += NameMatchUtil.jaroWinkler(a.nomeMae(), b.nomeMae());
+            compared++;
+        }
+        return compared == 0 ? UNKNOWN_SCORE : total / compared;
+    }
+
+    private MemberDuplicateResponse.MemberSummary toSummary(Prepared prepared) {
+        MemberMatchCandidate candidate = prepared.candidate();
+        return MemberDuplicateResponse.MemberSummary.builder()
+                .memberKey(candidate.memberKey())
+                .nomeCompleto(candidate.nomeCompleto())
+                .comunidade(candidate.comunidade())
+                .dataNascimento(candidate.dataNascimento())
+                .build();
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 1000) / 1000.0;
+    }
+
+    /**
+     * Candidato com os campos já normalizados uma única vez (não em cada comparação).
+     */
+    private record Prepared(
+            MemberMatchCandidate candidate,
+            String name,
+            String blockKey,
+            String[] nameTokens,
+            String birthDate,
+            String nomePai,
+            String nomeMae
+    ) {
+    }
+}
@@ -0,0 +1,196 @@
+package com.vaticano.paroquia.service;
+
+import com.vaticano.paroquia.domain.entity.Member;
+import com.vaticano.paroquia.domain.enums.Role;
+import com.vaticano.paroquia.domain.repository.MemberRepository;
+import com.vaticano.paroquia.exception.BadRequestException;
+import com.vaticano.paroquia.security.SecurityUtils;
+import com.vaticano.paroquia.util.CsvWriter;
+import com.vaticano.paroquia.util.MemberCsvLayout;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import tools.jackson.core.JsonGenerator;
+import tools.jackson.core.StreamWriteFeature;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+import java.util.stream.Stream;
+
+/**
+ * Exportação completa de membros em streaming (CSV no layout do modelo de importação, ou NDJSON).
+ * Lê por cursor JDBC (fetch size fixo) e escreve diretamente na resposta: memória constante
+ * independentemente do tamanho do registo.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class MemberExportService {
+
+    private static final DateTimeFormatter TIMESTAMP_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss");
+    private static final int WRITER_BUFFER_CHARS = 16 * 1024;
+
+    private final MemberRepository memberRepository;
+    private final EntityManager entityManager;
+    private final PlatformTransactionManager transactionManager;
+    private final ObjectMapper objectMapper;
+    private final SecurityUtils securityUtils;
+    private final AuditService auditService;
+
+    public enum ExportFormat {
+        CSV("text/csv;charset=UTF-8", "csv"),
+        NDJSON("application/x-ndjson", "ndjson");
+
+        private final String contentType;
+        private final String extension;
+
+        ExportFormat(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        public static ExportFormat fromValue(String value) {
+            String format = String.valueOf(value == null ? "" : value).trim().toLowerCase(Locale.ROOT);
+            for (ExportFormat exportFormat : values()) {
+                if (exportFormat.extension.equals(format)) {
+                    return exportFormat;
+                }
+            }
+            throw new BadRequestException("Formato de exportação inválido. Use: csv ou ndjson");
+        }
+    }
+
+    /**
+     * Valida permissões no thread do pedido e devolve o corpo a escrever de forma assíncrona.
+     */
+    public StreamingResponseBody export(ExportFormat format) {
+        securityUtils.requireAnyRole(Role.SUPER_ADMIN, Role.SECRETARIO);
+
+        auditService.log("members_exported", "Exportação de membros em " + format.getExtension());
+
+        return outputStream -> {
+            long start = System.currentTimeMillis();
+            long rows = streamMembers(format, outputStream);
+            log.info("Exportação de membros ({}) concluída: {} registos em {} ms",
+                    format.getExtension(), rows, System.currentTimeMillis() - start);
+        };
+    }
+
+    // ========== Helper Methods ==========
+
+    private long streamMembers(ExportFormat format, OutputStream outputStream) throws IOException {
+        // O cursor do PostgreSQL só é usado dentro de uma transação (autocommit desligado)
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+
+        try {
+            Long rows = readOnly.execute(status -> {
+                try (Stream<Member> members = memberRepository.streamAllForExport()) {
+                    return format == ExportFormat.CSV
+                            ? writeCsv(members, outputStream)
+                            : writeNdjson(members, outputStream);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            return rows == null ? 0 : rows;
+        } catch (UncheckedIOException e) {
+            // Normalmente o cliente fechou a ligação a meio da transferência
+            throw e.getCause();
+        }
+    }
+
+    private long writeCsv(Stream<Member> members, OutputStream outputStream) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8), WRITER_BUFFER_CHARS);
+        CsvWriter csv = new CsvWriter(writer, MemberCsvLayout.SEPARATOR);
+
+        // BOM para o Excel reconhecer UTF-8; a importação ignora-o
+        writer.write('\uFEFF');
+        csv.writeRecord(MemberCsvLayout.HEADER);
+        writer.flush();
+
+        long count = 0;
+        for (Member member : (Iterable<Member>) members::iterator) {
+            csv.writeRecord(MemberCsvLayout.toRecord(member));
+            entityManager.detach(member);
+            count++;
+        }
+        writer.flush();
+        return count;
+    }
+
+    private long writeNdjson(Stream<Member> members, OutputStream outputStream) {
+        long count = 0;
+        try (JsonGenerator json = objectMapper.writer()
+                .without(StreamWriteFeature.AUTO_CLOSE_TARGET)
+                .withRootValueSeparator("\n")
+                .createGenerator(outputStream)) {
+            for (Member member : (Iterable<Member>) members::iterator) {
+                writeMember(json, member);
+                entityManager.detach(member);
+                if (count++ == 0) {
+                    json.flush();
+                }
+            }
+            json.writeRaw('\n');
+        }
+        return count;
+    }
+
+    private void writeMember(JsonGenerator json, Member m) {
+        json.writeStartObject();
+        json.writeStringProperty("memberKey", m.getMemberKey());
+        json.writeStringProperty("memberId", m.getMemberId());
+        json.writeStringProperty("ordOriginal", m.getOrdOriginal());
+        json.writeStringProperty("nomeCompleto", m.getNomeCompleto());
+        json.writeStringProperty("comunidade", m.getComunidade());
+        json.writeStringProperty("dataBaptismo", m.getDataBaptismo());
+        json.writeStringProperty("dataNascimento", m.getDataNascimento());
+        json.writeStringProperty("naturalidade", m.getNaturalidade());
+        json.writeStringProperty("nomePai", m.getNomePai());
+        json.writeStringProperty("naturalidadePai", m.getNaturalidadePai());
+        json.writeStringProperty("estadoCivil", m.getEstadoCivil());
+        json.writeStringProperty("profissao", m.getProfissao());
+        json.writeStringProperty("nomeMae", m.getNomeMae());
+        json.writeStringProperty("avosPaternos", m.getAvosPaternos());
+        json.writeStringProperty("avosMaternos", m.getAvosMaternos());
+        json.writeStringProperty("nomePadrinho", m.getNomePadrinho());
+        json.writeStringProperty("estadoCivilPadrinho", m.getEstadoCivilPadrinho());
+        json.writeStringProperty("profissaoPadrinho", m.getProfissaoPadrinho());
+        json.writeStringProperty("residenciaPadrinho", m.getResidenciaPadrinho());
+        json.writeStringProperty("nomeMadrinha", m.getNomeMadrinha());
+        json.writeStringProperty("estadoCivilMadrinha", m.getEstadoCivilMadrinha());
+        json.writeStringProperty("profissaoMadrinha", m.getProfissaoMadrinha());
+        json.writeStringProperty("residenciaMadrinha", m.getResidenciaMadrinha());
+        json.writeStringProperty("dataCrisma", m.getDataCrisma());
+        json.writeStringProperty("dataCasamento", m.getDataCasamento());
+        json.writeStringProperty("numeroAssento", m.getNumeroAssento());
+        json.writeStringProperty("observacoes", m.getObservacoes());
+        json.writeBooleanProperty("batizado", Boolean.TRUE.equals(m.getBatizado()));
+        json.writeBooleanProperty("crismado", Boolean.TRUE.equals(m.getCrismado()));
+        json.writeBooleanProperty("casado", Boolean.TRUE.equals(m.getCasado()));
+        json.writeStringProperty("createdAt", m.getCreatedAt() == null ? null : TIMESTAMP_FORMAT.format(m.getCreatedAt()));
+        json.writeStringProperty("updatedAt", m.getUpdatedAt() == null ? null : TIMESTAMP_FORMAT.format(m.getUpdatedAt()));
+        json.writeEndObject();
+    }
+}
@@ -0,0 +1,245 @@
+package com.vaticano.paroquia.service;
+
+import com.vaticano.paroquia.domain.entity.Member;
+import com.vaticano.paroquia.domain.enums.Role;
+import com.vaticano.paroquia.domain.repository.MemberRepository;
+import com.vaticano.paroquia.domain.repository.MemberUpsertResult;
+import com.vaticano.paroquia.dto.request.MemberRequest;
+import com.vaticano.paroquia.dto.response.MemberImportResponse;
+import com.vaticano.paroquia.exception.BadRequestException;
+import com.vaticano.paroquia.security.SecurityUtils;
+import com.vaticano.paroquia.util.CsvReader;
+import com.vaticano.paroquia.util.MemberCsvLayout;
+import com.vaticano.paroquia.util.MemberKeyGenerator;
+import com.vaticano.paroquia.util.NormalizeUtil;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Importação em massa de membros a partir do CSV no formato de Modelo_Importacao_Membros.csv.
+ * O ficheiro é lido linha a linha e escrito em lotes (upsert por member_key), sem carregar o ficheiro
+ * inteiro em memória. Reimportar o mesmo ficheiro atualiza apenas os membros cujos dados mudaram.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class MemberImportService {
+
+    private static final int MAX_REPORTED_ERRORS = 200;
+    private static final int ENCODING_PROBE_BYTES = 64 * 1024;
+
+    private final MemberRepository memberRepository;
+    private final MemberCache memberCache;
+    private final TransactionTemplate transactionTemplate;
+    private final MemberService memberService;
+    private final MemberKeyGenerator memberKeyGenerator;
+    private final SecurityUtils securityUtils;
+    private final AuditService auditService;
+
+    @Value("${app.members.import.batch-size:500}")
+    private int batchSize;
+
+    /**
+     * Importa membros do CSV. Cada lote é gravado na sua própria transação, para que um ficheiro
+     * grande não mantenha uma transação aberta durante toda a importação.
+     */
+    public MemberImportResponse importCsv(InputStream inputStream, String filename) {
+        securityUtils.requireAnyRole(Role.SUPER_ADMIN, Role.SECRETARIO);
+
+        long start = System.currentTimeMillis();
+        MemberImportResponse result = MemberImportResponse.builder().build();
+        List<PendingRow> batch = new ArrayList<>(batchSize);
+
+        try (BufferedInputStream buffered = new BufferedInputStream(inputStream, ENCODING_PROBE_BYTES);
+             CsvReader csv = new CsvReader(new InputStreamReader(buffered, detectCharset(buffered)), MemberCsvLayout.SEPARATOR)) {
+
+            List<String> record = csv.readRecord();
+            if (record != null && !isHeader(record)) {
+                processRecord(record, csv.getLineNumber(), batch, result);
+            }
+
+            while ((record = csv.readRecord()) != null) {
+                processRecord(record, csv.getLineNumber(), batch, result);
+                if (batch.size() >= batchSize) {
+                    flush(batch, result);
+                }
+            }
+            flush(batch, result);
+        } catch (IOException e) {
+            log.error("Erro ao ler CSV de importação: {}", filename, e);
+            throw new BadRequestException("Não foi possível ler o ficheiro CSV");
+        }
+
+        result.setDuracaoMs(System.currentTimeMillis() - start);
+
+        auditService.log("import_csv", "Importação CSV de membros: " + filename, Map.of(
+                "totalLinhas", result.getTotalLinhas(),
+                "inseridos", result.getInseridos(),
+                "atualizados", result.getAtualizados(),
+                "inalterados", result.getInalterados(),
+                "duplicados", result.getDuplicados(),
+                "ignorados", result.getIgnorados()
+        ));
+
+        log.info("Importação CSV concluída: {} linhas, {} inseridos, {} atualizados, {} inalterados, {} duplicados, {} ignorados em {} ms",
+                result.getTotalLinhas(), result.getInseridos(), result.getAtualizados(), result.getInalterados(),
+                result.getDuplicados(), result.getIgnorados(), result.getDuracaoMs());
+
+        return result;
+    }
+
+    // ========== Helper Methods ==========
+
+    private void processRecord(List<String> record, long lineNumber, List<PendingRow> batch, MemberImportResponse result) {
+        if (isBlankRecord(record)) {
+            return;
+        }
+        result.setTotalLinhas(result.getTotalLinhas() + 1);
+
+        MemberRequest request = MemberCsvLayout.toMemberRequest(record);
+        if (NormalizeUtil.normalizeValue(request.getNomeCompleto()).isEmpty()) {
+            addError(result, lineNumber, "Nome completo é obrigatório");
+            return;
+        }
+
+        String memberKey = memberKeyGenerator.generateMemberKey(
+                request.getNomeCompleto(),
+                request.getDataNascimento(),
+                request.getNomePai(),
+                request.getNomeMae()
+        );
+        batch.add(new PendingRow(lineNumber, memberService.buildMemberFromRequest(memberKey, request)));
+    }
+
+    private void flush(List<PendingRow> batch, MemberImportResponse result) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            List<Member> members = batch.stream().map(PendingRow::member).toList();
+            List<MemberUpsertResult> outcomes = transactionTemplate.execute(status -> memberRepository.upsertAll(members));
+            countOutcomes(outcomes, new HashSet<>(), result);
+        } catch (RuntimeException e) {
+            // Um registo inválido (ex: campo demasiado longo) aborta o lote inteiro:
+            // repete linha a linha para isolar e reportar apenas as linhas com erro.
+            // As chaves já gravadas deste lote são partilhadas entre linhas, para que uma pessoa
+            // repetida conte como duplicado tal como no caminho em lote.
+            log.warn("Lote de importação falhou, a repetir linha a linha: {}", e.getMessage());
+            Set<String> seen = new HashSet<>();
+            for (PendingRow row : batch) {
+                try {
+                    MemberUpsertResult outcome = transactionTemplate.execute(status -> memberRepository.upsert(row.member()));
+                    countOutcomes(List.of(outcome), seen, result);
+                } catch (RuntimeException rowError) {
+                    addError(result, row.lineNumber(), rootMessage(rowError));
+                }
+            }
+        }
+        batch.clear();
+    }
+
+    /**
+     * seen: chaves já contadas neste lote. Só a primeira ocorrência de cada pessoa conta pelo seu
+     * estado; as seguintes contam como duplicados (em lote, prevalecem os dados da última).
+     */
+    private void countOutcomes(List<MemberUpsertResult> outcomes, Set<String> seen, MemberImportResponse result) {
+        for (MemberUpsertResult outcome : outcomes) {
+            if (outcome.status() == MemberUpsertResult.Status.UPDATED) {
+                memberCache.evict(outcome.memberKey());
+            }
+            if (!seen.add(outcome.memberKey())) {
+                // Mesma pessoa repetida no próprio ficheiro
+                result.setDuplicados(result.getDuplicados() + 1);
+                continue;
+            }
+            switch (outcome.status()) {
+                case INSERTED -> result.setInseridos(result.getInseridos() + 1);
+                case UPDATED -> result.setAtualizados(result.getAtualizados() + 1);
+                case UNCHANGED -> result.setInalterados(result.getInalterados() + 1);
+            }
+        }
+    }
+
+    private void addError(MemberImportResponse result, long lineNumber, String motivo) {
+        result.setIgnorados(result.getIgnorados() + 1);
+        if (result.getErros().size() < MAX_REPORTED_ERRORS) {
+            result.getErros().add(new MemberImportResponse.LinhaErro(lineNumber, motivo));
+        }
+    }
+
+    private boolean isHeader(List<String> record) {
+        String first = NormalizeUtil.normalizeForKey(record.get(0));
+        return first.startsWith("ord");
+    }
+
+    private boolean isBlankRecord(List<String> record) {
+        for (String field : record) {
+            if (!NormalizeUtil.normalizeValue(field).isEmpty()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * O modelo é normalmente gravado pelo Excel em Windows-1252; exportações recentes vêm em UTF-8.
+     * Inspeciona o início do ficheiro e usa UTF-8 apenas se for válido.
+     */
+    private Charset detectCharset(BufferedInputStream in) throws IOException {
+        in.mark(ENCODING_PROBE_BYTES);
+        byte[] probe = in.readNBytes(ENCODING_PROBE_BYTES);
+        in.reset();
+
+        int length = probe.length;
+        if (length == ENCODING_PROBE_BYTES) {
+            // Não penaliza um caractere multibyte cortado no fim da amostra
+            int trailing = 0;
+            while (trailing < 3 && length > 0 && (probe[length - 1] & 0xC0) == 0x80) {
+                length--;
+                trailing++;
+            }
+            if (length > 0 && (probe[length - 1] & 0x80) != 0) {
+                length--;
+            }
+        }
+
+        try {
+            StandardCharsets.UTF_8.newDecoder()
+                    .onMalformedInput(CodingErrorAction.REPORT)
+                    .onUnmappableCharacter(CodingErrorAction.REPORT)
+                    .decode(ByteBuffer.wrap(probe, 0, length));
+            return StandardCharsets.UTF_8;
+        } catch (CharacterCodingException e) {
+            return Charset.forName("windows-1252");
+        }
+    }
+
+    private String rootMessage(Throwable error) {
+        Throwable root = error;
+        while (root.getCause() != null) {
+            root = root.getCause();
+        }
+        String message = root.getMessage();
+        return message == null ? root.getClass().getSimpleName() : message.lines().findFirst().orElse(message);
+    }
+
+    private record PendingRow(long lineNumber, Member member) {}
+}
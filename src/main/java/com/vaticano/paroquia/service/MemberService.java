@@ -1,25 +1,33 @@
 package com.vaticano.paroquia.service;
 
+import com.vaticano.paroquia.config.MemberSearchIndexInitializer;
 import com.vaticano.paroquia.domain.entity.Member;
 import com.vaticano.paroquia.domain.enums.Role;
 import com.vaticano.paroquia.domain.repository.MemberRepository;
 import com.vaticano.paroquia.dto.request.MemberRequest;
+import com.vaticano.paroquia.dto.response.CursorPageResponse;
 import com.vaticano.paroquia.dto.response.MemberResponse;
+import com.vaticano.paroquia.dto.response.MemberSummaryResponse;
 import com.vaticano.paroquia.dto.response.MessageResponse;
 import com.vaticano.paroquia.exception.DuplicateResourceException;
 import com.vaticano.paroquia.exception.ResourceNotFoundException;
 import com.vaticano.paroquia.security.SecurityUtils;
+import com.vaticano.paroquia.util.MemberCursor;
 import com.vaticano.paroquia.util.MemberKeyGenerator;
 import com.vaticano.paroquia.util.NormalizeUtil;
 import com.vaticano.paroquia.util.UlidGenerator;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 @Service
 @RequiredArgsConstructor
@@ -31,6 +39,8 @@ public class MemberService {
     private final MemberKeyGenerator memberKeyGenerator;
     private final SecurityUtils securityUtils;
     private final AuditService auditService;
+    private final MemberSearchIndexInitializer memberSearchIndex;
+    private final MemberCache memberCache;
 
     /**
      * Lista membros com paginação e busca opcional.
@@ -40,7 +50,12 @@ public class MemberService {
         securityUtils.requireAnyRole(Role.SUPER_ADMIN, Role.SECRETARIO);
 
         Page<Member> members;
-        if (search != null && !search.isBlank()) {
+        if (search != null && !search.isBlank() && memberSearchIndex.isTrigramAvailable()) {
+            // Ordenação por relevância: a ordenação pedida não se aplica à busca trigram
+            String term = search.trim();
+            members = memberRepository.searchMembersTrigram(term, escapeLike(term),
+                    PageRequest.of(pageable.getPageNumber(), pageable.getPageSize()));
+        } else if (search != null && !search.isBlank()) {
             members = memberRepository.searchMembers(search, pageable);
         } else {
             members = memberRepository.findAll(pageable);
@@ -49,16 +64,97 @@ public class MemberService {
         return members.map(this::toMemberResponse);
     }
 
+    /**
+     * Lista resumida para ecrãs de listagem: projeção direta na query, sem entidades geridas
+     * nem mapeamento para MemberResponse.
+     */
+    public Page<MemberSummaryResponse> listMemberSummaries(String search, Pageable pageable) {
+        securityUtils.requireAnyRole(Role.SUPER_ADMIN, Role.SECRETARIO);
+
+        if (search != null && !search.isBlank() && memberSearchIndex.isTrigramAvailable()) {
+            String term = search.trim();
+            return memberRepository.searchSummariesTrigram(term, escapeLike(term),
+                    PageRequest.of(pageable.getPageNumber(), pageable.getPageSize()));
+        }
+        if (search != null && !search.isBlank()) {
+            return memberRepository.searchSummaries(search, pageable);
+        }
+        return memberRepository.findAllSummaries(pageable);
+    }
+
+    /**
+     * Lista membros por cursor (keyset) ordenados por nome, sem count nem OFFSET.
+     * Adequado para percorrer todo o registo (exportações, sincronização, relatórios).
+     */
+    public CursorPageResponse<MemberResponse> scrollMembers(String after, int size) {
+        securityUtils.requireAnyRole(Role.SUPER_ADMIN, Role.SECRETARIO);
+
+        Pageable pageable = PageRequest.of(0, size);
+        Slice<Member> slice;
+        if (after == null || after.isBlank()) {
+            slice = memberRepository.findAllByOrderByNomeCompletoAscMemberKeyAsc(pageable);
+        } else {
+            MemberCursor cursor = MemberCursor.decode(after);
+            slice = memberRepository.findAfter(cursor.nomeCompleto(), cursor.memberKey(), pageable);
+        }
+
+        List<Member> content = slice.getContent();
+        String nextCursor = null;
+        if (slice.hasNext() && !content.isEmpty()) {
+            Member last = content.get(content.size() - 1);
+            nextCursor = new MemberCursor(last.getNomeCompleto(), last.getMemberKey()).encode();
+        }
+
+        return CursorPageResponse.<MemberResponse>builder()
+                .content(content.stream().map(this::toMemberResponse).toList())
+                .size(content.size())
+                .hasNext(slice.hasNext())
+                .nextCursor(nextCursor)
+                .build();
+    }
+
     /**
      * Busca membro por memberKey.
      */
     public MemberResponse getMemberByKey(String memberKey) {
         securityUtils.requireAnyRole(Role.SUPER_ADMIN, Role.SECRETARIO);
 
-        Member member = memberRepository.findById(memberKey)
+        MemberResponse cached = memberCache.get(memberKey);
+        if (cached != null) {
+            return cached;
+        }
+
+        long readStamp = memberCache.readStamp();
+        Member member = memberRepository.findByMemberKey(memberKey)
                 .orElseThrow(() -> new ResourceNotFoundException("Membro não encontrado"));
 
-        return toMemberResponse(member);
+        MemberResponse response = toMemberResponse(member);
+        memberCache.putIfCurrent(response, readStamp);
+        return response;
+    }
+
+    /**
+     * Busca membro pelo identificador estável memberId (não muda quando a chave é recalculada).
+     */
+    public MemberResponse getMemberByMemberId(String memberId) {
+        securityUtils.requireAnyRole(Role.SUPER_ADMIN, Role.SECRETARIO);
+
+        String memberKey = memberCache.getMemberKey(memberId);
+        if (memberKey != null) {
+            MemberResponse cached = memberCache.get(memberKey);
+            // A chave pode ter sido recalculada e reaproveitada: confere que é o mesmo membro
+            if (cached != null && memberId.equals(cached.getMemberId())) {
+                return cached;
+            }
+        }
+
+        long readStamp = memberCache.readStamp();
+        Member member = memberRepository.findByMemberId(memberId)
+                .orElseThrow(() -> new ResourceNotFoundException("Membro não encontrado"));
+
+        MemberResponse response = toMemberResponse(member);
+        memberCache.putIfCurrent(response, readStamp);
+        return response;
     }
 
     /**
@@ -76,13 +172,9 @@ public class MemberService {
                 request.getNomeMae()
         );
 
-        // Valida unicidade
-        if (memberRepository.existsById(memberKey)) {
-            throw new DuplicateResourceException("Membro já existe (duplicado detectado por nome + data nascimento + pais)");
-        }
-
-        Member member = buildMemberFromRequest(memberKey, request);
-        member = memberRepository.save(member);
+        // Insere numa única operação (ON CONFLICT): sem corrida entre verificação e gravação
+        Member member = memberRepository.insertIfAbsent(buildMemberFromRequest(memberKey, request))
+                .orElseThrow(() -> new DuplicateResourceException("Membro já existe (duplicado detectado por nome + data nascimento + pais)"));
 
         auditService.log("member_created", "Membro criado: " + member.getNomeCompleto(), null, member.getMemberKey());
 
@@ -98,9 +190,6 @@ public class MemberService {
     public MemberResponse updateMember(String memberKey, MemberRequest request) {
         securityUtils.requireAnyRole(Role.SUPER_ADMIN, Role.SECRETARIO);
 
-        Member member = memberRepository.findById(memberKey)
-                .orElseThrow(() -> new ResourceNotFoundException("Membro não encontrado"));
-
         // Recalcula memberKey (pode ter mudado se dados base mudaram)
         String newMemberKey = memberKeyGenerator.generateMemberKey(
                 request.getNomeCompleto(),
@@ -109,26 +198,23 @@ public class MemberService {
                 request.getNomeMae()
         );
 
-        // Se memberKey mudou, verifica se não cria duplicado
-        if (!memberKey.equals(newMemberKey)) {
-            if (memberRepository.existsById(newMemberKey)) {
-                throw new DuplicateResourceException("Atualização criaria membro duplicado");
-            }
-            // Deleta registro antigo e cria novo (JPA não suporta update de @Id)
-            memberRepository.delete(member);
-            memberRepository.flush();
-            member = buildMemberFromRequest(newMemberKey, request);
-        } else {
-            // Atualiza campos do membro existente
-            updateMemberFields(member, request);
+        // UPDATE no próprio registo: atualiza também a chave se mudou, preservando id, memberId e createdAt.
+        // As referências (famílias, núcleos, pedidos) usam o id e não são afetadas.
+        // A unicidade da nova chave é garantida pela restrição UNIQUE (sem verificação prévia).
+        Member member;
+        try {
+            member = memberRepository.updateByKey(memberKey, buildMemberFromRequest(newMemberKey, request))
+                    .orElseThrow(() -> new ResourceNotFoundException("Membro não encontrado"));
+        } catch (DuplicateKeyException e) {
+            throw new DuplicateResourceException("Atualização criaria membro duplicado");
         }
 
-        member = memberRepository.save(member);
-
         auditService.log("member_updated", "Membro atualizado: " + member.getNomeCompleto(), null, member.getMemberKey());
 
         log.info("Membro atualizado: {} ({})", member.getNomeCompleto(), member.getMemberKey());
 
+        // A chave pode ter mudado: invalida a antiga e a nova (após o commit); a próxima leitura repõe
+        memberCache.evictAll(List.of(memberKey, member.getMemberKey()));
         return toMemberResponse(member);
     }
 
@@ -139,13 +225,14 @@ public class MemberService {
     public MessageResponse deleteMember(String memberKey) {
         securityUtils.requireAnyRole(Role.SUPER_ADMIN, Role.SECRETARIO);
 
-        Member member = memberRepository.findById(memberKey)
+        Member member = memberRepository.findByMemberKey(memberKey)
                 .orElseThrow(() -> new ResourceNotFoundException("Membro não encontrado"));
 
         String currentUserId = securityUtils.getCurrentUserId();
         member.setDeletedAt(LocalDateTime.now());
         member.setDeletedBy(currentUserId);
         memberRepository.save(member);
+        memberCache.evict(memberKey);
 
         auditService.log("member_deleted", "Membro deletado: " + member.getNomeCompleto(), null, memberKey);
 
@@ -156,12 +243,17 @@ public class MemberService {
 
     // ========== Helper Methods ==========
 
-    private Member buildMemberFromRequest(String memberKey, MemberRequest request) {
+    /**
+     * Constrói a entidade a partir do request aplicando as regras de normalização.
+     * Partilhado com a importação CSV para garantir as mesmas regras.
+     */
+    Member buildMemberFromRequest(String memberKey, MemberRequest request) {
         Boolean batizado = memberKeyGenerator.deriveBatizado(request.getDataBaptismo());
         Boolean crismado = memberKeyGenerator.deriveCrismado(request.getDataCrisma());
         Boolean casado = memberKeyGenerator.deriveCasado(request.getDataCasamento());
 
         return Member.builder()
+                .id(ulidGenerator.generateTimeOrderedId())
                 .memberKey(memberKey)
                 .memberId(ulidGenerator.generateMemberId())
                 .ordOriginal(request.getOrdOriginal())
@@ -195,39 +287,8 @@ public class MemberService {
                 .build();
     }
 
-    private void updateMemberFields(Member member, MemberRequest request) {
-        Boolean batizado = memberKeyGenerator.deriveBatizado(request.getDataBaptismo());
-        Boolean crismado = memberKeyGenerator.deriveCrismado(request.getDataCrisma());
-        Boolean casado = memberKeyGenerator.deriveCasado(request.getDataCasamento());
-
-        member.setOrdOriginal(request.getOrdOriginal());
-        member.setNomeCompleto(NormalizeUtil.normalizeValue(request.getNomeCompleto()));
-        member.setComunidade(NormalizeUtil.normalizeValue(request.getComunidade()));
-        member.setDataBaptismo(NormalizeUtil.normalizeValue(request.getDataBaptismo()));
-        member.setDataNascimento(NormalizeUtil.normalizeValue(request.getDataNascimento()));
-        member.setNaturalidade(NormalizeUtil.normalizeValue(request.getNaturalidade()));
-        member.setNomePai(NormalizeUtil.normalizeValue(request.getNomePai()));
-        member.setNaturalidadePai(NormalizeUtil.normalizeValue(request.getNaturalidadePai()));
-        member.setEstadoCivil(NormalizeUtil.normalizeValue(request.getEstadoCivil()));
-        member.setProfissao(NormalizeUtil.normalizeValue(request.getProfissao()));
-        member.setNomeMae(NormalizeUtil.normalizeValue(request.getNomeMae()));
-        member.setAvosPaternos(NormalizeUtil.normalizeValue(request.getAvosPaternos()));
-        member.setAvosMaternos(NormalizeUtil.normalizeValue(request.getAvosMaternos()));
-        member.setNomePadrinho(NormalizeUtil.normalizeValue(request.getNomePadrinho()));
-        member.setEstadoCivilPadrinho(NormalizeUtil.normalizeValue(request.getEstadoCivilPadrinho()));
-        member.setProfissaoPadrinho(NormalizeUtil.normalizeValue(request.getProfissaoPadrinho()));
-        member.setResidenciaPadrinho(NormalizeUtil.normalizeValue(request.getResidenciaPadrinho()));
-        member.setNomeMadrinha(NormalizeUtil.normalizeValue(request.getNomeMadrinha()));
-        member.setEstadoCivilMadrinha(NormalizeUtil.normalizeValue(request.getEstadoCivilMadrinha()));
-        member.setProfissaoMadrinha(NormalizeUtil.normalizeValue(request.getProfissaoMadrinha()));
-        member.setResidenciaMadrinha(NormalizeUtil.normalizeValue(request.getResidenciaMadrinha()));
-        member.setDataCrisma(NormalizeUtil.normalizeValue(request.getDataCrisma()));
-        member.setDataCasamento(NormalizeUtil.normalizeValue(request.getDataCasamento()));
-        member.setNumeroAssento(NormalizeUtil.normalizeValue(request.getNumeroAssento()));
-        member.setObservacoes(NormalizeUtil.normalizeValue(request.getObservacoes()));
-        member.setBatizado(batizado);
-        member.setCrismado(crismado);
-        member.setCasado(casado);
+    private String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
     }
 
     private MemberResponse toMemberResponse(Member member) {
@@ -0,0 +1,253 @@
+package com.vaticano.paroquia.service;
+
+import com.vaticano.paroquia.domain.entity.RefreshToken;
+import com.vaticano.paroquia.domain.repository.RefreshTokenRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Refresh tokens: índice em memória dos tokens válidos e limpeza periódica da tabela.
+ *
+ * O índice (token_hash -> token) é carregado da base de dados no arranque e atualizado a cada login,
+ * logout e revogação, por isso o refresh e o logout normalmente não consultam refresh_tokens. Um
+ * token que não esteja no índice (emitido noutro nó, ou índice cheio) é procurado na base de dados.
+ * As revogações feitas por outros nós chegam ao índice a cada app.auth.refresh-tokens.sync-interval-ms;
+ * os tokens revogados ficam na tabela durante revoked-retention-hours para essa sincronização os ver.
+ * Cada revogação incrementa um contador antes de gravar e outra vez ao confirmar; um token lido da base
+ * de dados só entra no índice se o contador não mudou desde a leitura, para uma leitura anterior à
+ * revogação não o voltar a pôr lá.
+ *
+ * A limpeza apaga tokens expirados e revogados em blocos de purge-batch-size, cada um numa transação
+ * curta com SKIP LOCKED, para nunca bloquear a tabela.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class RefreshTokenStore {
+
+    // Margem na sincronização para relógios e transações que terminam depois de começarem
+    private static final long SYNC_OVERLAP_SECONDS = 5;
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.auth.refresh-tokens.index-max-entries:100000}")
+    private int indexMaxEntries;
+
+    @Value("${app.auth.refresh-tokens.purge-batch-size:1000}")
+    private int purgeBatchSize;
+
+    @Value("${app.auth.refresh-tokens.revoked-retention-hours:24}")
+    private long revokedRetentionHours;
+
+    private final Map<String, RefreshToken> index = new ConcurrentHashMap<>();
+    private final AtomicLong tableRows = new AtomicLong(-1);
+    private final AtomicLong revocations = new AtomicLong();
+    private volatile LocalDateTime lastSync = LocalDateTime.now();
+
+    private Counter hitCounter;
+    private Counter missCounter;
+    private Counter purgedCounter;
+    private Timer purgeTimer;
+
+    @PostConstruct
+    void init() {
+        hitCounter = Counter.builder("auth.refresh_tokens.lookups")
+                .description("Consultas de refresh token")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        missCounter = Counter.builder("auth.refresh_tokens.lookups")
+                .description("Consultas de refresh token")
+                .tag("result", "miss")
+                .register(meterRegistry);
+        purgedCounter = Counter.builder("auth.refresh_tokens.purged")
+                .description("Refresh tokens expirados ou revogados apagados")
+                .register(meterRegistry);
+        purgeTimer = Timer.builder("auth.refresh_tokens.purge")
+                .description("Duração da limpeza de refresh tokens")
+                .register(meterRegistry);
+        Gauge.builder("auth.refresh_tokens.index.size", index, Map::size)
+                .description("Refresh tokens válidos no índice em memória")
+                .register(meterRegistry);
+        Gauge.builder("auth.refresh_tokens.table.rows", tableRows, AtomicLong::get)
+                .description("Linhas em refresh_tokens na última limpeza")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            List<RefreshToken> active = refreshTokenRepository.findActive(now, indexMaxEntries);
+            active.forEach(this::put);
+            lastSync = now;
+            tableRows.set(refreshTokenRepository.count());
+            log.info("Índice de refresh tokens carregado: {} tokens válidos{}", active.size(),
+                    active.size() >= indexMaxEntries ? " (limite atingido; os restantes são procurados na base de dados)" : "");
+        } catch (Exception e) {
+            // Sem índice os tokens são procurados na base de dados
+            log.warn("Nao foi possivel carregar o índice de refresh tokens", e);
+        }
+    }
+
+    /**
+     * Token com este hash: do índice, ou da base de dados se lá não estiver.
+     */
+    public Optional<RefreshToken> find(String tokenHash) {
+        RefreshToken token = index.get(tokenHash);
+        if (token != null) {
+            hitCounter.increment();
+            if (token.isExpired()) {
+                index.remove(tokenHash, token);
+            }
+            return Optional.of(token);
+        }
+
+        missCounter.increment();
+        long stamp = revocations.get();
+        Optional<RefreshToken> stored = refreshTokenRepository.findByTokenHash(tokenHash);
+        stored.filter(RefreshToken::isValid).ifPresent(valid -> putIfNotRevoked(valid, stamp));
+        return stored;
+    }
+
+    /**
+     * Novo token (já gravado na transação atual); entra no índice quando a transação confirmar.
+     */
+    public void register(RefreshToken token) {
+        afterCommit(() -> put(token));
+    }
+
+    /**
+     * Revoga o token com este hash. Retorna o token revogado do índice, se lá estava.
+     */
+    public Optional<RefreshToken> revoke(String tokenHash) {
+        revocations.incrementAndGet();
+        RefreshToken removed = index.remove(tokenHash);
+        int rows = refreshTokenRepository.revokeByTokenHash(tokenHash, LocalDateTime.now());
+        // Um refresh em paralelo pode tê-lo voltado a pôr no índice antes da revogação confirmar
+        afterCommit(() -> {
+            revocations.incrementAndGet();
+            index.remove(tokenHash);
+        });
+        return rows > 0 ? Optional.ofNullable(removed) : Optional.empty();
+    }
+
+    /**
+     * Revoga todos os tokens do utilizador (mudança de senha, desativação, remoção).
+     */
+    public void revokeAllByUserId(String userId) {
+        revocations.incrementAndGet();
+        index.values().removeIf(token -> token.getUserId().equals(userId));
+        refreshTokenRepository.revokeAllByUserId(userId, LocalDateTime.now());
+        afterCommit(() -> {
+            revocations.incrementAndGet();
+            index.values().removeIf(token -> token.getUserId().equals(userId));
+        });
+    }
+
+    /**
+     * Remove do índice os tokens revogados entretanto por outros nós.
+     */
+    @Scheduled(fixedDelayString = "${app.auth.refresh-tokens.sync-interval-ms:30000}")
+    public void syncRevocations() {
+        LocalDateTime now = LocalDateTime.now();
+        try {
+            List<String> revoked = refreshTokenRepository.findHashesRevokedSince(lastSync.minusSeconds(SYNC_OVERLAP_SECONDS));
+            if (!revoked.isEmpty()) {
+                revocations.incrementAndGet();
+                revoked.forEach(index::remove);
+            }
+            lastSync = now;
+        } catch (Exception e) {
+            log.warn("Nao foi possivel sincronizar revogações de refresh tokens", e);
+        }
+    }
+
+    @Scheduled(
+            initialDelayString = "${app.auth.refresh-tokens.purge-initial-delay-ms:60000}",
+            fixedDelayString = "${app.auth.refresh-tokens.purge-interval-ms:3600000}"
+    )
+    public void purge() {
+        long start = System.nanoTime();
+        LocalDateTime now = LocalDateTime.now();
+        long total = 0;
+        try {
+            int deleted;
+            do {
+                deleted = refreshTokenRepository.deleteExpiredAndRevoked(now, now.minusHours(revokedRetentionHours), purgeBatchSize);
+                total += deleted;
+                purgedCounter.increment(deleted);
+            } while (deleted == purgeBatchSize);
+
+            index.values().removeIf(RefreshToken::isExpired);
+            tableRows.set(refreshTokenRepository.count());
+            log.info("Limpeza de refresh tokens: {} apagados, {} restantes", total, tableRows.get());
+        } catch (Exception e) {
+            log.warn("Limpeza de refresh tokens interrompida após {} linhas", total, e);
+        } finally {
+            purgeTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    // ========== Helper Methods ==========
+
+    private void put(RefreshToken token) {
+        if (index.size() < indexMaxEntries || index.containsKey(token.getTokenHash())) {
+            // Cópia só com os campos do índice: nunca a entidade gerida pelo Hibernate
+            index.put(token.getTokenHash(), RefreshToken.builder()
+                    .tokenId(token.getTokenId())
+                    .userId(token.getUserId())
+                    .tokenHash(token.getTokenHash())
+                    .expiresAt(token.getExpiresAt())
+                    .revoked(false)
+                    .build());
+        }
+    }
+
+    /**
+     * Põe no índice um token lido da base de dados, a menos que tenha havido uma revogação desde a leitura.
+     * Volta a verificar depois de o pôr: uma revogação que confirme entre as duas verificações retira-o.
+     */
+    private void putIfNotRevoked(RefreshToken token, long stamp) {
+        if (revocations.get() != stamp) {
+            return;
+        }
+        put(token);
+        if (revocations.get() != stamp) {
+            index.remove(token.getTokenHash());
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
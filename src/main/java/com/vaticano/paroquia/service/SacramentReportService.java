@@ -0,0 +1,161 @@
+package com.vaticano.paroquia.service;
+
+import com.vaticano.paroquia.domain.enums.Role;
+import com.vaticano.paroquia.domain.repository.MemberRepository;
+import com.vaticano.paroquia.domain.repository.SacramentCount;
+import com.vaticano.paroquia.exception.BadRequestException;
+import com.vaticano.paroquia.exception.ServiceUnavailableException;
+import com.vaticano.paroquia.security.SecurityUtils;
+import com.vaticano.paroquia.service.certificate.PdfRenderEngine;
+import com.vaticano.paroquia.service.certificate.SacramentReportTemplate;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Relatório de estatística sacramental da paróquia (baptismos, crismas e casamentos por comunidade
+ * e ano) em PDF.
+ *
+ * As contagens vêm de uma única query agregada; o PDF é gerado no PdfRenderEngine secção a secção
+ * para um ficheiro temporário, que só depois é enviado na resposta. O worker nunca escreve no
+ * stream do servlet, e um cliente lento não prende o pool de geração.
+ *
+ * Um relatório ocupa um worker muito mais tempo que um certificado: tem timeout próprio
+ * (app.reports.timeout) e no máximo app.reports.max-concurrent em curso, para não deixar os
+ * certificados sem workers.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SacramentReportService {
+
+    private static final int MIN_YEAR = 1600;
+    private static final int MAX_YEAR = 2099;
+    private static final long RETRY_AFTER_SECONDS = 30;
+
+    private final MemberRepository memberRepository;
+    private final SacramentReportTemplate sacramentReportTemplate;
+    private final PdfRenderEngine pdfRenderEngine;
+    private final SecurityUtils securityUtils;
+    private final AuditService auditService;
+
+    @Value("${app.reports.timeout:2m}")
+    private Duration timeout;
+
+    @Value("${app.reports.max-concurrent:1}")
+    private int maxConcurrent;
+
+    private Semaphore slots;
+
+    @PostConstruct
+    void init() {
+        slots = new Semaphore(Math.max(1, maxConcurrent));
+    }
+
+    /**
+     * Valida o pedido, faz a contagem e gera o PDF no thread do pedido; devolve o corpo que envia
+     * o ficheiro gerado (e o apaga no fim).
+     */
+    public StreamingResponseBody report(Integer fromYear, Integer toYear) {
+        securityUtils.requireAnyRole(Role.SUPER_ADMIN, Role.SECRETARIO);
+        validateYear(fromYear);
+        validateYear(toYear);
+        if (fromYear != null && toYear != null && fromYear > toYear) {
+            throw new BadRequestException("O ano inicial não pode ser posterior ao ano final");
+        }
+
+        if (!slots.tryAcquire()) {
+            throw new ServiceUnavailableException(
+                    "Já está a ser gerado um relatório. Tente novamente dentro de instantes", RETRY_AFTER_SECONDS);
+        }
+        FileChannel file;
+        try {
+            long start = System.currentTimeMillis();
+            List<SacramentCount> rows = memberRepository.countSacramentsByComunidadeAndYear(fromYear, toYear);
+            long queryMs = System.currentTimeMillis() - start;
+
+            long renderStart = System.currentTimeMillis();
+            file = renderToTempFile(rows, fromYear, toYear);
+            log.info("Relatório sacramental gerado: {} linhas, query {} ms, PDF {} ms",
+                    rows.size(), queryMs, System.currentTimeMillis() - renderStart);
+        } finally {
+            slots.release();
+        }
+
+        Map<String, Object> meta = new HashMap<>();
+        meta.put("de", fromYear);
+        meta.put("ate", toYear);
+        auditService.log("sacrament_report_generated", "Relatório de estatística sacramental gerado", meta);
+
+        return outputStream -> writeFile(file, outputStream);
+    }
+
+    // ========== Helper Methods ==========
+
+    /**
+     * PDF gerado num temporário, apagado quando o canal devolvido fechar.
+     */
+    private FileChannel renderToTempFile(List<SacramentCount> rows, Integer fromYear, Integer toYear) {
+        Path temp = null;
+        try {
+            temp = Files.createTempFile("relatorio_sacramentos", ".pdf");
+            try (OutputStream outputStream = Files.newOutputStream(temp)) {
+                pdfRenderEngine.renderDocumentsTo(
+                        "relatorio_sacramentos",
+                        sacramentReportTemplate.documents(rows, fromYear, toYear, pdfRenderEngine.isLogoEnabled(), LocalDate.now()),
+                        outputStream,
+                        timeout,
+                        "do relatório");
+            }
+            FileChannel channel = FileChannel.open(temp, StandardOpenOption.READ, StandardOpenOption.DELETE_ON_CLOSE);
+            temp = null;
+            return channel;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Nao foi possivel gravar o relatório em ficheiro temporário", e);
+        } finally {
+            if (temp != null) {
+                try {
+                    Files.deleteIfExists(temp);
+                } catch (IOException e) {
+                    log.warn("Nao foi possivel apagar temporário do relatório: {}", temp, e);
+                }
+            }
+        }
+    }
+
+    private static void writeFile(FileChannel file, OutputStream outputStream) throws IOException {
+        try (FileChannel channel = file) {
+            WritableByteChannel target = Channels.newChannel(outputStream);
+            long size = channel.size();
+            long position = 0;
+            while (position < size) {
+                position += channel.transferTo(position, size - position, target);
+            }
+        }
+    }
+
+    private static void validateYear(Integer year) {
+        if (year != null && (year < MIN_YEAR || year > MAX_YEAR)) {
+            throw new BadRequestException("Ano invalido: " + year);
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.vaticano.paroquia.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Array;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registo diferido do último login (write-behind).
+ *
+ * O login só anota o instante num mapa em memória; periodicamente (app.users.last-login.flush-interval-ms)
+ * os instantes pendentes são gravados num único UPDATE (unnest de arrays), sem escrever na linha do
+ * utilizador no caminho do login. Vários logins do mesmo utilizador no intervalo dão uma só escrita.
+ * Enquanto não são gravados, lastLoginAt(userId) devolve o valor pendente. Um instante nunca
+ * substitui um mais recente já gravado.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class UserActivityRecorder {
+
+    /** Parâmetros por statement: dois arrays com até este número de elementos. */
+    private static final int MAX_ROWS_PER_STATEMENT = 1000;
+
+    private static final String UPDATE_LAST_LOGIN_SQL = """
+            UPDATE users u
+            SET last_login_at = v.last_login_at
+            FROM unnest(?, ?) AS v(user_id, last_login_at)
+            WHERE u.user_id = v.user_id
+              AND (u.last_login_at IS NULL OR u.last_login_at < v.last_login_at)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final MeterRegistry meterRegistry;
+
+    private final ConcurrentHashMap<String, LocalDateTime> pendingLogins = new ConcurrentHashMap<>();
+
+    private Counter flushedCounter;
+
+    @PostConstruct
+    void init() {
+        flushedCounter = Counter.builder("users.last_login.flushed")
+                .description("Últimos logins gravados pelo write-behind")
+                .register(meterRegistry);
+        Gauge.builder("users.last_login.pending", pendingLogins, Map::size)
+                .description("Últimos logins à espera de gravação")
+                .register(meterRegistry);
+    }
+
+    public void recordLogin(String userId, LocalDateTime at) {
+        pendingLogins.merge(userId, at, (current, next) -> next.isAfter(current) ? next : current);
+    }
+
+    /**
+     * Último login ainda não gravado, se houver.
+     */
+    public Optional<LocalDateTime> lastLoginAt(String userId) {
+        return Optional.ofNullable(pendingLogins.get(userId));
+    }
+
+    @Scheduled(fixedDelayString = "${app.users.last-login.flush-interval-ms:10000}")
+    public void flush() {
+        if (pendingLogins.isEmpty()) return;
+
+        List<Map.Entry<String, LocalDateTime>> batch = new ArrayList<>(pendingLogins.size());
+        for (Map.Entry<String, LocalDateTime> entry : pendingLogins.entrySet()) {
+            batch.add(Map.entry(entry.getKey(), entry.getValue()));
+        }
+
+        for (int from = 0; from < batch.size(); from += MAX_ROWS_PER_STATEMENT) {
+            List<Map.Entry<String, LocalDateTime>> chunk = batch.subList(from, Math.min(from + MAX_ROWS_PER_STATEMENT, batch.size()));
+            try {
+                update(chunk);
+                // Só sai do mapa se não houve entretanto um login mais recente
+                chunk.forEach(entry -> pendingLogins.remove(entry.getKey(), entry.getValue()));
+                flushedCounter.increment(chunk.size());
+            } catch (Exception e) {
+                // Ficam no mapa e são tentados no próximo ciclo
+                log.warn("Nao foi possivel gravar {} últimos logins", chunk.size(), e);
+                return;
+            }
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        flush();
+    }
+
+    // ========== Helper Methods ==========
+
+    private void update(List<Map.Entry<String, LocalDateTime>> chunk) {
+        String[] userIds = new String[chunk.size()];
+        Timestamp[] timestamps = new Timestamp[chunk.size()];
+        for (int i = 0; i < chunk.size(); i++) {
+            userIds[i] = chunk.get(i).getKey();
+            timestamps[i] = Timestamp.valueOf(chunk.get(i).getValue());
+        }
+
+        jdbcTemplate.update(connection -> {
+            PreparedStatement ps = connection.prepareStatement(UPDATE_LAST_LOGIN_SQL);
+            Array userIdArray = connection.createArrayOf("varchar", userIds);
+            Array timestampArray = connection.createArrayOf("timestamp", timestamps);
+            ps.setArray(1, userIdArray);
+            ps.setArray(2, timestampArray);
+            return ps;
+        });
+    }
+}
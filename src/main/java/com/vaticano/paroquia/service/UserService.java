@@ -2,7 +2,6 @@ package com.vaticano.paroquia.service;
 
 import com.vaticano.paroquia.domain.entity.User;
 import com.vaticano.paroquia.domain.enums.Role;
-import com.vaticano.paroquia.domain.repository.RefreshTokenRepository;
 import com.vaticano.paroquia.domain.repository.UserRepository;
 import com.vaticano.paroquia.dto.request.CreateUserRequest;
 import com.vaticano.paroquia.dto.request.UpdateUserRequest;
@@ -12,6 +11,7 @@ import com.vaticano.paroquia.dto.response.UserResponse;
 import com.vaticano.paroquia.exception.BadRequestException;
 import com.vaticano.paroquia.exception.DuplicateResourceException;
 import com.vaticano.paroquia.exception.ResourceNotFoundException;
+import com.vaticano.paroquia.security.PasswordHasher;
 import com.vaticano.paroquia.security.SecurityUtils;
 import com.vaticano.paroquia.util.NormalizeUtil;
 import com.vaticano.paroquia.util.UlidGenerator;
@@ -22,13 +22,7 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
-import java.nio.charset.StandardCharsets;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
-import java.security.SecureRandom;
 import java.time.LocalDateTime;
-import java.util.Base64;
-import java.util.HexFormat;
 
 @Service
 @RequiredArgsConstructor
@@ -36,10 +30,12 @@ import java.util.HexFormat;
 public class UserService {
 
     private final UserRepository userRepository;
-    private final RefreshTokenRepository refreshTokenRepository;
+    private final RefreshTokenStore refreshTokenStore;
+    private final PasswordHasher passwordHasher;
     private final UlidGenerator ulidGenerator;
     private final SecurityUtils securityUtils;
     private final AuditService auditService;
+    private final UserActivityRecorder userActivityRecorder;
 
     /**
      * Lista usuários com paginação e busca opcional.
@@ -92,8 +88,7 @@ public class UserService {
         }
 
         // Gera hash de senha
-        String salt = generateSalt();
-        String passwordHash = hashPassword(request.getPassword(), salt);
+        String passwordHash = passwordHasher.hash(request.getPassword());
 
         User user = User.builder()
                 .userId(ulidGenerator.generateUserId())
@@ -103,7 +98,7 @@ public class UserService {
                 .role(role)
                 .active(true)
                 .passwordHash(passwordHash)
-                .salt(salt)
+                .salt("")
                 .build();
 
         user = userRepository.save(user);
@@ -146,7 +141,7 @@ public class UserService {
 
             // Se desativou o usuário, revoga todos os refresh tokens
             if (!request.getActive()) {
-                refreshTokenRepository.revokeAllByUserId(userId, LocalDateTime.now());
+                refreshTokenStore.revokeAllByUserId(userId);
                 log.info("Refresh tokens revogados para usuário desativado: {}", user.getUsername());
             }
         }
@@ -180,7 +175,7 @@ public class UserService {
         userRepository.save(user);
 
         // Revoga todos os refresh tokens
-        refreshTokenRepository.revokeAllByUserId(userId, LocalDateTime.now());
+        refreshTokenStore.revokeAllByUserId(userId);
 
         auditService.log("user_deleted", "Usuário deletado: " + user.getUsername(), null, userId);
 
@@ -199,15 +194,14 @@ public class UserService {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new ResourceNotFoundException("Usuário não encontrado"));
 
-        String newSalt = generateSalt();
-        String newPasswordHash = hashPassword(request.getNewPassword(), newSalt);
+        String newPasswordHash = passwordHasher.hash(request.getNewPassword());
 
-        user.setSalt(newSalt);
+        user.setSalt("");
         user.setPasswordHash(newPasswordHash);
         userRepository.save(user);
 
         // Revoga todos os refresh tokens
-        refreshTokenRepository.revokeAllByUserId(userId, LocalDateTime.now());
+        refreshTokenStore.revokeAllByUserId(userId);
 
         auditService.log("user_password_reset", "Senha resetada para usuário: " + user.getUsername(), null, userId);
 
@@ -218,24 +212,6 @@ public class UserService {
 
     // ========== Helper Methods ==========
 
-    private String generateSalt() {
-        SecureRandom random = new SecureRandom();
-        byte[] salt = new byte[64];
-        random.nextBytes(salt);
-        return Base64.getEncoder().encodeToString(salt);
-    }
-
-    private String hashPassword(String password, String salt) {
-        try {
-            MessageDigest digest = MessageDigest.getInstance("SHA-512");
-            digest.update(salt.getBytes(StandardCharsets.UTF_8));
-            byte[] hash = digest.digest(password.getBytes(StandardCharsets.UTF_8));
-            return HexFormat.of().formatHex(hash);
-        } catch (NoSuchAlgorithmException e) {
-            throw new RuntimeException("Erro ao gerar hash de senha", e);
-        }
-    }
-
     private UserResponse toUserResponse(User user) {
         return UserResponse.builder()
                 .userId(user.getUserId())
@@ -244,7 +220,7 @@ public class UserService {
                 .role(user.getRole().getValue())
                 .active(user.getActive())
                 .createdAt(user.getCreatedAt())
-                .lastLoginAt(user.getLastLoginAt())
+                .lastLoginAt(userActivityRecorder.lastLoginAt(user.getUserId()).orElse(user.getLastLoginAt()))
                 .build();
     }
 }
@@ -0,0 +1,75 @@
+package com.vaticano.paroquia.service.certificate;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+/**
+ * Dados de preenchimento de um certificado: acesso aos campos do pedido (sempre trim, nunca null)
+ * e data de emissão resolvida uma única vez.
+ */
+public final class CertificateData {
+
+    private static final String[] MONTH_NAMES = {
+            "Janeiro", "Fevereiro", "Marco", "Abril", "Maio", "Junho",
+            "Julho", "Agosto", "Setembro", "Outubro", "Novembro", "Dezembro"
+    };
+
+    private final Map<String, Object> values;
+    private final String day;
+    private final String month;
+    private final String year;
+
+    public CertificateData(Map<String, Object> values) {
+        this(values, LocalDate.now());
+    }
+
+    public CertificateData(Map<String, Object> values, LocalDate today) {
+        this.values = values;
+
+        // Data de emissão: a indicada no pedido, completada com a data atual
+        String day = value("dia");
+        String month = value("mes");
+        String year = value("ano");
+        this.day = day.isBlank() ? String.valueOf(today.getDayOfMonth()) : day;
+        this.month = month.isBlank() ? monthName(today.getMonthValue()) : month;
+        this.year = year.isBlank() ? String.valueOf(today.getYear()) : year;
+    }
+
+    /**
+     * Nome do mês (1-12) como aparece nos certificados.
+     */
+    public static String monthName(int month) {
+        return MONTH_NAMES[month - 1];
+    }
+
+    public String value(String key) {
+        if (values == null) return "";
+        Object raw = values.get(key);
+        return raw == null ? "" : String.valueOf(raw).trim();
+    }
+
+    public String valueOrDefault(String key, String fallback) {
+        String value = value(key);
+        return value.isBlank() ? fallback : value;
+    }
+
+    public boolean has(String key) {
+        return !value(key).isBlank();
+    }
+
+    public Map<String, Object> values() {
+        return values == null ? Map.of() : values;
+    }
+
+    public String day() {
+        return day;
+    }
+
+    public String month() {
+        return month;
+    }
+
+    public String year() {
+        return year;
+    }
+}
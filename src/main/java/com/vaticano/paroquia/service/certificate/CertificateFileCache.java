@@ -0,0 +1,240 @@
+package com.vaticano.paroquia.service.certificate;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+/**
+ * Cache em disco dos certificados gerados, endereçada pelo conteúdo.
+ *
+ * A chave é o SHA-256 de tipo, formato, versão dos modelos e dados normalizados (incluindo a data
+ * de emissão resolvida), por isso o mesmo certificado pedido duas vezes tem a mesma chave e serve
+ * também de ETag. O índice é um Caffeine limitado pelo tamanho total dos ficheiros; os ficheiros
+ * expulsos são apagados. No arranque o índice é reconstruído a partir da pasta.
+ *
+ * Os ficheiros são entregues já abertos (FileChannel): um ficheiro expulso e apagado enquanto é
+ * enviado continua legível através do canal até este ser fechado.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CertificateFileCache {
+
+    // Incrementar quando a geração de PDF/Word muda sem alterar os modelos
+    private static final int RENDER_REVISION = 2;
+
+    private final CertificateTemplates certificateTemplates;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.certificates.cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.certificates.cache.path:./certificates-cache}")
+    private String path;
+
+    @Value("${app.certificates.cache.max-size-mb:512}")
+    private long maxSizeMb;
+
+    private Path directory;
+    private Cache<String, CachedFile> index;
+
+    @PostConstruct
+    void init() {
+        if (!enabled) {
+            log.info("Cache de certificados em disco desativada");
+            return;
+        }
+
+        directory = Paths.get(path).toAbsolutePath().normalize();
+        index = Caffeine.newBuilder()
+                .maximumWeight(maxSizeMb * 1024 * 1024)
+                .weigher((String key, CachedFile file) -> (int) Math.min(Integer.MAX_VALUE, file.size()))
+                .removalListener((String key, CachedFile file, RemovalCause cause) -> {
+                    if (file != null && cause.wasEvicted()) {
+                        delete(file.path());
+                    }
+                })
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, index, "certificates-files");
+
+        try {
+            Files.createDirectories(directory);
+            loadIndex();
+        } catch (IOException e) {
+            log.warn("Cache de certificados indisponível em {}; certificados serão sempre gerados", directory, e);
+            index = null;
+        }
+    }
+
+    /**
+     * Chave (e ETag) de um certificado. Campos vazios são ignorados, porque geram o mesmo documento
+     * que campos ausentes.
+     */
+    public String key(String type, String format, CertificateData data, boolean withLogo) {
+        Map<String, String> normalized = new TreeMap<>();
+        data.values().forEach((field, value) -> {
+            String text = value == null ? "" : String.valueOf(value).trim();
+            if (!text.isEmpty()) {
+                normalized.put(field, text);
+            }
+        });
+
+        MessageDigest digest = sha256();
+        update(digest, String.valueOf(RENDER_REVISION));
+        update(digest, certificateTemplates.getVersion());
+        update(digest, type);
+        update(digest, format);
+        update(digest, String.valueOf(withLogo));
+        update(digest, data.day());
+        update(digest, data.month());
+        update(digest, data.year());
+        normalized.forEach((field, value) -> {
+            update(digest, field);
+            update(digest, value);
+        });
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * Ficheiro em cache para a chave, se existir, aberto para leitura. Quem o recebe fecha o canal.
+     */
+    public Optional<FileChannel> open(String key) {
+        if (index == null) return Optional.empty();
+
+        CachedFile file = index.getIfPresent(key);
+        if (file == null) return Optional.empty();
+        try {
+            return Optional.of(FileChannel.open(file.path(), StandardOpenOption.READ));
+        } catch (NoSuchFileException e) {
+            // Expulso entretanto ou apagado fora da aplicação
+            index.asMap().remove(key, file);
+            return Optional.empty();
+        } catch (IOException e) {
+            log.warn("Nao foi possivel abrir certificado da cache: {}", file.path(), e);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Gera o documento diretamente para um ficheiro da cache (temporário + move atómico) e devolve-o
+     * aberto para leitura, como open. Vazio se a cache estiver desativada ou o disco falhar: nesse
+     * caso o documento não foi gerado. Erros da geração são propagados.
+     */
+    public Optional<FileChannel> write(String key, String extension, StreamingResponseBody content) {
+        if (index == null) return Optional.empty();
+
+        Path target = directory.resolve(key.substring(0, 2)).resolve(key + "." + extension);
+        Path temp = null;
+        FileChannel channel = null;
+        try {
+            Files.createDirectories(target.getParent());
+            temp = Files.createTempFile(target.getParent(), key, ".tmp");
+            try (OutputStream outputStream = Files.newOutputStream(temp)) {
+                content.writeTo(outputStream);
+            }
+            // Aberto antes de entrar no índice: uma expulsão imediata não o apaga debaixo do pedido
+            channel = FileChannel.open(temp, StandardOpenOption.READ);
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            index.put(key, new CachedFile(target, channel.size()));
+            return Optional.of(channel);
+        } catch (IOException e) {
+            log.warn("Nao foi possivel gravar certificado em cache: {}", target, e);
+            close(channel);
+            return Optional.empty();
+        } catch (RuntimeException e) {
+            close(channel);
+            throw e;
+        } finally {
+            if (temp != null) delete(temp);
+        }
+    }
+
+    // ========== Helper Methods ==========
+
+    private void loadIndex() throws IOException {
+        try (Stream<Path> files = Files.walk(directory, 2)) {
+            files.filter(Files::isRegularFile).forEach(file -> {
+                String name = file.getFileName().toString();
+                int dot = name.lastIndexOf('.');
+                if (name.endsWith(".tmp") || dot <= 0) {
+                    // Restos de escritas interrompidas
+                    delete(file);
+                    return;
+                }
+                try {
+                    index.put(name.substring(0, dot), new CachedFile(file, Files.size(file)));
+                } catch (IOException e) {
+                    log.debug("Ficheiro ignorado na cache de certificados: {}", file, e);
+                }
+            });
+        }
+        log.info("Cache de certificados em {}: {} ficheiros", directory, index.estimatedSize());
+    }
+
+    private static void delete(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (NoSuchFileException e) {
+            // Já removido
+        } catch (IOException e) {
+            log.warn("Nao foi possivel apagar certificado da cache: {}", file, e);
+        }
+    }
+
+    private static void close(FileChannel channel) {
+        if (channel == null) return;
+        try {
+            channel.close();
+        } catch (IOException e) {
+            log.debug("Erro ao fechar certificado da cache", e);
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponível", e);
+        }
+    }
+
+    private static void update(MessageDigest digest, String value) {
+        // Prefixo de tamanho: ("ab", "c") e ("a", "bc") dão chaves diferentes
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        digest.update((byte) (bytes.length >>> 24));
+        digest.update((byte) (bytes.length >>> 16));
+        digest.update((byte) (bytes.length >>> 8));
+        digest.update((byte) bytes.length);
+        digest.update(bytes);
+    }
+
+    private record CachedFile(Path path, long size) {
+    }
+}
@@ -0,0 +1,109 @@
+package com.vaticano.paroquia.service.certificate;
+
+import lombok.Getter;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Modelo de um tipo de certificado: cabeçalho e sequência de parágrafos compostos por texto fixo
+ * e campos a preencher. É construído uma única vez no arranque (ver CertificateTemplates) e
+ * percorrido pelos geradores de HTML/PDF e DOCX, que só resolvem os valores dos campos.
+ */
+@Getter
+public final class CertificateTemplate {
+
+    private final String type;
+    private final String title;
+    private final String subtitle;  // Pode ser null
+    private final String wrapperClass;
+    private final List<Block> blocks;
+
+    public CertificateTemplate(String type, String title, String subtitle, String wrapperClass, List<Block> blocks) {
+        this.type = type;
+        this.title = title;
+        this.subtitle = subtitle;
+        this.wrapperClass = wrapperClass;
+        this.blocks = List.copyOf(blocks);
+    }
+
+    /**
+     * Bloco de nível superior do corpo.
+     */
+    public sealed interface Block permits Paragraph, Signature {
+    }
+
+    public record Paragraph(List<Segment> segments) implements Block {
+        public Paragraph {
+            segments = List.copyOf(segments);
+        }
+    }
+
+    /**
+     * Assinatura alinhada à direita: "O <cargo>", linha para assinar e nome do assinante.
+     */
+    public record Signature(Function<CertificateData, String> cargo,
+                            Function<CertificateData, String> assinante) implements Block {
+    }
+
+    /**
+     * Parte de um parágrafo.
+     */
+    public sealed interface Segment permits Text, Fill, Choice {
+    }
+
+    /**
+     * Texto fixo do modelo (não vem do pedido, não precisa de escape).
+     */
+    public record Text(String text) implements Segment {
+    }
+
+    /**
+     * Campo a preencher, sublinhado a pontilhado com a largura mínima da classe (short, mid, long, xlong).
+     */
+    public record Fill(Function<CertificateData, String> value, String sizeClass) implements Segment {
+    }
+
+    /**
+     * Alternativa resolvida por pedido (ex: data de baptismo completa ou dia/mês/ano separados).
+     */
+    public record Choice(Predicate<CertificateData> condition,
+                         List<Segment> whenTrue,
+                         List<Segment> whenFalse) implements Segment {
+        public Choice {
+            whenTrue = List.copyOf(whenTrue);
+            whenFalse = List.copyOf(whenFalse);
+        }
+
+        public List<Segment> select(CertificateData data) {
+            return condition.test(data) ? whenTrue : whenFalse;
+        }
+    }
+
+    // ========== DSL ==========
+
+    public static Paragraph p(Segment... segments) {
+        return new Paragraph(List.of(segments));
+    }
+
+    public static Text text(String text) {
+        return new Text(text);
+    }
+
+    public static Fill fill(String key, String sizeClass) {
+        return new Fill(data -> data.value(key), sizeClass);
+    }
+
+    public static Fill fill(Function<CertificateData, String> value, String sizeClass) {
+        return new Fill(value, sizeClass);
+    }
+
+    public static Choice choice(Predicate<CertificateData> condition, List<Segment> whenTrue, List<Segment> whenFalse) {
+        return new Choice(condition, whenTrue, whenFalse);
+    }
+
+    public static Signature signature() {
+        return new Signature(data -> data.value("cargo_assinante"), data -> data.value("assinante"));
+    }
+}
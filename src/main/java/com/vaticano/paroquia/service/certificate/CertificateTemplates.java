@@ -0,0 +1,429 @@
+package com.vaticano.paroquia.service.certificate;
+
+import com.vaticano.paroquia.service.certificate.CertificateTemplate.Block;
+import com.vaticano.paroquia.service.certificate.CertificateTemplate.Choice;
+import com.vaticano.paroquia.service.certificate.CertificateTemplate.Fill;
+import com.vaticano.paroquia.service.certificate.CertificateTemplate.Paragraph;
+import com.vaticano.paroquia.service.certificate.CertificateTemplate.Segment;
+import com.vaticano.paroquia.service.certificate.CertificateTemplate.Signature;
+import com.vaticano.paroquia.service.certificate.CertificateTemplate.Text;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDate;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import static com.vaticano.paroquia.service.certificate.CertificateTemplate.choice;
+import static com.vaticano.paroquia.service.certificate.CertificateTemplate.fill;
+import static com.vaticano.paroquia.service.certificate.CertificateTemplate.p;
+import static com.vaticano.paroquia.service.certificate.CertificateTemplate.signature;
+import static com.vaticano.paroquia.service.certificate.CertificateTemplate.text;
+
+/**
+ * Modelos de certificado compilados no arranque.
+ *
+ * O CSS, o logo (data URI) e todo o HTML fixo até ao início do corpo são calculados uma vez por tipo;
+ * cada pedido só percorre o modelo e preenche os campos.
+ */
+@Component
+@Slf4j
+public class CertificateTemplates {
+
+    private static final String SUBTITLE_ARQUIDIOCESE = "ARQUIDIOCESE DE MAPUTO - MOCAMBIQUE";
+
+    private static final String CSS = ""
+            + "@page { size: A4; margin: 20mm 18mm 20mm 22mm; }"
+            + "body { font-family: 'Times New Roman', serif; font-size: 12pt; line-height: 1.45; color: #111111; }"
+            + ".page { width: 100%; }"
+            + ".marriage { border-left: 2px solid #10366f; padding-left: 10mm; }"
+            + ".header { text-align: center; margin-bottom: 14pt; }"
+            + ".logo-wrap { text-align: center; margin-bottom: 6pt; height: 52px; }"
+            + ".logo { width: 48px; height: 48px; object-fit: contain; }"
+            + ".subtitle { font-size: 11.5pt; font-weight: 700; letter-spacing: 0.3px; margin-bottom: 3pt; color: #10366f; }"
+            + ".title { font-size: 18pt; font-weight: 700; letter-spacing: 0.5px; margin-bottom: 10pt; color: #10366f; }"
+            + "p { margin: 0 0 8pt 0; text-align: left; }"
+            + ".fill { display: inline-block; border-bottom: 1px dotted #1f2937; min-width: 70px; padding: 0 3px; }"
+            + ".fill.short { min-width: 48px; }"
+            + ".fill.mid { min-width: 120px; }"
+            + ".fill.long { min-width: 220px; }"
+            + ".fill.xlong { min-width: 300px; }"
+            + ".spacer { margin-top: 10pt; }"
+            + ".signature { margin-top: 24pt; text-align: right; }"
+            + ".sigline { display: inline-block; border-bottom: 1px dotted #1f2937; min-width: 230px; height: 18px; }";
+
+    private static final String HTML_SUFFIX = "</div></body></html>";
+
+    // Buffers maiores do que isto (dados anormais) não ficam retidos na thread
+    private static final int MAX_BUFFER_CHARS = 512 * 1024;
+
+    private final Map<String, Compiled> templates = new LinkedHashMap<>();
+    private final byte[] logoBytes;
+    private final String logoMimeType;
+    private final String version;
+
+    // Buffer reutilizado por thread, dimensionado para o maior prefixo mais o corpo
+    private final ThreadLocal<StringBuilder> buffers = ThreadLocal.withInitial(() -> new StringBuilder(bufferChars()));
+
+    public CertificateTemplates() {
+        Logo logo = loadLogo();
+        this.logoBytes = logo == null ? null : logo.bytes();
+        this.logoMimeType = logo == null ? null : logo.mimeType();
+
+        String logoHtml = logo == null ? "" : "<div class=\"logo-wrap\"><img class=\"logo\" src=\"data:" + logo.mimeType()
+                + ";base64," + Base64.getEncoder().encodeToString(logo.bytes()) + "\" alt=\"Logo\" width=\"48\" height=\"48\"/></div>";
+
+        for (CertificateTemplate template : List.of(baptism(), marriage(), confirmation(), declaration())) {
+            templates.put(template.getType(), new Compiled(template, htmlPrefix(template, logoHtml), htmlPrefix(template, "")));
+        }
+        this.version = computeVersion();
+        log.info("Modelos de certificado compilados: {} (logo: {})", templates.keySet(), logo == null ? "não" : "sim");
+    }
+
+    public Set<String> types() {
+        return templates.keySet();
+    }
+
+    public CertificateTemplate get(String type) {
+        Compiled compiled = templates.get(type);
+        return compiled == null ? null : compiled.template();
+    }
+
+    /**
+     * Impressão digital dos modelos (texto fixo, CSS e logo): muda sempre que um modelo muda,
+     * invalidando certificados guardados em cache.
+     */
+    public String getVersion() {
+        return version;
+    }
+
+    public boolean hasLogo() {
+        return logoBytes != null;
+    }
+
+    public byte[] getLogoBytes() {
+        return logoBytes;
+    }
+
+    public String getLogoMimeType() {
+        return logoMimeType;
+    }
+
+    /**
+     * Gera o XHTML completo do certificado (entrada do Flying Saucer).
+     */
+    public String renderHtml(String type, CertificateData data, boolean withLogo) {
+        Compiled compiled = templates.get(type);
+        String prefix = withLogo ? compiled.htmlPrefixWithLogo() : compiled.htmlPrefixWithoutLogo();
+
+        StringBuilder out = buffers.get();
+        if (out.capacity() > MAX_BUFFER_CHARS) {
+            out = new StringBuilder(prefix.length() + 8 * 1024);
+            buffers.set(out);
+        }
+        out.setLength(0);
+        out.append(prefix);
+        for (Block block : compiled.template().getBlocks()) {
+            switch (block) {
+                case Paragraph paragraph -> {
+                    out.append("<p>");
+                    appendSegments(out, paragraph.segments(), data);
+                    out.append("</p>");
+                }
+                case Signature signature -> {
+                    out.append("<div class=\"signature\"><p>O ");
+                    appendFill(out, signature.cargo().apply(data), "mid");
+                    out.append("</p><p><span class=\"sigline\"></span></p><p>");
+                    appendEscapedHtml(out, signature.assinante().apply(data));
+                    out.append("</p></div>");
+                }
+            }
+        }
+        out.append(HTML_SUFFIX);
+        return out.toString();
+    }
+
+    // ========== Helper Methods ==========
+
+    private void appendSegments(StringBuilder out, List<Segment> segments, CertificateData data) {
+        for (Segment segment : segments) {
+            switch (segment) {
+                case Text text -> out.append(text.text());
+                case Fill fill -> appendFill(out, fill.value().apply(data), fill.sizeClass());
+                case Choice choice -> appendSegments(out, choice.select(data), data);
+            }
+        }
+    }
+
+    private void appendFill(StringBuilder out, String value, String sizeClass) {
+        out.append("<span class=\"fill");
+        if (sizeClass != null && !sizeClass.isBlank()) {
+            out.append(' ').append(sizeClass);
+        }
+        out.append("\">");
+        int mark = out.length();
+        appendEscapedHtml(out, value);
+        if (isBlank(out, mark)) {
+            // Referência numérica: o XHTML não declara a entidade &nbsp; e o parser do Flying Saucer rejeita-a
+            out.setLength(mark);
+            out.append("&#160;");
+        }
+        out.append("</span>");
+    }
+
+    private int bufferChars() {
+        int prefix = 0;
+        for (Compiled compiled : templates.values()) {
+            prefix = Math.max(prefix, compiled.htmlPrefixWithLogo().length());
+        }
+        return prefix + HTML_SUFFIX.length() + 8 * 1024;
+    }
+
+    private static boolean isBlank(StringBuilder out, int from) {
+        for (int i = from; i < out.length(); i++) {
+            if (!Character.isWhitespace(out.charAt(i))) return false;
+        }
+        return true;
+    }
+
+    private String computeVersion() {
+        // Certificado vazio com data fixa: contém todo o texto fixo de cada modelo
+        CertificateData probe = new CertificateData(null, LocalDate.of(2000, 1, 1));
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (String type : templates.keySet()) {
+                digest.update(renderHtml(type, probe, true).getBytes(StandardCharsets.UTF_8));
+            }
+            return HexFormat.of().formatHex(digest.digest()).substring(0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponível", e);
+        }
+    }
+
+    private static String htmlPrefix(CertificateTemplate template, String logoHtml) {
+        String subtitle = template.getSubtitle() == null ? "" : "<div class=\"subtitle\">" + template.getSubtitle() + "</div>";
+        return "<html xmlns=\"http://www.w3.org/1999/xhtml\">"
+                + "<head><meta charset=\"UTF-8\"/>"
+                + "<style>" + CSS + "</style></head>"
+                + "<body><div class=\"" + template.getWrapperClass() + "\">"
+                + "<div class=\"header\">" + logoHtml + subtitle + "<div class=\"title\">" + escapeHtml(template.getTitle()) + "</div></div>";
+    }
+
+    static String escapeHtml(String value) {
+        StringBuilder out = new StringBuilder(value == null ? 0 : value.length() + 16);
+        appendEscapedHtml(out, value);
+        return out.toString();
+    }
+
+    /**
+     * Escreve value em out numa só passagem: descarta caracteres que o XML 1.0 não permite, ignora
+     * espaços e controlos nas pontas (como String.trim) e escapa as entidades HTML.
+     */
+    static void appendEscapedHtml(StringBuilder out, String value) {
+        if (value == null) return;
+
+        int start = 0;
+        int end = value.length();
+        while (start < end) {
+            int cp = value.codePointAt(start);
+            if (cp > ' ' && isXmlChar(cp)) break;
+            start += Character.charCount(cp);
+        }
+        while (end > start) {
+            int cp = value.codePointBefore(end);
+            if (cp > ' ' && isXmlChar(cp)) break;
+            end -= Character.charCount(cp);
+        }
+
+        for (int i = start; i < end; ) {
+            int cp = value.codePointAt(i);
+            i += Character.charCount(cp);
+            switch (cp) {
+                case '&' -> out.append("&amp;");
+                case '<' -> out.append("&lt;");
+                case '>' -> out.append("&gt;");
+                case '"' -> out.append("&quot;");
+                case '\'' -> out.append("&#39;");
+                default -> {
+                    if (isXmlChar(cp)) out.appendCodePoint(cp);
+                }
+            }
+        }
+    }
+
+    private static boolean isXmlChar(int cp) {
+        return cp == 0x9 || cp == 0xA || cp == 0xD
+                || (cp >= 0x20 && cp <= 0xD7FF)
+                || (cp >= 0xE000 && cp <= 0xFFFD)
+                || (cp >= 0x10000 && cp <= 0x10FFFF);
+    }
+
+    private static Logo loadLogo() {
+        try {
+            PathMatchingResourcePatternResolver resolver = new PathMatchingResourcePatternResolver();
+            Resource[] resources = resolver.getResources("classpath*:static/logo*");
+            if (resources.length == 0) return null;
+
+            Resource logo = resources[0];
+            byte[] bytes;
+            try (var inputStream = logo.getInputStream()) {
+                bytes = inputStream.readAllBytes();
+            }
+            String filename = logo.getFilename() == null ? "" : logo.getFilename().toLowerCase(Locale.ROOT);
+            String mimeType = "image/png";
+            if (filename.endsWith(".jpg") || filename.endsWith(".jpeg")) mimeType = "image/jpeg";
+            if (filename.endsWith(".svg")) mimeType = "image/svg+xml";
+
+            return new Logo(bytes, mimeType);
+        } catch (Exception ex) {
+            log.warn("Nao foi possivel carregar logo de resources/static para certificado", ex);
+            return null;
+        }
+    }
+
+    private record Logo(byte[] bytes, String mimeType) {}
+
+    private record Compiled(CertificateTemplate template, String htmlPrefixWithLogo, String htmlPrefixWithoutLogo) {}
+
+    // ========== Modelos ==========
+
+    private static Fill emissionPlace() {
+        return fill(data -> data.valueOrDefault("local_emissao", "Matola"), "mid");
+    }
+
+    private static Paragraph emissionDate() {
+        return p(emissionPlace(),
+                text(", aos "), fill(CertificateData::day, "short"),
+                text(" de "), fill(CertificateData::month, "mid"),
+                text(" de "), fill(CertificateData::year, "short"), text("."));
+    }
+
+    private static Paragraph officiant() {
+        return p(text("Padre "), fill("nome_oficiante", "xlong"), text(" da "), fill("paroquia", "xlong"), text("."));
+    }
+
+    private static CertificateTemplate baptism() {
+        Fill anoRegisto = fill(data -> data.valueOrDefault("ano_registo", data.year()), "short");
+
+        return new CertificateTemplate("batismo", "CERTIDAO DE BAPTISMO", SUBTITLE_ARQUIDIOCESE, "page", List.of(
+                officiant(),
+                p(text("CERTIFICO que as folhas "), fill("folha", "short"),
+                        text(" sob o n. "), fill("numero_assento", "mid"),
+                        text(" do Livro de Registo de Baptismos desta "), fill("paroquia", "long"),
+                        text(" referente ao ano de "), anoRegisto, text(".")),
+                p(text("Consta que "),
+                        choice(data -> data.has("data_baptismo"),
+                                List.of(text("no dia "), fill("data_baptismo", "mid")),
+                                List.of(text("no dia "), fill("dia_baptismo", "short"),
+                                        text(" do mes de "), fill("mes_baptismo", "mid"),
+                                        text(" do referido ano de "), anoRegisto)),
+                        text(" foi baptizado nesta "), fill("paroquia", "mid"),
+                        text(" um individuo do sexo "), fill("sexo", "mid"),
+                        text(" com o nome de "), fill("nome_baptizado", "xlong"), text(".")),
+                p(text("Nascido em "), fill("local_nascimento", "mid"),
+                        text(", distrito de "), fill("distrito", "mid"),
+                        text(", aos "), fill("dia_nascimento", "short"),
+                        text(" do mes de "), fill("mes_nascimento", "mid"),
+                        text(" do ano de "), fill("ano_nascimento", "short"), text(".")),
+                p(text("Filho de "), fill("nome_pai", "xlong"),
+                        text(", profissao "), fill("profissao_pai", "mid"),
+                        text(", natural de "), fill("naturalidade_pai", "mid"), text(".")),
+                p(text("E de "), fill("nome_mae", "xlong"),
+                        text(", profissao "), fill("profissao_mae", "mid"),
+                        text(", natural de "), fill("naturalidade_mae", "mid"), text(".")),
+                p(text("Neto paterno de "), fill("avo_paterno", "xlong"),
+                        text(" e materno de "), fill("avo_materno", "xlong"), text(".")),
+                p(text("Foram padrinhos: "), fill("nome_padrinho", "xlong"),
+                        text(" (estado "), fill("estado_padrinho", "mid"),
+                        text(", profissao "), fill("profissao_padrinho", "mid"), text(")")),
+                p(text("E "), fill("nome_madrinha", "xlong"),
+                        text(" (estado "), fill("estado_madrinha", "mid"),
+                        text(", profissao "), fill("profissao_madrinha", "mid"), text(").")),
+                p(text("A margem: "), fill("anotacoes", "xlong")),
+                p(text("Por ser verdade passo a presente Certidao que vou assinar e autenticar com o "),
+                        fill("autenticacao", "mid"),
+                        text(" em uso nesta "), fill("paroquia", "mid"), text(".")),
+                emissionDate(),
+                signature()
+        ));
+    }
+
+    private static CertificateTemplate marriage() {
+        return new CertificateTemplate("casamento", "CERTIDAO DE CASAMENTO", null, "page marriage", List.of(
+                officiant(),
+                p(text("CERTIFICO que das folhas "), fill("folha", "short"),
+                        text(" sob o n. "), fill("numero_registo", "mid"),
+                        text(" do Livro de Registo de Casamentos celebrados nesta "), fill("paroquia", "long"),
+                        text(" referentes ao ano de "), fill("ano", "short"), text(".")),
+                p(text("Consta que no dia "), fill(CertificateData::day, "short"),
+                        text(" do mes de "), fill(CertificateData::month, "mid"),
+                        text(" do ano de "), fill(CertificateData::year, "short"),
+                        text(" foi celebrado o casamento canonico de "), fill("nome_noivo", "xlong"), text(".")),
+                p(text("Filho de "), fill("pai_noivo", "xlong"),
+                        text(" e de "), fill("mae_noivo", "xlong"), text(".")),
+                p(text("Com "), fill("nome_noiva", "xlong"),
+                        text(", filha de "), fill("pai_noiva", "xlong"),
+                        text(" e de "), fill("mae_noiva", "xlong"), text(".")),
+                p(text("Sendo oficiante "), fill("nome_oficiante", "xlong"), text(".")),
+                p(text("Foram testemunhas "), fill("nome_testemunha_1", "xlong"),
+                        text(" e "), fill("nome_testemunha_2", "xlong"), text(".")),
+                p(text("Por ser verdade, passo a presente certidao que assino e autentico com o "),
+                        fill("autenticacao", "mid"), text(".")),
+                emissionDate(),
+                signature()
+        ));
+    }
+
+    private static CertificateTemplate confirmation() {
+        return new CertificateTemplate("crisma", "CERTIDAO DE CRISMA", SUBTITLE_ARQUIDIOCESE, "page", List.of(
+                officiant(),
+                p(text("CERTIFICO que as folhas "), fill("folha", "short"),
+                        text(" sob o n. "), fill("numero_assento", "mid"),
+                        text(" do Livro de Registo de Crismas desta "), fill("paroquia", "long"),
+                        text(" referente ao ano de "), fill(data -> data.valueOrDefault("ano_registo", data.year()), "short"),
+                        text(".")),
+                p(text("Consta que no dia "), fill("data_crisma", "mid"),
+                        text(" recebeu o sacramento do Crisma nesta "), fill("paroquia", "mid"),
+                        text(" "), fill("nome_crismado", "xlong"), text(".")),
+                p(text("Filho de "), fill("nome_pai", "xlong"),
+                        text(" e de "), fill("nome_mae", "xlong"), text(".")),
+                p(text("Baptizado no dia "), fill("data_baptismo", "mid"),
+                        text(" na "), fill("paroquia_baptismo", "long"), text(".")),
+                p(text("Foi ministro do sacramento "), fill("ministro", "xlong"), text(".")),
+                p(text("Foi padrinho "), fill("nome_padrinho", "xlong"), text(".")),
+                p(text("A margem: "), fill("anotacoes", "xlong")),
+                p(text("Por ser verdade passo a presente Certidao que vou assinar e autenticar com o "),
+                        fill("autenticacao", "mid"),
+                        text(" em uso nesta "), fill("paroquia", "mid"), text(".")),
+                emissionDate(),
+                signature()
+        ));
+    }
+
+    private static CertificateTemplate declaration() {
+        return new CertificateTemplate("declaracao", "DECLARACAO", SUBTITLE_ARQUIDIOCESE, "page", List.of(
+                officiant(),
+                p(text("DECLARA, para os devidos efeitos, que "), fill("nome", "xlong"),
+                        text(", filho de "), fill("nome_pai", "xlong"),
+                        text(" e de "), fill("nome_mae", "xlong"),
+                        text(", e membro desta "), fill("paroquia", "long"),
+                        text(", na comunidade de "), fill("comunidade", "long"), text(".")),
+                p(text("Finalidade: "), fill("finalidade", "xlong")),
+                p(text("Por ser verdade passo a presente declaracao que vou assinar e autenticar com o "),
+                        fill("autenticacao", "mid"),
+                        text(" em uso nesta "), fill("paroquia", "mid"), text(".")),
+                emissionDate(),
+                signature()
+        ));
+    }
+}
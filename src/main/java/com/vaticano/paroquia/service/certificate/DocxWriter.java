@@ -0,0 +1,259 @@
+package com.vaticano.paroquia.service.certificate;
+
+import com.vaticano.paroquia.service.certificate.CertificateTemplate.Block;
+import com.vaticano.paroquia.service.certificate.CertificateTemplate.Choice;
+import com.vaticano.paroquia.service.certificate.CertificateTemplate.Fill;
+import com.vaticano.paroquia.service.certificate.CertificateTemplate.Paragraph;
+import com.vaticano.paroquia.service.certificate.CertificateTemplate.Segment;
+import com.vaticano.paroquia.service.certificate.CertificateTemplate.Signature;
+import com.vaticano.paroquia.service.certificate.CertificateTemplate.Text;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Gera certificados em .docx (OOXML) a partir dos mesmos modelos do PDF.
+ *
+ * As partes fixas do pacote (tipos de conteúdo, relações, estilos e cabeçalho de cada modelo) são
+ * calculadas no arranque; por pedido só o corpo de word/document.xml é escrito, diretamente no
+ * ZipOutputStream, sem DOM nem o documento inteiro em memória.
+ */
+@Component
+public class DocxWriter {
+
+    public static final String CONTENT_TYPE = "application/vnd.openxmlformats-officedocument.wordprocessingml.document";
+
+    private static final String XML_HEADER = "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n";
+    private static final String NS_W = "http://schemas.openxmlformats.org/wordprocessingml/2006/main";
+    private static final String NS_RELATIONSHIPS = "http://schemas.openxmlformats.org/package/2006/relationships";
+    private static final String REL_TYPE = "http://schemas.openxmlformats.org/officeDocument/2006/relationships/";
+
+    private static final String COLOR_TITLE = "10366F";
+    private static final char NBSP = '\u00A0';
+    private static final int SIGNATURE_LINE_CHARS = 36;
+
+    // Largura mínima dos campos em caracteres (equivalente às classes .fill do CSS)
+    private static final Map<String, Integer> FILL_WIDTHS = Map.of("short", 6, "mid", 15, "long", 28, "xlong", 38);
+    private static final int DEFAULT_FILL_WIDTH = 9;
+
+    // Logo com 48px de lado, como no PDF (1px = 9525 EMU)
+    private static final long LOGO_EMU = 48L * 9525;
+
+    private static final String SECTION = "<w:sectPr><w:pgSz w:w=\"11906\" w:h=\"16838\"/>"
+            + "<w:pgMar w:top=\"1134\" w:right=\"1021\" w:bottom=\"1134\" w:left=\"1247\" w:header=\"709\" w:footer=\"709\" w:gutter=\"0\"/>"
+            + "</w:sectPr></w:body></w:document>";
+
+    // Barra azul à esquerda da certidão de casamento (.marriage no CSS)
+    private static final String MARRIAGE_BORDER = "<w:pBdr><w:left w:val=\"single\" w:sz=\"12\" w:space=\"14\" w:color=\"" + COLOR_TITLE + "\"/></w:pBdr>";
+
+    private final CertificateTemplates certificateTemplates;
+    private final byte[] logoBytes;  // null se não houver logo utilizável no Word
+    private final String logoExtension;
+    private final String contentTypesXml;
+    private final String packageRelsXml;
+    private final String documentRelsXml;
+    private final String stylesXml;
+    private final Map<String, String> documentHeaders = new LinkedHashMap<>();
+
+    public DocxWriter(CertificateTemplates certificateTemplates) {
+        this.certificateTemplates = certificateTemplates;
+
+        // O Word não mostra SVG sem alternativa em PNG: nesse caso o documento sai sem logo
+        String mimeType = certificateTemplates.getLogoMimeType();
+        boolean usableLogo = certificateTemplates.hasLogo()
+                && ("image/png".equals(mimeType) || "image/jpeg".equals(mimeType));
+        this.logoBytes = usableLogo ? certificateTemplates.getLogoBytes() : null;
+        this.logoExtension = "image/jpeg".equals(mimeType) ? "jpeg" : "png";
+
+        this.contentTypesXml = XML_HEADER
+                + "<Types xmlns=\"http://schemas.openxmlformats.org/package/2006/content-types\">"
+                + "<Default Extension=\"rels\" ContentType=\"application/vnd.openxmlformats-package.relationships+xml\"/>"
+                + "<Default Extension=\"xml\" ContentType=\"application/xml\"/>"
+                + (logoBytes == null ? "" : "<Default Extension=\"" + logoExtension + "\" ContentType=\"" + mimeType + "\"/>")
+                + "<Override PartName=\"/word/document.xml\" ContentType=\"application/vnd.openxmlformats-officedocument.wordprocessingml.document.main+xml\"/>"
+                + "<Override PartName=\"/word/styles.xml\" ContentType=\"application/vnd.openxmlformats-officedocument.wordprocessingml.styles+xml\"/>"
+                + "</Types>";
+        this.packageRelsXml = XML_HEADER
+                + "<Relationships xmlns=\"" + NS_RELATIONSHIPS + "\">"
+                + "<Relationship Id=\"rId1\" Type=\"" + REL_TYPE + "officeDocument\" Target=\"word/document.xml\"/>"
+                + "</Relationships>";
+        this.documentRelsXml = XML_HEADER
+                + "<Relationships xmlns=\"" + NS_RELATIONSHIPS + "\">"
+                + "<Relationship Id=\"rId1\" Type=\"" + REL_TYPE + "styles\" Target=\"styles.xml\"/>"
+                + (logoBytes == null ? "" : "<Relationship Id=\"rId2\" Type=\"" + REL_TYPE + "image\" Target=\"media/logo." + logoExtension + "\"/>")
+                + "</Relationships>";
+        this.stylesXml = XML_HEADER
+                + "<w:styles xmlns:w=\"" + NS_W + "\"><w:docDefaults>"
+                + "<w:rPrDefault><w:rPr><w:rFonts w:ascii=\"Times New Roman\" w:hAnsi=\"Times New Roman\" w:eastAsia=\"Times New Roman\" w:cs=\"Times New Roman\"/>"
+                + "<w:color w:val=\"111111\"/><w:sz w:val=\"24\"/><w:szCs w:val=\"24\"/><w:lang w:val=\"pt-PT\"/></w:rPr></w:rPrDefault>"
+                + "<w:pPrDefault><w:pPr><w:spacing w:before=\"0\" w:after=\"160\" w:line=\"348\" w:lineRule=\"auto\"/></w:pPr></w:pPrDefault>"
+                + "</w:docDefaults>"
+                + "<w:style w:type=\"paragraph\" w:default=\"1\" w:styleId=\"Normal\"><w:name w:val=\"Normal\"/><w:qFormat/></w:style>"
+                + "</w:styles>";
+
+        for (String type : certificateTemplates.types()) {
+            documentHeaders.put(type, documentHeader(certificateTemplates.get(type)));
+        }
+    }
+
+    /**
+     * Escreve o .docx em outputStream. O stream não é fechado.
+     */
+    public void write(String type, CertificateData data, OutputStream outputStream) throws IOException {
+        CertificateTemplate template = certificateTemplates.get(type);
+        ZipOutputStream zip = new ZipOutputStream(outputStream, StandardCharsets.UTF_8);
+        Writer writer = new BufferedWriter(new OutputStreamWriter(zip, StandardCharsets.UTF_8));
+
+        writePart(zip, writer, "[Content_Types].xml", contentTypesXml);
+        writePart(zip, writer, "_rels/.rels", packageRelsXml);
+        writePart(zip, writer, "word/_rels/document.xml.rels", documentRelsXml);
+        writePart(zip, writer, "word/styles.xml", stylesXml);
+        if (logoBytes != null) {
+            zip.putNextEntry(new ZipEntry("word/media/logo." + logoExtension));
+            zip.write(logoBytes);
+            zip.closeEntry();
+        }
+
+        zip.putNextEntry(new ZipEntry("word/document.xml"));
+        writer.write(documentHeaders.get(type));
+        boolean marriage = template.getWrapperClass().contains("marriage");
+        for (Block block : template.getBlocks()) {
+            switch (block) {
+                case Paragraph paragraph -> {
+                    writer.write("<w:p>");
+                    if (marriage) writer.write("<w:pPr>" + MARRIAGE_BORDER + "</w:pPr>");
+                    writeSegments(writer, paragraph.segments(), data);
+                    writer.write("</w:p>");
+                }
+                case Signature signature -> {
+                    writer.write("<w:p><w:pPr><w:spacing w:before=\"480\"/><w:jc w:val=\"right\"/></w:pPr>");
+                    writeText(writer, "O ");
+                    writeFill(writer, signature.cargo().apply(data), "mid");
+                    writer.write("</w:p><w:p><w:pPr><w:jc w:val=\"right\"/></w:pPr>");
+                    writeFill(writer, "", null, SIGNATURE_LINE_CHARS);
+                    writer.write("</w:p><w:p><w:pPr><w:jc w:val=\"right\"/></w:pPr>");
+                    writeText(writer, signature.assinante().apply(data));
+                    writer.write("</w:p>");
+                }
+            }
+        }
+        writer.write(SECTION);
+        writer.flush();
+        zip.closeEntry();
+
+        // finish e não close: o stream de destino continua aberto
+        zip.finish();
+    }
+
+    // ========== Helper Methods ==========
+
+    private void writePart(ZipOutputStream zip, Writer writer, String name, String content) throws IOException {
+        zip.putNextEntry(new ZipEntry(name));
+        writer.write(content);
+        writer.flush();
+        zip.closeEntry();
+    }
+
+    private void writeSegments(Writer writer, List<Segment> segments, CertificateData data) throws IOException {
+        for (Segment segment : segments) {
+            switch (segment) {
+                case Text text -> writeText(writer, text.text());
+                case Fill fill -> writeFill(writer, fill.value().apply(data), fill.sizeClass());
+                case Choice choice -> writeSegments(writer, choice.select(data), data);
+            }
+        }
+    }
+
+    private void writeText(Writer writer, String text) throws IOException {
+        if (text == null || text.isEmpty()) return;
+        writer.write("<w:r><w:t xml:space=\"preserve\">");
+        writeEscaped(writer, text);
+        writer.write("</w:t></w:r>");
+    }
+
+    private void writeFill(Writer writer, String value, String sizeClass) throws IOException {
+        writeFill(writer, value, sizeClass, FILL_WIDTHS.getOrDefault(sizeClass, DEFAULT_FILL_WIDTH));
+    }
+
+    /**
+     * Campo sublinhado a pontilhado, completado com espaços inseparáveis até à largura mínima.
+     */
+    private void writeFill(Writer writer, String value, String sizeClass, int minChars) throws IOException {
+        String text = value == null ? "" : value.trim();
+        writer.write("<w:r><w:rPr><w:u w:val=\"dotted\"/></w:rPr><w:t xml:space=\"preserve\">");
+        writer.write(NBSP);
+        writeEscaped(writer, text);
+        for (int i = text.length() + 1; i < minChars; i++) {
+            writer.write(NBSP);
+        }
+        writer.write(NBSP);
+        writer.write("</w:t></w:r>");
+    }
+
+    /**
+     * Escape de texto XML, descartando caracteres que o XML 1.0 não permite.
+     */
+    private static void writeEscaped(Writer writer, String text) throws IOException {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '&' -> writer.write("&amp;");
+                case '<' -> writer.write("&lt;");
+                case '>' -> writer.write("&gt;");
+                default -> {
+                    if (Character.isHighSurrogate(c) && i + 1 < text.length() && Character.isLowSurrogate(text.charAt(i + 1))) {
+                        writer.write(c);
+                        writer.write(text.charAt(++i));
+                    } else if (c == 0x9 || c == 0xA || c == 0xD
+                            || (c >= 0x20 && c <= 0xD7FF)
+                            || (c >= 0xE000 && c <= 0xFFFD)) {
+                        writer.write(c);
+                    }
+                }
+            }
+        }
+    }
+
+    private String documentHeader(CertificateTemplate template) {
+        StringBuilder out = new StringBuilder(2048);
+        out.append(XML_HEADER)
+                .append("<w:document xmlns:w=\"").append(NS_W).append("\"")
+                .append(" xmlns:r=\"http://schemas.openxmlformats.org/officeDocument/2006/relationships\"")
+                .append(" xmlns:wp=\"http://schemas.openxmlformats.org/drawingml/2006/wordprocessingDrawing\"")
+                .append(" xmlns:a=\"http://schemas.openxmlformats.org/drawingml/2006/main\"")
+                .append(" xmlns:pic=\"http://schemas.openxmlformats.org/drawingml/2006/picture\">")
+                .append("<w:body>");
+
+        if (logoBytes != null) {
+            out.append("<w:p><w:pPr><w:spacing w:after=\"120\"/><w:jc w:val=\"center\"/></w:pPr><w:r><w:drawing>")
+                    .append("<wp:inline distT=\"0\" distB=\"0\" distL=\"0\" distR=\"0\">")
+                    .append("<wp:extent cx=\"").append(LOGO_EMU).append("\" cy=\"").append(LOGO_EMU).append("\"/>")
+                    .append("<wp:docPr id=\"1\" name=\"Logo\"/>")
+                    .append("<a:graphic><a:graphicData uri=\"http://schemas.openxmlformats.org/drawingml/2006/picture\">")
+                    .append("<pic:pic><pic:nvPicPr><pic:cNvPr id=\"1\" name=\"logo.").append(logoExtension).append("\"/><pic:cNvPicPr/></pic:nvPicPr>")
+                    .append("<pic:blipFill><a:blip r:embed=\"rId2\"/><a:stretch><a:fillRect/></a:stretch></pic:blipFill>")
+                    .append("<pic:spPr><a:xfrm><a:off x=\"0\" y=\"0\"/><a:ext cx=\"").append(LOGO_EMU).append("\" cy=\"").append(LOGO_EMU).append("\"/></a:xfrm>")
+                    .append("<a:prstGeom prst=\"rect\"><a:avLst/></a:prstGeom></pic:spPr></pic:pic>")
+                    .append("</a:graphicData></a:graphic></wp:inline></w:drawing></w:r></w:p>");
+        }
+        if (template.getSubtitle() != null) {
+            out.append("<w:p><w:pPr><w:spacing w:after=\"60\"/><w:jc w:val=\"center\"/></w:pPr>")
+                    .append("<w:r><w:rPr><w:b/><w:color w:val=\"").append(COLOR_TITLE).append("\"/><w:sz w:val=\"23\"/><w:szCs w:val=\"23\"/></w:rPr>")
+                    .append("<w:t>").append(template.getSubtitle()).append("</w:t></w:r></w:p>");
+        }
+        out.append("<w:p><w:pPr><w:spacing w:after=\"480\"/><w:jc w:val=\"center\"/></w:pPr>")
+                .append("<w:r><w:rPr><w:b/><w:color w:val=\"").append(COLOR_TITLE).append("\"/><w:sz w:val=\"36\"/><w:szCs w:val=\"36\"/></w:rPr>")
+                .append("<w:t>").append(template.getTitle()).append("</w:t></w:r></w:p>");
+        return out.toString();
+    }
+}
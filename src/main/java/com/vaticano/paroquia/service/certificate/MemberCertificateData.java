@@ -0,0 +1,68 @@
+package com.vaticano.paroquia.service.certificate;
+
+import com.vaticano.paroquia.domain.entity.Member;
+import com.vaticano.paroquia.util.NameMatchUtil;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Campos de certificado preenchidos a partir do registo de um membro.
+ */
+public final class MemberCertificateData {
+
+    private static final Pattern ISO_DATE = Pattern.compile("\\d{4}-\\d{2}-\\d{2}");
+
+    private MemberCertificateData() {
+    }
+
+    /**
+     * Os campos comuns do pedido (paroquia, assinante, ...) servem de base e o registo
+     * sobrepõe-se quando tem valor.
+     */
+    public static Map<String, Object> from(Member member, Map<String, Object> common) {
+        Map<String, Object> data = common == null ? new HashMap<>() : new HashMap<>(common);
+        putIfPresent(data, "nome_baptizado", member.getNomeCompleto());
+        putIfPresent(data, "nome_crismado", member.getNomeCompleto());
+        putIfPresent(data, "nome", member.getNomeCompleto());
+        putIfPresent(data, "comunidade", member.getComunidade());
+        putIfPresent(data, "data_baptismo", member.getDataBaptismo());
+        putIfPresent(data, "data_crisma", member.getDataCrisma());
+        putIfPresent(data, "local_nascimento", member.getNaturalidade());
+        putIfPresent(data, "nome_pai", member.getNomePai());
+        putIfPresent(data, "naturalidade_pai", member.getNaturalidadePai());
+        putIfPresent(data, "nome_mae", member.getNomeMae());
+        putIfPresent(data, "avo_paterno", member.getAvosPaternos());
+        putIfPresent(data, "avo_materno", member.getAvosMaternos());
+        putIfPresent(data, "nome_padrinho", member.getNomePadrinho());
+        putIfPresent(data, "estado_padrinho", member.getEstadoCivilPadrinho());
+        putIfPresent(data, "profissao_padrinho", member.getProfissaoPadrinho());
+        putIfPresent(data, "nome_madrinha", member.getNomeMadrinha());
+        putIfPresent(data, "estado_madrinha", member.getEstadoCivilMadrinha());
+        putIfPresent(data, "profissao_madrinha", member.getProfissaoMadrinha());
+        putIfPresent(data, "numero_assento", member.getNumeroAssento());
+
+        // Data de nascimento em dia / mês por extenso / ano, quando reconhecida
+        String birthDate = NameMatchUtil.canonicalDate(member.getDataNascimento());
+        if (ISO_DATE.matcher(birthDate).matches()) {
+            try {
+                LocalDate date = LocalDate.parse(birthDate);
+                data.put("dia_nascimento", String.valueOf(date.getDayOfMonth()));
+                data.put("mes_nascimento", CertificateData.monthName(date.getMonthValue()));
+                data.put("ano_nascimento", String.valueOf(date.getYear()));
+            } catch (DateTimeParseException e) {
+                // Data impossível (ex: 31/02): o campo fica por preencher
+            }
+        }
+        return data;
+    }
+
+    private static void putIfPresent(Map<String, Object> data, String key, String value) {
+        if (value != null && !value.isBlank()) {
+            data.put(key, value.trim());
+        }
+    }
+}
@@ -0,0 +1,410 @@
+package com.vaticano.paroquia.service.certificate;
+
+import com.vaticano.paroquia.exception.BadRequestException;
+import com.vaticano.paroquia.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.xhtmlrenderer.pdf.ITextRenderer;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Geração de PDFs de certificados num pool dedicado de tamanho fixo.
+ *
+ * - Os threads dos pedidos HTTP só esperam pelo resultado; o layout do Flying Saucer corre nos workers.
+ * - Fila limitada: quando está cheia o pedido é rejeitado de imediato (503) em vez de acumular memória.
+ * - Cada worker reutiliza o seu ITextRenderer (resolução de fontes, user agent e cache de imagens),
+ *   recriado ao fim de MAX_RENDERS_PER_RENDERER documentos ou após um erro.
+ * - O logo é validado uma vez no arranque: se o renderizador não o aceitar, os certificados saem
+ *   sem logo, sem tentar duas vezes por pedido.
+ * - Quem espera pode desistir (timeout ou cancel no future). O layout em curso não é interrompível,
+ *   mas o worker verifica a desistência antes de começar, depois do layout, entre documentos e em
+ *   cada escrita no destino: a partir daí nada mais é escrito e o worker fica livre.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class PdfRenderEngine {
+
+    private static final int MAX_RENDERS_PER_RENDERER = 500;
+    private static final long RETRY_AFTER_SECONDS = 5;
+    private static final int INITIAL_BUFFER_BYTES = 64 * 1024;
+    private static final int OUTPUT_BUFFER_BYTES = 16 * 1024;
+
+    private final CertificateTemplates certificateTemplates;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.certificates.render.threads:0}")
+    private int threads;  // 0 = número de processadores
+
+    @Value("${app.certificates.render.queue-capacity:32}")
+    private int queueCapacity;
+
+    @Value("${app.certificates.render.timeout:30s}")
+    private Duration timeout;
+
+    private final ThreadLocal<PooledRenderer> renderers = new ThreadLocal<>();
+
+    private ThreadPoolExecutor executor;
+    private Counter rejectedCounter;
+    private volatile boolean logoEnabled;
+
+    @PostConstruct
+    void start() {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadNumber = new AtomicInteger();
+        executor = new ThreadPoolExecutor(
+                poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "cert-pdf-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+
+        rejectedCounter = Counter.builder("certificates.render.rejected")
+                .description("Pedidos de PDF rejeitados por fila cheia")
+                .register(meterRegistry);
+        Gauge.builder("certificates.render.queue.size", executor, e -> e.getQueue().size())
+                .description("PDFs à espera de um worker")
+                .register(meterRegistry);
+        Gauge.builder("certificates.render.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("PDFs em geração")
+                .register(meterRegistry);
+
+        logoEnabled = certificateTemplates.hasLogo() && validateLogo();
+        log.info("Motor de PDF de certificados: {} workers, fila {}, logo {}",
+                poolSize, queueCapacity, logoEnabled ? "ativo" : "inativo");
+    }
+
+    @PreDestroy
+    void stop() {
+        executor.shutdown();
+    }
+
+    public boolean isLogoEnabled() {
+        return logoEnabled;
+    }
+
+    public Duration getTimeout() {
+        return timeout;
+    }
+
+    /**
+     * Número de workers; usado para limitar quantos documentos um lote mantém em curso.
+     */
+    public int getPoolSize() {
+        return executor.getCorePoolSize();
+    }
+
+    /**
+     * Gera o PDF e espera pelo resultado (no máximo app.certificates.render.timeout).
+     */
+    public byte[] render(String type, CertificateData data) {
+        return await(submit(type, data, logoEnabled));
+    }
+
+    /**
+     * Gera o PDF diretamente para outputStream (ficheiro da cache ou resposta HTTP), sem o
+     * guardar em memória, e espera que termine. O stream não é fechado.
+     */
+    public void renderTo(String type, CertificateData data, OutputStream outputStream) {
+        await(submitTo(type, data, logoEnabled, outputStream));
+    }
+
+    /**
+     * Coloca a geração na fila. Lança ServiceUnavailableException se a fila estiver cheia.
+     */
+    public CompletableFuture<byte[]> submit(String type, CertificateData data, boolean withLogo) {
+        long queuedAt = System.nanoTime();
+        return enqueue(fence -> {
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream(INITIAL_BUFFER_BYTES);
+            renderOnWorker(type, data, withLogo, queuedAt, outputStream, fence);
+            return outputStream.toByteArray();
+        });
+    }
+
+    /**
+     * Como submit, mas o PDF é escrito em outputStream à medida que é gerado.
+     */
+    public CompletableFuture<Void> submitTo(String type, CertificateData data, boolean withLogo, OutputStream outputStream) {
+        long queuedAt = System.nanoTime();
+        return enqueue(fence -> {
+            renderOnWorker(type, data, withLogo, queuedAt, outputStream, fence);
+            return null;
+        });
+    }
+
+    /**
+     * Gera um PDF com vários documentos XHTML seguidos, cada um a começar numa página nova, e espera
+     * que termine. Os documentos são pedidos ao iterador um de cada vez e escritos à medida que são
+     * paginados, por isso só um está em memória. Usado para relatórios longos, que têm o seu próprio
+     * timeout; subject completa as mensagens de erro ("do relatório").
+     */
+    public void renderDocumentsTo(String name, Iterator<String> documents, OutputStream outputStream,
+                                  Duration timeout, String subject) {
+        long queuedAt = System.nanoTime();
+        await(enqueue(fence -> {
+            renderDocumentsOnWorker(name, documents, queuedAt, outputStream, fence);
+            return null;
+        }), timeout, subject);
+    }
+
+    /**
+     * Espera pelo resultado de submit, convertendo falhas nas exceções da API.
+     */
+    public <T> T await(Future<T> future) {
+        return await(future, timeout, "do certificado");
+    }
+
+    /**
+     * Espera no máximo timeout. Ao desistir cancela o future: o worker deixa de escrever no destino
+     * e abandona a geração no próximo ponto de controlo. subject completa as mensagens ("do relatório").
+     */
+    public <T> T await(Future<T> future, Duration timeout, String subject) {
+        try {
+            return future.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            throw new ServiceUnavailableException(
+                    "O PDF " + subject + " não ficou pronto a tempo. Tente novamente dentro de instantes", RETRY_AFTER_SECONDS);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException("Espera pelo PDF " + subject + " interrompida", RETRY_AFTER_SECONDS);
+        } catch (ExecutionException e) {
+            log.error("Erro ao gerar PDF {}", subject, unwrap(e));
+            throw new BadRequestException("Nao foi possivel gerar o PDF " + subject);
+        }
+    }
+
+    /**
+     * Causa real de uma falha devolvida por um future de submit.
+     */
+    public static Throwable unwrap(Throwable error) {
+        Throwable cause = error;
+        while ((cause instanceof CompletionException || cause instanceof ExecutionException) && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause;
+    }
+
+    // ========== Helper Methods ==========
+
+    private <T> CompletableFuture<T> enqueue(Function<Fence, T> task) {
+        Fence fence = new Fence();
+        CompletableFuture<T> future = new CompletableFuture<>() {
+            @Override
+            public boolean cancel(boolean mayInterruptIfRunning) {
+                // CompletableFuture não interrompe o worker: é o fence que o faz parar
+                fence.close();
+                return super.cancel(mayInterruptIfRunning);
+            }
+        };
+        try {
+            executor.execute(() -> {
+                if (fence.isClosed()) return;  // desistiram enquanto estava na fila
+                try {
+                    future.complete(task.apply(fence));
+                } catch (Throwable e) {
+                    future.completeExceptionally(e);
+                }
+            });
+            return future;
+        } catch (RejectedExecutionException e) {
+            rejectedCounter.increment();
+            throw new ServiceUnavailableException(
+                    "Servidor ocupado a gerar certificados. Tente novamente dentro de instantes", RETRY_AFTER_SECONDS);
+        }
+    }
+
+    private void renderOnWorker(String type, CertificateData data, boolean withLogo, long queuedAt,
+                                OutputStream target, Fence fence) {
+        long start = recordQueueWait(queuedAt);
+        String outcome = "success";
+        try {
+            fence.check();
+            ITextRenderer renderer = acquireRenderer();
+            String html = certificateTemplates.renderHtml(type, data, withLogo);
+            renderer.setDocumentFromString(html);
+            renderer.layout();
+
+            fence.check();
+            OutputStream outputStream = nonClosing(fence.guard(target));
+            renderer.createPDF(outputStream);
+            outputStream.flush();
+        } catch (Exception e) {
+            // Estado do renderizador incerto após um erro: o próximo documento usa um novo
+            renderers.remove();
+            outcome = fence.isClosed() ? "cancelled" : "failure";
+            throw new CompletionException(e);
+        } finally {
+            recordRender(type, outcome, start);
+        }
+    }
+
+    private void renderDocumentsOnWorker(String name, Iterator<String> documents, long queuedAt,
+                                         OutputStream target, Fence fence) {
+        long start = recordQueueWait(queuedAt);
+        String outcome = "success";
+        try {
+            // Renderizador próprio: o estado multi-documento não deve passar para os certificados
+            ITextRenderer renderer = new ITextRenderer();
+            OutputStream outputStream = nonClosing(fence.guard(target));
+
+            fence.check();
+            renderer.setDocumentFromString(documents.next());
+            renderer.layout();
+            renderer.createPDF(outputStream, false);
+            while (documents.hasNext()) {
+                fence.check();
+                renderer.setDocumentFromString(documents.next());
+                renderer.layout();
+                renderer.writeNextDocument();
+            }
+            renderer.finishPDF();
+            outputStream.flush();
+        } catch (Exception e) {
+            outcome = fence.isClosed() ? "cancelled" : "failure";
+            throw new CompletionException(e);
+        } finally {
+            recordRender(name, outcome, start);
+        }
+    }
+
+    private long recordQueueWait(long queuedAt) {
+        long start = System.nanoTime();
+        Timer.builder("certificates.render.queue.wait")
+                .description("Tempo de espera na fila do motor de PDF")
+                .register(meterRegistry)
+                .record(start - queuedAt, TimeUnit.NANOSECONDS);
+        return start;
+    }
+
+    private void recordRender(String type, String outcome, long start) {
+        Timer.builder("certificates.render")
+                .description("Tempo de layout e escrita do PDF")
+                .tag("type", type)
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * O iText escreve aos bocados e fecha o stream no fim: buffer próprio e close só faz flush.
+     */
+    private static OutputStream nonClosing(OutputStream target) {
+        return new BufferedOutputStream(new FilterOutputStream(target) {
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                out.write(b, off, len);
+            }
+
+            @Override
+            public void close() throws IOException {
+                flush();
+            }
+        }, OUTPUT_BUFFER_BYTES);
+    }
+
+    private ITextRenderer acquireRenderer() {
+        PooledRenderer pooled = renderers.get();
+        if (pooled == null || pooled.uses >= MAX_RENDERS_PER_RENDERER) {
+            pooled = new PooledRenderer(new ITextRenderer());
+            renderers.set(pooled);
+        }
+        pooled.uses++;
+        return pooled.renderer;
+    }
+
+    private boolean validateLogo() {
+        String type = certificateTemplates.types().iterator().next();
+        try {
+            submitTo(type, new CertificateData(null), true, OutputStream.nullOutputStream())
+                    .get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+            return true;
+        } catch (Exception e) {
+            log.warn("O logo não pôde ser usado no PDF; os certificados serão gerados sem logo", e);
+            return false;
+        }
+    }
+
+    /**
+     * Desistência de quem espera, vista pelo worker. As escritas no destino passam por guard:
+     * depois de close nenhuma chega ao stream de quem desistiu.
+     */
+    private static final class Fence {
+        private volatile boolean closed;
+
+        void close() {
+            closed = true;
+        }
+
+        boolean isClosed() {
+            return closed;
+        }
+
+        void check() {
+            if (closed) throw new CancellationException("Geração abandonada: quem esperava desistiu");
+        }
+
+        OutputStream guard(OutputStream target) {
+            return new FilterOutputStream(target) {
+                @Override
+                public void write(int b) throws IOException {
+                    check();
+                    out.write(b);
+                }
+
+                @Override
+                public void write(byte[] b, int off, int len) throws IOException {
+                    check();
+                    out.write(b, off, len);
+                }
+
+                @Override
+                public void flush() throws IOException {
+                    check();
+                    out.flush();
+                }
+            };
+        }
+    }
+
+    private static final class PooledRenderer {
+        private final ITextRenderer renderer;
+        private int uses;
+
+        private PooledRenderer(ITextRenderer renderer) {
+            this.renderer = renderer;
+        }
+    }
+}
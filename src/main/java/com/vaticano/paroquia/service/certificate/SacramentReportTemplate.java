@@ -0,0 +1,198 @@
+package com.vaticano.paroquia.service.certificate;
+
+import com.vaticano.paroquia.domain.repository.SacramentCount;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.TreeMap;
+
+/**
+ * XHTML do relatório de estatística sacramental, em secções para o PdfRenderEngine.renderDocumentsTo.
+ *
+ * A primeira secção tem os totais da paróquia por ano e por comunidade; as seguintes o detalhe de
+ * cada comunidade por ano, várias comunidades por secção até ROWS_PER_DOCUMENT linhas. Cada secção
+ * só é gerada quando o motor a pede.
+ */
+@Component
+@RequiredArgsConstructor
+public class SacramentReportTemplate {
+
+    private static final int ROWS_PER_DOCUMENT = 40;
+    private static final String NO_COMUNIDADE = "Sem comunidade";
+    private static final String NO_YEAR = "Sem data";
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+
+    private static final String CSS = ""
+            + "@page { size: A4; margin: 18mm 16mm 20mm 16mm;"
+            + " @bottom-left { content: element(footer); } }"
+            + "body { font-family: 'Helvetica', 'Arial', sans-serif; font-size: 10pt; color: #111; }"
+            + ".footer { position: running(footer); font-size: 8pt; color: #6b7280; }"
+            + ".header { text-align: center; margin-bottom: 12pt; }"
+            + ".logo { width: 42px; height: 42px; }"
+            + ".title { font-size: 16pt; font-weight: bold; color: #10366f; margin-top: 4pt; }"
+            + ".period { font-size: 10pt; color: #374151; margin-top: 2pt; }"
+            + "h2 { font-size: 12pt; color: #10366f; margin: 14pt 0 4pt 0; page-break-after: avoid; }"
+            + "table { width: 100%; border-collapse: collapse; -fs-table-paginate: paginate; margin-bottom: 6pt; }"
+            + "thead { display: table-header-group; }"
+            + "tr { page-break-inside: avoid; }"
+            + "th { background: #10366f; color: #fff; font-weight: bold; padding: 3pt 6pt; text-align: right; }"
+            + "td { border-bottom: 1px solid #d1d5db; padding: 2.5pt 6pt; text-align: right; }"
+            + "th.label, td.label { text-align: left; }"
+            + "tr.total td { font-weight: bold; border-top: 1.5px solid #10366f; border-bottom: none; }";
+
+    private static final String TABLE_HEAD = "<th>Baptismos</th><th>Crismas</th><th>Casamentos</th><th>Total</th></tr></thead><tbody>";
+
+    private final CertificateTemplates certificateTemplates;
+
+    /**
+     * Secções do relatório. rows vem ordenado por comunidade e ano (como na query).
+     */
+    public Iterator<String> documents(List<SacramentCount> rows, Integer fromYear, Integer toYear,
+                                      boolean withLogo, LocalDate today) {
+        Map<String, List<SacramentCount>> byComunidade = new LinkedHashMap<>();
+        for (SacramentCount row : rows) {
+            byComunidade.computeIfAbsent(comunidadeLabel(row.comunidade()), key -> new ArrayList<>()).add(row);
+        }
+
+        String footer = "<div class=\"footer\">Estatística sacramental &#8212; " + period(fromYear, toYear)
+                + " &#8212; gerado em " + today.format(DATE_FORMAT) + "</div>";
+        String summary = summary(rows, byComunidade, fromYear, toYear, withLogo, footer);
+        Iterator<Map.Entry<String, List<SacramentCount>>> comunidades = byComunidade.entrySet().iterator();
+
+        return new Iterator<>() {
+            private boolean summaryDone;
+
+            @Override
+            public boolean hasNext() {
+                return !summaryDone || comunidades.hasNext();
+            }
+
+            @Override
+            public String next() {
+                if (!summaryDone) {
+                    summaryDone = true;
+                    return summary;
+                }
+                if (!comunidades.hasNext()) throw new NoSuchElementException();
+
+                StringBuilder out = new StringBuilder(16 * 1024);
+                open(out, footer);
+                int lines = 0;
+                while (comunidades.hasNext() && lines < ROWS_PER_DOCUMENT) {
+                    Map.Entry<String, List<SacramentCount>> entry = comunidades.next();
+                    appendComunidade(out, entry.getKey(), entry.getValue());
+                    lines += entry.getValue().size() + 3;
+                }
+                return close(out);
+            }
+        };
+    }
+
+    // ========== Helper Methods ==========
+
+    private String summary(List<SacramentCount> rows, Map<String, List<SacramentCount>> byComunidade,
+                           Integer fromYear, Integer toYear, boolean withLogo, String footer) {
+        // Anos por ordem, com os registos sem data no fim
+        Map<Integer, long[]> byYear = new TreeMap<>((a, b) -> a == null ? (b == null ? 0 : 1) : b == null ? -1 : a.compareTo(b));
+        for (SacramentCount row : rows) {
+            add(byYear.computeIfAbsent(row.ano(), key -> new long[3]), row);
+        }
+
+        StringBuilder out = new StringBuilder(32 * 1024);
+        open(out, footer);
+        out.append("<div class=\"header\">");
+        if (withLogo && certificateTemplates.hasLogo()) {
+            out.append("<img class=\"logo\" src=\"data:").append(certificateTemplates.getLogoMimeType()).append(";base64,")
+                    .append(Base64.getEncoder().encodeToString(certificateTemplates.getLogoBytes())).append("\" alt=\"Logo\"/>");
+        }
+        out.append("<div class=\"title\">Estatística Sacramental</div>")
+                .append("<div class=\"period\">").append(period(fromYear, toYear)).append(" &#8212; ")
+                .append(byComunidade.size()).append(byComunidade.size() == 1 ? " comunidade" : " comunidades")
+                .append("</div></div>");
+
+        out.append("<h2>Totais da paróquia por ano</h2><table><thead><tr><th class=\"label\">Ano</th>").append(TABLE_HEAD);
+        long[] total = new long[3];
+        for (Map.Entry<Integer, long[]> entry : byYear.entrySet()) {
+            appendRow(out, "", entry.getKey() == null ? NO_YEAR : String.valueOf(entry.getKey()), entry.getValue());
+            add(total, entry.getValue());
+        }
+        appendRow(out, "total", "Total", total);
+        out.append("</tbody></table>");
+
+        out.append("<h2>Totais por comunidade</h2><table><thead><tr><th class=\"label\">Comunidade</th>").append(TABLE_HEAD);
+        for (Map.Entry<String, List<SacramentCount>> entry : byComunidade.entrySet()) {
+            long[] counts = new long[3];
+            entry.getValue().forEach(row -> add(counts, row));
+            appendRow(out, "", CertificateTemplates.escapeHtml(entry.getKey()), counts);
+        }
+        appendRow(out, "total", "Total", total);
+        out.append("</tbody></table>");
+        return close(out);
+    }
+
+    private void appendComunidade(StringBuilder out, String comunidade, List<SacramentCount> rows) {
+        out.append("<h2>");
+        CertificateTemplates.appendEscapedHtml(out, comunidade);
+        out.append("</h2><table><thead><tr><th class=\"label\">Ano</th>").append(TABLE_HEAD);
+        long[] total = new long[3];
+        for (SacramentCount row : rows) {
+            long[] counts = {row.baptismos(), row.crismas(), row.casamentos()};
+            appendRow(out, "", row.ano() == null ? NO_YEAR : String.valueOf(row.ano()), counts);
+            add(total, counts);
+        }
+        appendRow(out, "total", "Total", total);
+        out.append("</tbody></table>");
+    }
+
+    private static void appendRow(StringBuilder out, String cssClass, String label, long[] counts) {
+        out.append(cssClass.isEmpty() ? "<tr>" : "<tr class=\"" + cssClass + "\">")
+                .append("<td class=\"label\">").append(label).append("</td>")
+                .append("<td>").append(counts[0]).append("</td>")
+                .append("<td>").append(counts[1]).append("</td>")
+                .append("<td>").append(counts[2]).append("</td>")
+                .append("<td>").append(counts[0] + counts[1] + counts[2]).append("</td></tr>");
+    }
+
+    private static void open(StringBuilder out, String footer) {
+        out.append("<html xmlns=\"http://www.w3.org/1999/xhtml\"><head><meta charset=\"UTF-8\"/><style>")
+                .append(CSS)
+                .append("</style></head><body>")
+                .append(footer);
+    }
+
+    private static String close(StringBuilder out) {
+        return out.append("</body></html>").toString();
+    }
+
+    private static void add(long[] counts, SacramentCount row) {
+        counts[0] += row.baptismos();
+        counts[1] += row.crismas();
+        counts[2] += row.casamentos();
+    }
+
+    private static void add(long[] counts, long[] other) {
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] += other[i];
+        }
+    }
+
+    private static String comunidadeLabel(String comunidade) {
+        return comunidade == null || comunidade.isBlank() ? NO_COMUNIDADE : comunidade.trim();
+    }
+
+    private static String period(Integer fromYear, Integer toYear) {
+        if (fromYear == null && toYear == null) return "Todos os anos";
+        if (fromYear == null) return "Até " + toYear;
+        if (toYear == null) return "Desde " + fromYear;
+        return fromYear.equals(toYear) ? "Ano de " + fromYear : fromYear + " a " + toYear;
+    }
+}
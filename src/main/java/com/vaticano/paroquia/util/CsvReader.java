@@ -0,0 +1,91 @@
+package com.vaticano.paroquia.util;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Leitor CSV em streaming (linha a linha), compatível com o formato exportado pelo Excel:
+ * separador configurável, campos entre aspas, aspas escapadas ("") e quebras de linha dentro de aspas.
+ */
+public class CsvReader implements Closeable {
+
+    private final BufferedReader reader;
+    private final char separator;
+    private long lineNumber = 0;
+
+    public CsvReader(Reader reader, char separator) {
+        this.reader = reader instanceof BufferedReader buffered ? buffered : new BufferedReader(reader);
+        this.separator = separator;
+    }
+
+    /**
+     * Lê o próximo registo. Retorna null no fim do ficheiro.
+     */
+    public List<String> readRecord() throws IOException {
+        String line = reader.readLine();
+        if (line == null) {
+            return null;
+        }
+        lineNumber++;
+
+        List<String> fields = new ArrayList<>(32);
+        StringBuilder field = new StringBuilder(64);
+        boolean inQuotes = false;
+
+        while (true) {
+            for (int i = 0; i < line.length(); i++) {
+                char c = line.charAt(i);
+                if (inQuotes) {
+                    if (c == '"') {
+                        if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                            field.append('"');
+                            i++;
+                        } else {
+                            inQuotes = false;
+                        }
+                    } else {
+                        field.append(c);
+                    }
+                } else if (c == '"' && field.isEmpty()) {
+                    inQuotes = true;
+                } else if (c == separator) {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else {
+                    field.append(c);
+                }
+            }
+
+            if (!inQuotes) {
+                break;
+            }
+
+            // Campo entre aspas continua na linha seguinte
+            line = reader.readLine();
+            if (line == null) {
+                break;
+            }
+            lineNumber++;
+            field.append('\n');
+        }
+
+        fields.add(field.toString());
+        return fields;
+    }
+
+    /**
+     * Número da última linha física lida (1-based).
+     */
+    public long getLineNumber() {
+        return lineNumber;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
@@ -0,0 +1,97 @@
+package com.vaticano.paroquia.util;
+
+import com.vaticano.paroquia.domain.entity.Member;
+import com.vaticano.paroquia.dto.request.MemberRequest;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Layout de colunas do Modelo_Importacao_Membros.csv (25 colunas, separador ';').
+ * Usado tanto na importação como na exportação, para que o CSV exportado possa ser reimportado.
+ */
+public final class MemberCsvLayout {
+
+    public static final char SEPARATOR = ';';
+
+    /** Cabeçalho exatamente como no modelo (incluindo "Estado Civil" repetido e "Profisssao"). */
+    public static final List<String> HEADER = List.of(
+            "Ord.", "Nome Completo", "Comunidade", "Data de Baptismo", "Data de Nascimento", "Naturalidade",
+            "Nome do Pai", "Naturalidade do Pai", "Estado Civil", "Profissao", "Nome da Mae", "Avos Paternos",
+            "Avos Maternos", "Nome do Padrinho", "Estado Civil", "Profissao", "Residencia", "Nome da Madrinha",
+            "Estado Civil da Madrinha", "Profisssao da Madrinha", "Residencia da Madrinha", "Data do Crisma",
+            "Data do Casamento", "Numero do Assento", "Observacoes"
+    );
+
+    public static final int COLUMNS = HEADER.size();
+
+    private MemberCsvLayout() {
+    }
+
+    /**
+     * Mapeia as colunas (posição fixa) para um MemberRequest. Linhas curtas são completadas com vazio.
+     */
+    public static MemberRequest toMemberRequest(List<String> record) {
+        String[] c = Arrays.copyOf(record.toArray(new String[0]), Math.max(record.size(), COLUMNS));
+        return MemberRequest.builder()
+                .ordOriginal(c[0])
+                .nomeCompleto(c[1])
+                .comunidade(c[2])
+                .dataBaptismo(c[3])
+                .dataNascimento(c[4])
+                .naturalidade(c[5])
+                .nomePai(c[6])
+                .naturalidadePai(c[7])
+                .estadoCivil(c[8])
+                .profissao(c[9])
+                .nomeMae(c[10])
+                .avosPaternos(c[11])
+                .avosMaternos(c[12])
+                .nomePadrinho(c[13])
+                .estadoCivilPadrinho(c[14])
+                .profissaoPadrinho(c[15])
+                .residenciaPadrinho(c[16])
+                .nomeMadrinha(c[17])
+                .estadoCivilMadrinha(c[18])
+                .profissaoMadrinha(c[19])
+                .residenciaMadrinha(c[20])
+                .dataCrisma(c[21])
+                .dataCasamento(c[22])
+                .numeroAssento(c[23])
+                .observacoes(c[24])
+                .build();
+    }
+
+    /**
+     * Mapeia um membro para as colunas do modelo, pela mesma ordem do cabeçalho.
+     */
+    public static List<String> toRecord(Member m) {
+        return Arrays.asList(
+                m.getOrdOriginal(),
+                m.getNomeCompleto(),
+                m.getComunidade(),
+                m.getDataBaptismo(),
+                m.getDataNascimento(),
+                m.getNaturalidade(),
+                m.getNomePai(),
+                m.getNaturalidadePai(),
+                m.getEstadoCivil(),
+                m.getProfissao(),
+                m.getNomeMae(),
+                m.getAvosPaternos(),
+                m.getAvosMaternos(),
+                m.getNomePadrinho(),
+                m.getEstadoCivilPadrinho(),
+                m.getProfissaoPadrinho(),
+                m.getResidenciaPadrinho(),
+                m.getNomeMadrinha(),
+                m.getEstadoCivilMadrinha(),
+                m.getProfissaoMadrinha(),
+                m.getResidenciaMadrinha(),
+                m.getDataCrisma(),
+                m.getDataCasamento(),
+                m.getNumeroAssento(),
+                m.getObservacoes()
+        );
+    }
+}
@@ -0,0 +1,32 @@
+package com.vaticano.paroquia.util;
+
+import com.vaticano.paroquia.exception.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Cursor opaco para paginação keyset de membros sobre (nome_completo, member_key).
+ */
+public record MemberCursor(String nomeCompleto, String memberKey) {
+
+    private static final char SEPARATOR = '\u0000';
+
+    public String encode() {
+        String raw = nomeCompleto + SEPARATOR + memberKey;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static MemberCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(SEPARATOR);
+            if (separator < 0) {
+                throw new BadRequestException("Cursor inválido");
+            }
+            return new MemberCursor(raw.substring(0, separator), raw.substring(separator + 1));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Cursor inválido");
+        }
+    }
+}
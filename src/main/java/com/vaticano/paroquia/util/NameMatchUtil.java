@@ -0,0 +1,263 @@
+package com.vaticano.paroquia.util;
+
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Funções de comparação aproximada de nomes e datas usadas na deteção de membros duplicados.
+ */
+public class NameMatchUtil {
+
+    private static final Pattern YEAR = Pattern.compile("(1[89]\\d{2}|20\\d{2})");
+    private static final Pattern NUMERIC_DATE = Pattern.compile("(\\d{1,2})\\s*[/.-]\\s*(\\d{1,2})\\s*[/.-]\\s*(\\d{2,4})");
+    private static final Pattern DAY = Pattern.compile("^\\s*(\\d{1,2})\\b");
+
+    private static final Map<String, Integer> MONTHS = Map.ofEntries(
+            Map.entry("jan", 1), Map.entry("fev", 2), Map.entry("mar", 3), Map.entry("abr", 4),
+            Map.entry("mai", 5), Map.entry("jun", 6), Map.entry("jul", 7), Map.entry("ago", 8),
+            Map.entry("set", 9), Map.entry("out", 10), Map.entry("nov", 11), Map.entry("dez", 12)
+    );
+
+    /**
+     * Código fonético simplificado para português: nomes que soam igual
+     * ("Sozinho"/"Sosinho", "Chaves"/"Xaves", "Filipe"/"Phelipe") geram o mesmo código.
+     */
+    public static String phoneticKey(String value) {
+        String s = NormalizeUtil.normalizeForKey(value).replaceAll("[0-9]", "");
+        if (s.isEmpty()) {
+            return "";
+        }
+
+        StringBuilder out = new StringBuilder(s.length());
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            char next = i + 1 < s.length() ? s.charAt(i + 1) : '\0';
+            char mapped;
+            switch (c) {
+                case 'a', 'e', 'i', 'o', 'u', 'y' -> mapped = 'a';
+                case 'h' -> mapped = '\0';
+                case 'p' -> {
+                    if (next == 'h') { mapped = 'f'; i++; } else { mapped = 'p'; }
+                }
+                case 'c' -> {
+                    if (next == 'h') { mapped = 'x'; i++; }
+                    else if (next == 'e' || next == 'i' || next == 'y') { mapped = 's'; }
+                    else { mapped = 'k'; }
+                }
+                case 's' -> {
+                    if (next == 'h') { mapped = 'x'; i++; } else { mapped = 's'; }
+                }
+                case 'q' -> {
+                    if (next == 'u') { i++; }
+                    mapped = 'k';
+                }
+                case 'g' -> {
+                    if (next == 'u' && i + 2 < s.length() && (s.charAt(i + 2) == 'e' || s.charAt(i + 2) == 'i')) { i++; }
+                    mapped = (next == 'e' || next == 'i') ? 'j' : 'g';
+                }
+                case 'z' -> mapped = 's';
+                case 'w' -> mapped = 'v';
+                default -> mapped = c;
+            }
+            if (mapped == '\0') {
+                continue;
+            }
+            // "lh"/"nh": o h é mudo. Vogais só contam na primeira posição; consoantes repetidas colapsam
+            if (mapped == 'a' && !out.isEmpty()) {
+                continue;
+            }
+            if (!out.isEmpty() && out.charAt(out.length() - 1) == mapped) {
+                continue;
+            }
+            out.append(mapped);
+        }
+        return out.toString();
+    }
+
+    /**
+     * Último nome (apelido) já normalizado para chave.
+     */
+    public static String surname(String fullName) {
+        String normalized = NormalizeUtil.normalizeSpaces(NormalizeUtil.normalizeValue(fullName));
+        int lastSpace = normalized.lastIndexOf(' ');
+        return lastSpace < 0 ? normalized : normalized.substring(lastSpace + 1);
+    }
+
+    /**
+     * Ano (4 dígitos) presente na data livre, ou vazio.
+     */
+    public static String birthYear(String date) {
+        Matcher matcher = YEAR.matcher(NormalizeUtil.normalizeValue(date));
+        String year = "";
+        while (matcher.find()) {
+            year = matcher.group(1);
+        }
+        return year;
+    }
+
+    /**
+     * Converte datas escritas de formas diferentes ("30 de Junho de 2008", "30/06/2008", "30-6-08")
+     * para yyyy-MM-dd. Retorna vazio se não for reconhecida ou não existir (ex: 31/02), para que
+     * duas datas ilegíveis nunca contem como a mesma data.
+     */
+    public static String canonicalDate(String date) {
+        String value = NormalizeUtil.normalizeValue(date);
+        if (value.isEmpty()) {
+            return "";
+        }
+
+        Matcher numeric = NUMERIC_DATE.matcher(value);
+        if (numeric.find()) {
+            int year = Integer.parseInt(numeric.group(3));
+            if (year < 100) {
+                year += year > 30 ? 1900 : 2000;
+            }
+            return format(year, Integer.parseInt(numeric.group(2)), Integer.parseInt(numeric.group(1)));
+        }
+
+        String lower = NormalizeUtil.normalizeSpaces(value.toLowerCase(Locale.ROOT));
+        String year = birthYear(lower);
+        Integer month = null;
+        for (String word : lower.split("[^\\p{L}]+")) {
+            String normalizedWord = NormalizeUtil.normalizeForKey(word);
+            if (normalizedWord.length() >= 3) {
+                month = MONTHS.get(normalizedWord.substring(0, 3));
+                if (month != null) {
+                    break;
+                }
+            }
+        }
+        Matcher day = DAY.matcher(lower);
+        if (!year.isEmpty() && month != null && day.find()) {
+            return format(Integer.parseInt(year), month, Integer.parseInt(day.group(1)));
+        }
+        return "";
+    }
+
+    /**
+     * Similaridade Jaro-Winkler entre 0 e 1.
+     */
+    public static double jaroWinkler(String a, String b) {
+        if (a.isEmpty() && b.isEmpty()) {
+            return 1.0;
+        }
+        if (a.isEmpty() || b.isEmpty()) {
+            return 0.0;
+        }
+        if (a.equals(b)) {
+            return 1.0;
+        }
+
+        int matchDistance = Math.max(0, Math.max(a.length(), b.length()) / 2 - 1);
+        boolean[] aMatches = new boolean[a.length()];
+        boolean[] bMatches = new boolean[b.length()];
+
+        int matches = 0;
+        for (int i = 0; i < a.length(); i++) {
+            int start = Math.max(0, i - matchDistance);
+            int end = Math.min(i + matchDistance + 1, b.length());
+            for (int j = start; j < end; j++) {
+                if (!bMatches[j] && a.charAt(i) == b.charAt(j)) {
+                    aMatches[i] = true;
+                    bMatches[j] = true;
+                    matches++;
+                    break;
+                }
+            }
+        }
+        if (matches == 0) {
+            return 0.0;
+        }
+
+        int transpositions = 0;
+        int k = 0;
+        for (int i = 0; i < a.length(); i++) {
+            if (!aMatches[i]) {
+                continue;
+            }
+            while (!bMatches[k]) {
+                k++;
+            }
+            if (a.charAt(i) != b.charAt(k)) {
+                transpositions++;
+            }
+            k++;
+        }
+
+        double m = matches;
+        double jaro = (m / a.length() + m / b.length() + (m - transpositions / 2.0) / m) / 3.0;
+
+        int prefix = 0;
+        for (int i = 0; i < Math.min(4, Math.min(a.length(), b.length())); i++) {
+            if (a.charAt(i) != b.charAt(i)) {
+                break;
+            }
+            prefix++;
+        }
+        return jaro + prefix * 0.1 * (1.0 - jaro);
+    }
+
+    /**
+     * Similaridade de nomes completos tolerante a nomes do meio abreviados ("Abilio F. Sozinho").
+     * Combina Jaro-Winkler sobre o nome inteiro com a correspondência palavra a palavra,
+     * em que uma inicial conta como igual a qualquer palavra que comece pela mesma letra.
+     */
+    public static double nameSimilarity(String a, String b) {
+        return nameSimilarity(nameTokens(a), nameTokens(b));
+    }
+
+    /**
+     * nameSimilarity sobre palavras já obtidas com nameTokens, para quem compara o mesmo nome muitas vezes.
+     */
+    public static double nameSimilarity(String[] tokensA, String[] tokensB) {
+        if (tokensA.length == 0 || tokensB.length == 0) {
+            return tokensA.length == tokensB.length ? 1.0 : 0.0;
+        }
+
+        double whole = jaroWinkler(String.join("", tokensA), String.join("", tokensB));
+
+        String[] shorter = tokensA.length <= tokensB.length ? tokensA : tokensB;
+        String[] longer = shorter == tokensA ? tokensB : tokensA;
+        double tokenScore = 0;
+        for (String token : shorter) {
+            double best = 0;
+            for (String candidate : longer) {
+                double score = token.length() == 1 || candidate.length() == 1
+                        ? (token.charAt(0) == candidate.charAt(0) ? 0.9 : 0.0)
+                        : jaroWinkler(token, candidate);
+                best = Math.max(best, score);
+            }
+            tokenScore += best;
+        }
+        tokenScore /= shorter.length;
+
+        return Math.max(whole, tokenScore * 0.95);
+    }
+
+    /**
+     * Palavras do nome, cada uma normalizada para chave.
+     */
+    public static String[] nameTokens(String value) {
+        String normalized = NormalizeUtil.normalizeSpaces(NormalizeUtil.normalizeValue(value));
+        if (normalized.isEmpty()) {
+            return new String[0];
+        }
+        return Arrays.stream(normalized.split(" "))
+                .map(NormalizeUtil::normalizeForKey)
+                .filter(token -> !token.isEmpty())
+                .toArray(String[]::new);
+    }
+
+    private static String format(int year, int month, int day) {
+        try {
+            return LocalDate.of(year, month, day).toString();
+        } catch (DateTimeException e) {
+            return "";
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package com.vaticano.paroquia.util;
 
 import java.text.Normalizer;
+import java.util.Arrays;
+import java.util.Locale;
 
 public class NormalizeUtil {
 
@@ -30,26 +32,62 @@ public class NormalizeUtil {
         return value;
     }
 
+    /**
+     * Mapeamento pré-calculado de cada caractere até U+03FF (Latin-1, Latin Extended, diacríticos
+     * combinantes e grego) para o resultado de NFD + remover marcas + lowercase + filtrar [a-z0-9].
+     * 0 significa que o caractere é descartado.
+     */
+    private static final int KEY_TABLE_SIZE = 0x400;
+    private static final char[] KEY_TABLE = buildKeyTable();
+
     /**
      * Normaliza para chave única: lowercase + remove acentos + remove não-alfanuméricos.
      * Usado para deduplicação de membros.
+     *
+     * Uma única passagem por caractere, sem regex: o resultado é igual ao de
+     * NFD + remover \p{M} + lowercase + remover [^a-z0-9], porque a decomposição é feita
+     * caractere a caractere e as marcas (únicas afetadas pela reordenação canónica) são descartadas.
+     * Se o valor já for uma chave, é devolvido sem alocar.
      */
     public static String normalizeForKey(String value) {
-        if (value == null || value.isBlank()) {
+        if (value == null) {
             return "";
         }
 
-        // Remove acentos/diacríticos
-        String normalized = Normalizer.normalize(value, Normalizer.Form.NFD);
-        normalized = normalized.replaceAll("\\p{M}", "");
-
-        // Lowercase
-        normalized = normalized.toLowerCase();
+        int length = value.length();
+        int i = 0;
+        while (i < length && isKeyChar(value.charAt(i))) {
+            i++;
+        }
+        if (i == length) {
+            return value;
+        }
 
-        // Remove tudo que não seja alfanumérico
-        normalized = normalized.replaceAll("[^a-z0-9]", "");
+        char[] out = new char[length];
+        value.getChars(0, i, out, 0);
+        int size = i;
+        for (; i < length; i++) {
+            char c = value.charAt(i);
+            if (c < KEY_TABLE_SIZE) {
+                char mapped = KEY_TABLE[c];
+                if (mapped != 0) {
+                    out[size++] = mapped;
+                }
+                continue;
+            }
 
-        return normalized;
+            // Fora da tabela (raro): aplica a normalização completa só a este caractere (ou par surrogate)
+            int end = Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))
+                    ? i + 2 : i + 1;
+            String mapped = slowNormalizeForKey(value.substring(i, end));
+            if (size + mapped.length() > out.length) {
+                out = Arrays.copyOf(out, Math.max(out.length * 2, size + mapped.length()));
+            }
+            mapped.getChars(0, mapped.length(), out, size);
+            size += mapped.length();
+            i = end - 1;
+        }
+        return new String(out, 0, size);
     }
 
     /**
@@ -87,4 +125,33 @@ public class NormalizeUtil {
 
         return result.toString().trim();
     }
+
+    // ========== Helper Methods ==========
+
+    private static boolean isKeyChar(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9');
+    }
+
+    private static char[] buildKeyTable() {
+        char[] table = new char[KEY_TABLE_SIZE];
+        for (char c = 0; c < KEY_TABLE_SIZE; c++) {
+            String mapped = slowNormalizeForKey(String.valueOf(c));
+            if (mapped.length() > 1) {
+                throw new IllegalStateException("Mapeamento de chave com mais de um caractere: U+" + Integer.toHexString(c));
+            }
+            table[c] = mapped.isEmpty() ? 0 : mapped.charAt(0);
+        }
+        return table;
+    }
+
+    /**
+     * Definição de referência da normalização de chave (NFD + regex), usada para construir a tabela
+     * e para caracteres fora dela.
+     */
+    private static String slowNormalizeForKey(String value) {
+        String normalized = Normalizer.normalize(value, Normalizer.Form.NFD);
+        normalized = normalized.replaceAll("\\p{M}", "");
+        normalized = normalized.toLowerCase(Locale.ROOT);
+        return normalized.replaceAll("[^a-z0-9]", "");
+    }
 }
@@ -3,6 +3,7 @@ package com.vaticano.paroquia.util;
 import org.springframework.stereotype.Component;
 
 import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
 
 @Component
 public class UlidGenerator {
@@ -15,6 +16,18 @@ public class UlidGenerator {
         return UUID.randomUUID().toString().replace("-", "").toLowerCase();
     }
 
+    /**
+     * Gera um UUID versão 7 (RFC 9562): 48 bits de timestamp em ms seguidos de bits aleatórios.
+     * Usado como chave primária compacta (16 bytes) e ordenada por tempo de criação,
+     * o que mantém as inserções no fim do índice B-tree.
+     */
+    public UUID generateTimeOrderedId() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long mostSigBits = (System.currentTimeMillis() << 16) | 0x7000L | (random.nextInt() & 0x0FFFL);
+        long leastSigBits = (random.nextLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+        return new UUID(mostSigBits, leastSigBits);
+    }
+
     public String generateUserId() {
         return "usr_" + generateId();
     }
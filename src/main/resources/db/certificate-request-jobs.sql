@@ -0,0 +1,37 @@
+-- Colunas de processamento em fila de certificate_requests (formato, dados, reserva por worker e
+-- ficheiro emitido). Necessário em bases com ddl-auto=validate; bases novas são criadas pelo Hibernate.
+-- Separador de statements: ";;".
+ALTER TABLE IF EXISTS certificate_requests ADD COLUMN IF NOT EXISTS formato varchar(10);;
+ALTER TABLE IF EXISTS certificate_requests ADD COLUMN IF NOT EXISTS dados jsonb;;
+ALTER TABLE IF EXISTS certificate_requests ADD COLUMN IF NOT EXISTS tentativas integer;;
+ALTER TABLE IF EXISTS certificate_requests ADD COLUMN IF NOT EXISTS locked_until timestamp(6);;
+ALTER TABLE IF EXISTS certificate_requests ADD COLUMN IF NOT EXISTS erro text;;
+ALTER TABLE IF EXISTS certificate_requests ADD COLUMN IF NOT EXISTS output_path varchar(500);;
+ALTER TABLE IF EXISTS certificate_requests ADD COLUMN IF NOT EXISTS output_filename varchar(300);;
+ALTER TABLE IF EXISTS certificate_requests ADD COLUMN IF NOT EXISTS output_content_type varchar(100);;
+ALTER TABLE IF EXISTS certificate_requests ADD COLUMN IF NOT EXISTS output_size bigint;;
+ALTER TABLE IF EXISTS certificate_requests ADD COLUMN IF NOT EXISTS emitido_at timestamp(6);;
+
+-- Pedidos aprovados por reservar (consulta do worker)
+DO $$
+BEGIN
+    IF to_regclass('certificate_requests') IS NOT NULL THEN
+        CREATE INDEX IF NOT EXISTS idx_cert_requests_queue ON certificate_requests (created_at)
+            WHERE estado = 'APROVADO';
+        CREATE INDEX IF NOT EXISTS idx_cert_requests_requested_by ON certificate_requests (requested_by_user_id);
+    END IF;
+END $$;;
+
+-- Estado FALHADO (tentativas esgotadas): a check constraint criada pelo Hibernate só conhece os
+-- estados que existiam quando a tabela foi criada
+DO $$
+BEGIN
+    IF to_regclass('certificate_requests') IS NOT NULL AND NOT EXISTS (
+            SELECT 1 FROM pg_constraint
+            WHERE conname = 'certificate_requests_estado_check'
+              AND pg_get_constraintdef(oid) LIKE '%FALHADO%') THEN
+        ALTER TABLE certificate_requests DROP CONSTRAINT IF EXISTS certificate_requests_estado_check;
+        ALTER TABLE certificate_requests ADD CONSTRAINT certificate_requests_estado_check
+            CHECK (estado IN ('PENDENTE', 'APROVADO', 'RECUSADO', 'EMITIDO', 'FALHADO'));
+    END IF;
+END $$;;
@@ -0,0 +1,78 @@
+-- Migra members de member_key (até 200 caracteres) como chave primária para id uuid (UUIDv7).
+-- member_key passa a ser uma coluna UNIQUE e as referências em family_member_links, nucleo_members
+-- e certificate_requests passam de member_key para member_ref (members.id).
+--
+-- Executado em cada arranque antes do Hibernate (spring.sql.init) e idempotente: só atua em bases
+-- ainda com o esquema antigo. Bases novas são criadas diretamente pelo Hibernate.
+-- O bloco corre numa única transação: qualquer erro desfaz tudo e impede o arranque.
+--
+-- Linhas que referem uma member_key inexistente não têm member_ref e violariam o NOT NULL das
+-- entidades: são copiadas (em jsonb) para member_ref_orphans e removidas da tabela de origem.
+-- Separador de statements: ";;" (o bloco PL/pgSQL contém ";").
+DO $$
+DECLARE
+    pk_name text;
+    ref_table text;
+    orphans bigint;
+BEGIN
+    IF to_regclass('members') IS NULL
+       OR EXISTS (SELECT 1 FROM information_schema.columns
+                  WHERE table_schema = current_schema() AND table_name = 'members' AND column_name = 'id') THEN
+        RETURN;
+    END IF;
+
+    -- UUIDv7 a partir de created_at: as linhas existentes mantêm a ordem temporal
+    ALTER TABLE members ADD COLUMN id uuid;
+    UPDATE members SET id = (
+        lpad(to_hex((extract(epoch FROM coalesce(created_at, now())) * 1000)::bigint), 12, '0')
+        || '7' || substr(md5(member_key || random()::text), 1, 3)
+        || substr('89ab', 1 + floor(random() * 4)::int, 1)
+        || substr(md5(random()::text || member_key), 1, 15)
+    )::uuid;
+    ALTER TABLE members ALTER COLUMN id SET NOT NULL;
+
+    SELECT conname INTO pk_name FROM pg_constraint WHERE conrelid = 'members'::regclass AND contype = 'p';
+    IF pk_name IS NOT NULL THEN
+        EXECUTE format('ALTER TABLE members DROP CONSTRAINT %I', pk_name);
+    END IF;
+    ALTER TABLE members ADD CONSTRAINT members_pkey PRIMARY KEY (id);
+    ALTER TABLE members ADD CONSTRAINT uk_members_member_key UNIQUE (member_key);
+
+    FOREACH ref_table IN ARRAY ARRAY['family_member_links', 'nucleo_members', 'certificate_requests'] LOOP
+        CONTINUE WHEN to_regclass(ref_table) IS NULL;
+
+        EXECUTE format('ALTER TABLE %I ADD COLUMN member_ref uuid', ref_table);
+        EXECUTE format('UPDATE %I r SET member_ref = m.id FROM members m WHERE m.member_key = r.member_key', ref_table);
+
+        -- Referências a chaves que já não existem (ex: chave alterada antes desta migração):
+        -- ficam em quarentena para reconciliação manual
+        EXECUTE format('SELECT count(*) FROM %I WHERE member_ref IS NULL', ref_table) INTO orphans;
+        IF orphans > 0 THEN
+            CREATE TABLE IF NOT EXISTS member_ref_orphans (
+                source_table varchar(100) NOT NULL,
+                member_key   varchar(200),
+                row_data     jsonb NOT NULL,
+                migrated_at  timestamp(6) NOT NULL DEFAULT now()
+            );
+            EXECUTE format('INSERT INTO member_ref_orphans (source_table, member_key, row_data)'
+                || ' SELECT %L, r.member_key, to_jsonb(r) FROM %I r WHERE r.member_ref IS NULL', ref_table, ref_table);
+            EXECUTE format('DELETE FROM %I WHERE member_ref IS NULL', ref_table);
+            RAISE WARNING '% linhas de % sem membro correspondente movidas para member_ref_orphans', orphans, ref_table;
+        END IF;
+
+        -- Remove também os índices/chave primária que incluíam member_key
+        EXECUTE format('ALTER TABLE %I DROP COLUMN member_key', ref_table);
+        EXECUTE format('ALTER TABLE %I ALTER COLUMN member_ref SET NOT NULL', ref_table);
+    END LOOP;
+
+    IF to_regclass('nucleo_members') IS NOT NULL THEN
+        ALTER TABLE nucleo_members ADD PRIMARY KEY (nucleo_id, member_ref);
+    END IF;
+    IF to_regclass('family_member_links') IS NOT NULL THEN
+        CREATE INDEX IF NOT EXISTS idx_family_member_links_member_ref ON family_member_links (member_ref);
+    END IF;
+    IF to_regclass('certificate_requests') IS NOT NULL THEN
+        CREATE INDEX IF NOT EXISTS idx_cert_requests_member_ref ON certificate_requests (member_ref);
+    END IF;
+END
+$$;;
@@ -0,0 +1,93 @@
+package com.vaticano.paroquia.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PasswordHasherTest {
+
+    // Hash SHA-512 tal como gravado pela versão anterior: hex minúsculo de SHA-512(salt + senha)
+    private static final String LEGACY_SALT = "c2FsdC1kZS10ZXN0ZQ==";
+    private static final String LEGACY_PASSWORD = "Senha#2024";
+    private static final String LEGACY_HASH = "786ad411add551af7427c3f2282384e48069af8bf67c494807aaf8a5c984ab98"
+            + "a66e6a4b80729dde68a298fca18cdc8139d7149ccfa08b10073cd34168d4be50";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private PasswordHasher hasher;
+
+    @BeforeEach
+    void setUp() {
+        hasher = new PasswordHasher(meterRegistry);
+        ReflectionTestUtils.setField(hasher, "fixedStrength", 5);
+        ReflectionTestUtils.setField(hasher, "threads", 1);
+        ReflectionTestUtils.setField(hasher, "queueCapacity", 8);
+        ReflectionTestUtils.setField(hasher, "timeout", Duration.ofSeconds(10));
+        ReflectionTestUtils.invokeMethod(hasher, "start");
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReflectionTestUtils.invokeMethod(hasher, "stop");
+    }
+
+    @Test
+    void legacySha512HashIsAcceptedAndUpgraded() {
+        PasswordHasher.Verification verification = hasher.verify(LEGACY_PASSWORD, LEGACY_HASH, LEGACY_SALT);
+
+        assertTrue(verification.matches());
+        assertNotNull(verification.upgradedHash());
+        assertTrue(verification.upgradedHash().startsWith("$2a$05$"));
+
+        // Depois de gravado, o novo hash confere sem salt e não volta a ser atualizado
+        PasswordHasher.Verification upgraded = hasher.verify(LEGACY_PASSWORD, verification.upgradedHash(), "");
+        assertTrue(upgraded.matches());
+        assertNull(upgraded.upgradedHash());
+        assertEquals(1.0, meterRegistry.get("auth.passwords.upgraded").counter().count());
+    }
+
+    @Test
+    void legacyHashRejectsWrongPasswordAndSalt() {
+        assertFalse(hasher.verify("senha#2024", LEGACY_HASH, LEGACY_SALT).matches());
+        assertFalse(hasher.verify(LEGACY_PASSWORD, LEGACY_HASH, "outro-salt").matches());
+        assertNull(hasher.verify("errada", LEGACY_HASH, LEGACY_SALT).upgradedHash());
+    }
+
+    @Test
+    void legacyMismatchCostsTheSameAsUnknownUser() {
+        hasher.verify("errada", LEGACY_HASH, LEGACY_SALT);
+        hasher.verifyDummy("errada");
+
+        // Ambos passam por uma verificação BCrypt no pool
+        assertEquals(2, meterRegistry.get("auth.passwords.hash").tag("operation", "verify").timer().count());
+    }
+
+    @Test
+    void weakerBcryptHashIsUpgraded() {
+        String weak = new BCryptPasswordEncoder(4).encode(LEGACY_PASSWORD);
+
+        PasswordHasher.Verification verification = hasher.verify(LEGACY_PASSWORD, weak, "");
+
+        assertTrue(verification.matches());
+        assertTrue(verification.upgradedHash().startsWith("$2a$05$"));
+        assertFalse(hasher.verify("errada", weak, "").matches());
+    }
+
+    @Test
+    void newHashesAreBcrypt() {
+        String hash = hasher.hash(LEGACY_PASSWORD);
+
+        assertTrue(hash.startsWith("$2a$05$"));
+        assertTrue(hasher.verify(LEGACY_PASSWORD, hash, "").matches());
+    }
+}
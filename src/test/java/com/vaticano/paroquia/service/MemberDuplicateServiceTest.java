@@ -0,0 +1,96 @@
+package com.vaticano.paroquia.service;
+
+import com.vaticano.paroquia.domain.repository.MemberMatchCandidate;
+import com.vaticano.paroquia.domain.repository.MemberRepository;
+import com.vaticano.paroquia.dto.response.MemberDuplicateResponse;
+import com.vaticano.paroquia.security.SecurityUtils;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class MemberDuplicateServiceTest {
+
+    private static final MemberMatchCandidate ABILIO = new MemberMatchCandidate(
+            "k1", "Abilio Fernando Sozinho", "Sé", "30 de Junho de 2008", "Fernando Sozinho", "Maria Chaves");
+    private static final MemberMatchCandidate ABILIO_ABREVIADO = new MemberMatchCandidate(
+            "k2", "Abilio F. Sosinho", "Sé", "30/06/2008", "Fernando Sosinho", "Maria Xaves");
+    private static final MemberMatchCandidate ABILIO_1990 = new MemberMatchCandidate(
+            "k3", "Abilio Fernando Sozinho", "Sé", "12/03/1990", "Fernando Sozinho", "Maria Chaves");
+    private static final MemberMatchCandidate JOANA = new MemberMatchCandidate(
+            "k4", "Joana Mendes", "Sé", "31/02/2008", null, null);
+    private static final MemberMatchCandidate JOANA_DATA_INVALIDA = new MemberMatchCandidate(
+            "k5", "Joana Mendes", "Sé", "30/02/2008", null, null);
+
+    private static final MemberMatchCandidate ABILIO_ANO_CURTO = new MemberMatchCandidate(
+            "k6", "Abilio Fernando Sozinho", "Sé", "30/06/08", "Fernando Sozinho", "Maria Chaves");
+
+    private final MemberRepository memberRepository = mock(MemberRepository.class);
+    private final MemberDuplicateService service = new MemberDuplicateService(memberRepository, mock(SecurityUtils.class));
+
+    @Test
+    void comparesOnlyWithinSurnameAndYearBlocks() {
+        when(memberRepository.findAllMatchCandidates())
+                .thenReturn(List.of(ABILIO, ABILIO_ABREVIADO, ABILIO_1990, JOANA, JOANA_DATA_INVALIDA));
+
+        List<MemberDuplicateResponse> duplicates = service.findDuplicates(0, 100);
+
+        // Mesmo nome de k1 mas outro ano de nascimento: outro bloco, nunca comparado
+        Set<String> pairs = duplicates.stream()
+                .map(d -> d.getMembroA().getMemberKey() + "-" + d.getMembroB().getMemberKey())
+                .collect(Collectors.toSet());
+        assertEquals(Set.of("k1-k2", "k4-k5"), pairs);
+    }
+
+    @Test
+    void scoresSpellingVariantsAsDuplicates() {
+        when(memberRepository.findAllMatchCandidates()).thenReturn(List.of(ABILIO, ABILIO_ABREVIADO));
+
+        List<MemberDuplicateResponse> duplicates = service.findDuplicates(0.8, 100);
+
+        assertEquals(1, duplicates.size());
+        MemberDuplicateResponse duplicate = duplicates.get(0);
+        assertTrue(duplicate.isMesmaDataNascimento());
+        assertTrue(duplicate.getNomeScore() > 0.85);
+        assertTrue(duplicate.getPais() > 0.9);
+        assertEquals("k1", duplicate.getMembroA().getMemberKey());
+    }
+
+    @Test
+    void unparseableDatesNeverCountAsTheSameDate() {
+        when(memberRepository.findAllMatchCandidates()).thenReturn(List.of(JOANA, JOANA_DATA_INVALIDA));
+
+        List<MemberDuplicateResponse> duplicates = service.findDuplicates(0, 100);
+
+        assertEquals(1, duplicates.size());
+        assertFalse(duplicates.get(0).isMesmaDataNascimento());
+        // Nome igual (0.6) + data ausente (0.5 * 0.2) + pais desconhecidos (0.5 * 0.2)
+        assertEquals(0.8, duplicates.get(0).getScore());
+    }
+
+    @Test
+    void minScoreFiltersWeakPairs() {
+        when(memberRepository.findAllMatchCandidates()).thenReturn(List.of(JOANA, JOANA_DATA_INVALIDA));
+
+        assertTrue(service.findDuplicates(0.85, 100).isEmpty());
+    }
+
+    @Test
+    void twoDigitYearIsBlockedWithTheFullYear() {
+        when(memberRepository.findAllMatchCandidates()).thenReturn(List.of(ABILIO, ABILIO_ANO_CURTO));
+
+        List<MemberDuplicateResponse> duplicates = service.findDuplicates(0.85, 100);
+
+        assertEquals(1, duplicates.size());
+        assertEquals("k1", duplicates.get(0).getMembroA().getMemberKey());
+        assertEquals("k6", duplicates.get(0).getMembroB().getMemberKey());
+        assertTrue(duplicates.get(0).isMesmaDataNascimento());
+    }
+}
@@ -0,0 +1,148 @@
+package com.vaticano.paroquia.service;
+
+import com.vaticano.paroquia.domain.entity.RefreshToken;
+import com.vaticano.paroquia.domain.repository.RefreshTokenRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RefreshTokenStoreTest {
+
+    private static final String HASH = "hash-do-token";
+    private static final String USER_ID = "usr_01";
+
+    private final RefreshTokenRepository repository = mock(RefreshTokenRepository.class);
+    private RefreshTokenStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new RefreshTokenStore(repository, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(store, "indexMaxEntries", 100);
+        ReflectionTestUtils.invokeMethod(store, "init");
+        when(repository.revokeByTokenHash(eq(HASH), any())).thenReturn(1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void tokenReadFromDatabaseIsIndexed() {
+        when(repository.findByTokenHash(HASH)).thenReturn(Optional.of(token(false)));
+
+        store.find(HASH);
+        store.find(HASH);
+
+        verify(repository, times(1)).findByTokenHash(HASH);
+    }
+
+    @Test
+    void readBeforeCommittedRevocationIsNotIndexed() {
+        // A leitura vê o token ainda válido; a revogação confirma (e limpa o índice) antes de ele ser posto
+        when(repository.findByTokenHash(HASH))
+                .thenAnswer(invocation -> {
+                    revokeAndCommit();
+                    return Optional.of(token(false));
+                })
+                .thenReturn(Optional.of(token(true)));
+
+        assertTrue(store.find(HASH).orElseThrow().isValid());
+
+        assertFalse(store.find(HASH).orElseThrow().isValid());
+        verify(repository, times(2)).findByTokenHash(HASH);
+    }
+
+    @Test
+    void readDuringUncommittedRevocationIsRemovedOnCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        store.revoke(HASH);
+
+        // Ainda sem commit: a base de dados continua a devolver o token válido
+        when(repository.findByTokenHash(HASH))
+                .thenReturn(Optional.of(token(false)))
+                .thenReturn(Optional.of(token(true)));
+        store.find(HASH);
+
+        commit();
+
+        assertFalse(store.find(HASH).orElseThrow().isValid());
+        verify(repository, times(2)).findByTokenHash(HASH);
+    }
+
+    @Test
+    void readBeforeSyncedRevocationIsNotIndexed() {
+        // Revogado noutro nó: a sincronização corre entre a leitura e o put e não volta a ver o hash
+        when(repository.findHashesRevokedSince(any())).thenReturn(List.of(HASH), List.of());
+        when(repository.findByTokenHash(HASH))
+                .thenAnswer(invocation -> {
+                    store.syncRevocations();
+                    return Optional.of(token(false));
+                })
+                .thenReturn(Optional.of(token(true)));
+
+        store.find(HASH);
+        store.syncRevocations();
+
+        assertFalse(store.find(HASH).orElseThrow().isValid());
+        verify(repository, times(2)).findByTokenHash(HASH);
+    }
+
+    @Test
+    void readBeforeRevokeAllIsNotIndexed() {
+        when(repository.findByTokenHash(HASH))
+                .thenAnswer(invocation -> {
+                    store.revokeAllByUserId(USER_ID);
+                    return Optional.of(token(false));
+                })
+                .thenReturn(Optional.of(token(true)));
+
+        store.find(HASH);
+
+        assertFalse(store.find(HASH).orElseThrow().isValid());
+        verify(repository, times(2)).findByTokenHash(HASH);
+    }
+
+    // ========== Helper Methods ==========
+
+    private void revokeAndCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        store.revoke(HASH);
+        commit();
+    }
+
+    private static void commit() {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.forEach(TransactionSynchronization::afterCommit);
+    }
+
+    private static RefreshToken token(boolean revoked) {
+        return RefreshToken.builder()
+                .tokenId("rt_01")
+                .userId(USER_ID)
+                .tokenHash(HASH)
+                .expiresAt(LocalDateTime.now().plusDays(7))
+                .revoked(revoked)
+                .build();
+    }
+}
@@ -0,0 +1,468 @@
+package com.vaticano.paroquia.service.certificate;
+
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CertificateTemplatesTest {
+
+    private static final String[] SAMPLES = {
+            null, "", " ", "   \t\n", "Maria", "  João da Silva  ", "A & B", "<script>alert('x')</script>",
+            "\"aspas\"", "\u0000\u0001nome\u0002", "\u0001 \u0002", "   ", " ", " nome ",
+            "😀 emoji", "sem par \uD83D fim", "\uDE00início", "fim\uD83D", "￾￿", "tab\tno\rmeio\n",
+            "Paróquia São José & Santa Maria", " ", "\u0085x\u0085"
+    };
+
+    private static final String ALPHABET = "aZ09 \t\n\r\u0000\u0001\u001f&<>\"' ç  ￾￿😀";
+
+    private static final LocalDate TODAY = LocalDate.of(2024, 5, 17);
+
+    private final CertificateTemplates templates = new CertificateTemplates();
+
+    /**
+     * Implementação original (sanitizeXmlText + replaces encadeados), usada como referência.
+     */
+    private static String legacyEscapeHtml(String value) {
+        String input = String.valueOf(value == null ? "" : value);
+        StringBuilder out = new StringBuilder(input.length());
+        input.codePoints().forEach(cp -> {
+            if (cp == 0x9 || cp == 0xA || cp == 0xD
+                    || (cp >= 0x20 && cp <= 0xD7FF)
+                    || (cp >= 0xE000 && cp <= 0xFFFD)
+                    || (cp >= 0x10000 && cp <= 0x10FFFF)) {
+                out.appendCodePoint(cp);
+            }
+        });
+        return out.toString().trim()
+                .replace("&", "&amp;")
+                .replace("<", "&lt;")
+                .replace(">", "&gt;")
+                .replace("\"", "&quot;")
+                .replace("'", "&#39;");
+    }
+
+    @Test
+    void escapeHtmlMatchesLegacyOnSamples() {
+        for (String sample : SAMPLES) {
+            assertEquals(legacyEscapeHtml(sample), CertificateTemplates.escapeHtml(sample), () -> "entrada: " + sample);
+        }
+    }
+
+    @Test
+    void escapeHtmlMatchesLegacyOnRandomInput() {
+        Random random = new Random(42);
+        for (int i = 0; i < 20_000; i++) {
+            char[] chars = new char[random.nextInt(12)];
+            for (int j = 0; j < chars.length; j++) {
+                chars[j] = ALPHABET.charAt(random.nextInt(ALPHABET.length()));
+            }
+            String sample = new String(chars);
+            assertEquals(legacyEscapeHtml(sample), CertificateTemplates.escapeHtml(sample), () -> "entrada: " + sample);
+        }
+    }
+
+    @Test
+    void renderHtmlIsByteIdenticalToLegacyForFullBaptism() {
+        assertMatchesLegacy("batismo", baptismValues());
+    }
+
+    @Test
+    void renderHtmlIsByteIdenticalToLegacyForBaptismWithoutFullDate() {
+        // Sem data_baptismo o modelo usa dia/mês/ano em separado
+        Map<String, Object> values = baptismValues();
+        values.remove("data_baptismo");
+        assertMatchesLegacy("batismo", values);
+        values.remove("ano_registo");
+        assertMatchesLegacy("batismo", values);
+    }
+
+    @Test
+    void renderHtmlIsByteIdenticalToLegacyForFullMarriage() {
+        assertMatchesLegacy("casamento", marriageValues());
+    }
+
+    @Test
+    void renderHtmlIsByteIdenticalToLegacyWithBlankFields() {
+        for (Map<String, Object> full : List.of(baptismValues(), marriageValues())) {
+            String type = full.containsKey("nome_baptizado") ? "batismo" : "casamento";
+            List<String> keys = List.copyOf(full.keySet());
+            for (int i = 0; i < keys.size(); i++) {
+                // Um campo de cada vez em branco, e depois metade dos campos em falta
+                Map<String, Object> oneBlank = new HashMap<>(full);
+                oneBlank.put(keys.get(i), i % 2 == 0 ? "  " : null);
+                assertMatchesLegacy(type, oneBlank);
+            }
+            Map<String, Object> half = new HashMap<>(full);
+            for (int i = 0; i < keys.size(); i += 2) {
+                half.remove(keys.get(i));
+            }
+            assertMatchesLegacy(type, half);
+            assertMatchesLegacy(type, new HashMap<>());
+        }
+    }
+
+    @Test
+    void renderHtmlIsByteIdenticalToLegacyForUnusualValues() {
+        for (String sample : SAMPLES) {
+            for (Map<String, Object> full : List.of(baptismValues(), marriageValues())) {
+                String type = full.containsKey("nome_baptizado") ? "batismo" : "casamento";
+                Map<String, Object> values = new HashMap<>();
+                full.forEach((key, value) -> values.put(key, sample));
+                assertMatchesLegacy(type, values);
+            }
+        }
+    }
+
+    @Test
+    void renderHtmlReusesBufferWithoutLeakingPreviousDocument() {
+        CertificateData longData = new CertificateData(Map.of("nome", "x".repeat(20_000)), LocalDate.of(2024, 1, 1));
+        CertificateData shortData = new CertificateData(Map.of("nome", "Ana"), LocalDate.of(2024, 1, 1));
+
+        String first = templates.renderHtml("batismo", shortData, true);
+        templates.renderHtml("batismo", longData, true);
+        assertEquals(first, templates.renderHtml("batismo", shortData, true));
+    }
+
+    private void assertMatchesLegacy(String type, Map<String, Object> values) {
+        CertificateData data = new CertificateData(values, TODAY);
+        LegacyCertificateHtml legacy = new LegacyCertificateHtml(TODAY);
+
+        // Única diferença documentada: campo vazio em referência numérica (&#160;) em vez de &nbsp;
+        String expected = legacy.buildHtml(type, values).replace(">&nbsp;</span>", ">&#160;</span>");
+        assertArrayEquals(expected.getBytes(StandardCharsets.UTF_8),
+                templates.renderHtml(type, data, true).getBytes(StandardCharsets.UTF_8),
+                () -> type + " com " + values);
+
+        String expectedWithoutLogo = legacy.stripLogo(expected);
+        assertArrayEquals(expectedWithoutLogo.getBytes(StandardCharsets.UTF_8),
+                templates.renderHtml(type, data, false).getBytes(StandardCharsets.UTF_8),
+                () -> type + " sem logo com " + values);
+    }
+
+    private static Map<String, Object> baptismValues() {
+        Map<String, Object> values = new LinkedHashMap<>();
+        values.put("nome_oficiante", "Pe. António Mucavele");
+        values.put("paroquia", "Paróquia São José de Lhanguene");
+        values.put("folha", "42");
+        values.put("numero_assento", "317/2008");
+        values.put("ano_registo", "2008");
+        values.put("data_baptismo", "14 de Setembro de 2008");
+        values.put("dia_baptismo", "14");
+        values.put("mes_baptismo", "Setembro");
+        values.put("sexo", "masculino");
+        values.put("nome_baptizado", "Abílio Fernando Sozinho");
+        values.put("local_nascimento", "Maputo");
+        values.put("distrito", "KaMpfumo");
+        values.put("dia_nascimento", "30");
+        values.put("mes_nascimento", "Junho");
+        values.put("ano_nascimento", "2008");
+        values.put("nome_pai", "Fernando José Sozinho");
+        values.put("profissao_pai", "Professor");
+        values.put("naturalidade_pai", "Inhambane");
+        values.put("nome_mae", "Maria da Conceição Chaves");
+        values.put("profissao_mae", "Enfermeira");
+        values.put("naturalidade_mae", "Xai-Xai");
+        values.put("avo_paterno", "José Sozinho & Ana Macuácua");
+        values.put("avo_materno", "Carlos Chaves e Rosa Tembe");
+        values.put("nome_padrinho", "João \"Joca\" Nhantumbo");
+        values.put("estado_padrinho", "casado");
+        values.put("profissao_padrinho", "Motorista");
+        values.put("nome_madrinha", "Luísa O'Neill Cossa");
+        values.put("estado_madrinha", "solteira");
+        values.put("profissao_madrinha", "Comerciante");
+        values.put("anotacoes", "Crismado em 2020 <ver livro 3>");
+        values.put("autenticacao", "selo branco");
+        values.put("local_emissao", "Maputo");
+        values.put("dia", "17");
+        values.put("mes", "Maio");
+        values.put("ano", "2024");
+        values.put("cargo_assinante", "Pároco");
+        values.put("assinante", "Pe. António Mucavele");
+        return values;
+    }
+
+    private static Map<String, Object> marriageValues() {
+        Map<String, Object> values = new LinkedHashMap<>();
+        values.put("nome_oficiante", "Pe. António Mucavele");
+        values.put("paroquia", "Paróquia São José de Lhanguene");
+        values.put("folha", "7");
+        values.put("numero_registo", "58/2019");
+        values.put("ano", "2019");
+        values.put("dia", "21");
+        values.put("mes", "Dezembro");
+        values.put("nome_noivo", "Pedro Manuel Tembe");
+        values.put("pai_noivo", "Manuel Tembe");
+        values.put("mae_noivo", "Joana Matsinhe");
+        values.put("nome_noiva", "Carla Sofia Mondlane");
+        values.put("pai_noiva", "Rui Mondlane");
+        values.put("mae_noiva", "Teresa <Teté> Cossa");
+        values.put("nome_testemunha_1", "Alberto Chissano");
+        values.put("nome_testemunha_2", "Graça & Filhos Lda");
+        values.put("autenticacao", "selo branco");
+        values.put("local_emissao", "Matola");
+        values.put("cargo_assinante", "Pároco");
+        values.put("assinante", "Pe. António Mucavele");
+        return values;
+    }
+
+    /**
+     * Cópia do buildHtml original (CertificateService antes dos modelos compilados), usada como
+     * referência. Única alteração: a data atual vem do construtor em vez de LocalDate.now().
+     */
+    private static final class LegacyCertificateHtml {
+
+        private static final Logger log = LoggerFactory.getLogger(LegacyCertificateHtml.class);
+
+        private final LocalDate today;
+
+        LegacyCertificateHtml(LocalDate today) {
+            this.today = today;
+        }
+
+        String buildHtml(String type, Map<String, Object> data) {
+            String logoHtml = logoHtml();
+            String headerTop = "batismo".equals(type) ? "<div class=\"subtitle\">ARQUIDIOCESE DE MAPUTO - MOCAMBIQUE</div>" : "";
+            String title = "batismo".equals(type) ? "CERTIDAO DE BAPTISMO" : "CERTIDAO DE CASAMENTO";
+            String body = "batismo".equals(type) ? buildBaptismBody(data) : buildMarriageBody(data);
+            String wrapperClass = "batismo".equals(type) ? "page" : "page marriage";
+
+            return "<html xmlns=\"http://www.w3.org/1999/xhtml\">"
+                    + "<head><meta charset=\"UTF-8\"/>"
+                    + "<style>"
+                    + "@page { size: A4; margin: 20mm 18mm 20mm 22mm; }"
+                    + "body { font-family: 'Times New Roman', serif; font-size: 12pt; line-height: 1.45; color: #111111; }"
+                    + ".page { width: 100%; }"
+                    + ".marriage { border-left: 2px solid #10366f; padding-left: 10mm; }"
+                    + ".header { text-align: center; margin-bottom: 14pt; }"
+                    + ".logo-wrap { text-align: center; margin-bottom: 6pt; height: 52px; }"
+                    + ".logo { width: 48px; height: 48px; object-fit: contain; }"
+                    + ".subtitle { font-size: 11.5pt; font-weight: 700; letter-spacing: 0.3px; margin-bottom: 3pt; color: #10366f; }"
+                    + ".title { font-size: 18pt; font-weight: 700; letter-spacing: 0.5px; margin-bottom: 10pt; color: #10366f; }"
+                    + "p { margin: 0 0 8pt 0; text-align: left; }"
+                    + ".fill { display: inline-block; border-bottom: 1px dotted #1f2937; min-width: 70px; padding: 0 3px; }"
+                    + ".fill.short { min-width: 48px; }"
+                    + ".fill.mid { min-width: 120px; }"
+                    + ".fill.long { min-width: 220px; }"
+                    + ".fill.xlong { min-width: 300px; }"
+                    + ".spacer { margin-top: 10pt; }"
+                    + ".signature { margin-top: 24pt; text-align: right; }"
+                    + ".sigline { display: inline-block; border-bottom: 1px dotted #1f2937; min-width: 230px; height: 18px; }"
+                    + "</style></head>"
+                    + "<body><div class=\"" + wrapperClass + "\">"
+                    + "<div class=\"header\">" + logoHtml + headerTop + "<div class=\"title\">" + escapeHtml(title) + "</div></div>"
+                    + body
+                    + "</div></body></html>";
+        }
+
+        private String buildMarriageBody(Map<String, Object> data) {
+            DateParts parts = emissionDateParts(data);
+            String noivoMae = value(data, "mae_noivo");
+            String noivaMae = value(data, "mae_noiva");
+
+            return ""
+                    + pRaw("Padre " + fill(value(data, "nome_oficiante"), "xlong") + " da " + fill(value(data, "paroquia"), "xlong") + ".")
+                    + pRaw("CERTIFICO que das folhas " + fill(value(data, "folha"), "short")
+                    + " sob o n. " + fill(value(data, "numero_registo"), "mid")
+                    + " do Livro de Registo de Casamentos celebrados nesta " + fill(value(data, "paroquia"), "long")
+                    + " referentes ao ano de " + fill(value(data, "ano"), "short") + ".")
+                    + pRaw("Consta que no dia " + fill(parts.day, "short")
+                    + " do mes de " + fill(parts.month, "mid")
+                    + " do ano de " + fill(parts.year, "short")
+                    + " foi celebrado o casamento canonico de " + fill(value(data, "nome_noivo"), "xlong") + ".")
+                    + pRaw("Filho de " + fill(value(data, "pai_noivo"), "xlong")
+                    + " e de " + fill(noivoMae, "xlong") + ".")
+                    + pRaw("Com " + fill(value(data, "nome_noiva"), "xlong")
+                    + ", filha de " + fill(value(data, "pai_noiva"), "xlong")
+                    + " e de " + fill(noivaMae, "xlong") + ".")
+                    + pRaw("Sendo oficiante " + fill(value(data, "nome_oficiante"), "xlong") + ".")
+                    + pRaw("Foram testemunhas " + fill(value(data, "nome_testemunha_1"), "xlong")
+                    + " e " + fill(value(data, "nome_testemunha_2"), "xlong") + ".")
+                    + pRaw("Por ser verdade, passo a presente certidao que assino e autentico com o "
+                    + fill(value(data, "autenticacao"), "mid") + ".")
+                    + pRaw(fill(defaultIfBlank(value(data, "local_emissao"), "Matola"), "mid")
+                    + ", aos " + fill(parts.day, "short")
+                    + " de " + fill(parts.month, "mid")
+                    + " de " + fill(parts.year, "short") + ".")
+                    + "<div class=\"signature\">"
+                    + "<p>O " + fill(value(data, "cargo_assinante"), "mid") + "</p>"
+                    + "<p><span class=\"sigline\"></span></p>"
+                    + "<p>" + escapeHtml(value(data, "assinante")) + "</p>"
+                    + "</div>";
+        }
+
+        private String buildBaptismBody(Map<String, Object> data) {
+            DateParts parts = emissionDateParts(data);
+            String diaBatismo = value(data, "dia_baptismo");
+            String mesBatismo = value(data, "mes_baptismo");
+            String anoBatismo = defaultIfBlank(value(data, "ano_registo"), parts.year);
+            String dataBatismo = value(data, "data_baptismo");
+            String sexo = value(data, "sexo");
+            String anotacoes = value(data, "anotacoes");
+
+            String whenBaptism;
+            if (!dataBatismo.isBlank()) {
+                whenBaptism = "no dia " + fill(dataBatismo, "mid");
+            } else {
+                whenBaptism = "no dia " + fill(diaBatismo, "short")
+                        + " do mes de " + fill(mesBatismo, "mid")
+                        + " do referido ano de " + fill(anoBatismo, "short");
+            }
+
+            return ""
+                    + pRaw("Padre " + fill(value(data, "nome_oficiante"), "xlong") + " da " + fill(value(data, "paroquia"), "xlong") + ".")
+                    + pRaw("CERTIFICO que as folhas " + fill(value(data, "folha"), "short")
+                    + " sob o n. " + fill(value(data, "numero_assento"), "mid")
+                    + " do Livro de Registo de Baptismos desta " + fill(value(data, "paroquia"), "long")
+                    + " referente ao ano de " + fill(defaultIfBlank(value(data, "ano_registo"), parts.year), "short") + ".")
+                    + pRaw("Consta que " + whenBaptism
+                    + " foi baptizado nesta " + fill(value(data, "paroquia"), "mid")
+                    + " um individuo do sexo " + fill(sexo, "mid")
+                    + " com o nome de " + fill(value(data, "nome_baptizado"), "xlong") + ".")
+                    + pRaw("Nascido em " + fill(value(data, "local_nascimento"), "mid")
+                    + ", distrito de " + fill(value(data, "distrito"), "mid")
+                    + ", aos " + fill(value(data, "dia_nascimento"), "short")
+                    + " do mes de " + fill(value(data, "mes_nascimento"), "mid")
+                    + " do ano de " + fill(value(data, "ano_nascimento"), "short") + ".")
+                    + pRaw("Filho de " + fill(value(data, "nome_pai"), "xlong")
+                    + ", profissao " + fill(value(data, "profissao_pai"), "mid")
+                    + ", natural de " + fill(value(data, "naturalidade_pai"), "mid") + ".")
+                    + pRaw("E de " + fill(value(data, "nome_mae"), "xlong")
+                    + ", profissao " + fill(value(data, "profissao_mae"), "mid")
+                    + ", natural de " + fill(value(data, "naturalidade_mae"), "mid") + ".")
+                    + pRaw("Neto paterno de " + fill(value(data, "avo_paterno"), "xlong")
+                    + " e materno de " + fill(value(data, "avo_materno"), "xlong") + ".")
+                    + pRaw("Foram padrinhos: " + fill(value(data, "nome_padrinho"), "xlong")
+                    + " (estado " + fill(value(data, "estado_padrinho"), "mid")
+                    + ", profissao " + fill(value(data, "profissao_padrinho"), "mid") + ")")
+                    + pRaw("E " + fill(value(data, "nome_madrinha"), "xlong")
+                    + " (estado " + fill(value(data, "estado_madrinha"), "mid")
+                    + ", profissao " + fill(value(data, "profissao_madrinha"), "mid") + ").")
+                    + pRaw("A margem: " + fill(anotacoes, "xlong"))
+                    + pRaw("Por ser verdade passo a presente Certidao que vou assinar e autenticar com o "
+                    + fill(value(data, "autenticacao"), "mid")
+                    + " em uso nesta " + fill(value(data, "paroquia"), "mid") + ".")
+                    + pRaw(fill(defaultIfBlank(value(data, "local_emissao"), "Matola"), "mid")
+                    + ", aos " + fill(parts.day, "short")
+                    + " de " + fill(parts.month, "mid")
+                    + " de " + fill(parts.year, "short") + ".")
+                    + "<div class=\"signature\">"
+                    + "<p>O " + fill(value(data, "cargo_assinante"), "mid") + "</p>"
+                    + "<p><span class=\"sigline\"></span></p>"
+                    + "<p>" + escapeHtml(value(data, "assinante")) + "</p>"
+                    + "</div>";
+        }
+
+        private String logoHtml() {
+            String logoDataUri = resolveLogoDataUri();
+            if (logoDataUri.isBlank()) return "";
+            return "<div class=\"logo-wrap\"><img class=\"logo\" src=\"" + logoDataUri + "\" alt=\"Logo\" width=\"48\" height=\"48\"/></div>";
+        }
+
+        private String resolveLogoDataUri() {
+            try {
+                PathMatchingResourcePatternResolver resolver = new PathMatchingResourcePatternResolver();
+                Resource[] resources = resolver.getResources("classpath*:static/logo*");
+                if (resources.length == 0) return "";
+
+                Resource logo = resources[0];
+                byte[] bytes = logo.getInputStream().readAllBytes();
+                String filename = logo.getFilename() == null ? "" : logo.getFilename().toLowerCase(Locale.ROOT);
+                String mimeType = "image/png";
+                if (filename.endsWith(".jpg") || filename.endsWith(".jpeg")) mimeType = "image/jpeg";
+                if (filename.endsWith(".svg")) mimeType = "image/svg+xml";
+
+                return "data:" + mimeType + ";base64," + Base64.getEncoder().encodeToString(bytes);
+            } catch (Exception ex) {
+                log.warn("Nao foi possivel carregar logo de resources/static para certificado", ex);
+                return "";
+            }
+        }
+
+        private DateParts emissionDateParts(Map<String, Object> data) {
+            String day = value(data, "dia");
+            String month = value(data, "mes");
+            String year = value(data, "ano");
+
+            if (!day.isBlank() && !month.isBlank() && !year.isBlank()) {
+                return new DateParts(day, month, year);
+            }
+
+            LocalDate now = today;
+            String[] monthNames = {
+                    "Janeiro", "Fevereiro", "Marco", "Abril", "Maio", "Junho",
+                    "Julho", "Agosto", "Setembro", "Outubro", "Novembro", "Dezembro"
+            };
+            return new DateParts(
+                    day.isBlank() ? String.valueOf(now.getDayOfMonth()) : day,
+                    month.isBlank() ? monthNames[now.getMonthValue() - 1] : month,
+                    year.isBlank() ? String.valueOf(now.getYear()) : year
+            );
+        }
+
+        String stripLogo(String html) {
+            return html.replaceFirst("(?s)<div class=\\\"logo-wrap\\\">.*?</div>", "");
+        }
+
+        private String value(Map<String, Object> data, String key) {
+            if (data == null) return "";
+            Object raw = data.get(key);
+            return raw == null ? "" : String.valueOf(raw).trim();
+        }
+
+        private String pRaw(String raw) {
+            return "<p>" + raw + "</p>";
+        }
+
+        private String fill(String value, String sizeClass) {
+            String classes = "fill" + (sizeClass == null || sizeClass.isBlank() ? "" : " " + sizeClass);
+            String safe = escapeHtml(value);
+            if (safe.isBlank()) safe = "&nbsp;";
+            return "<span class=\"" + classes + "\">" + safe + "</span>";
+        }
+
+        private String defaultIfBlank(String value, String fallback) {
+            return value == null || value.isBlank() ? fallback : value;
+        }
+
+        private String escapeHtml(String value) {
+            String sanitized = sanitizeXmlText(value);
+            return sanitized
+                    .replace("&", "&amp;")
+                    .replace("<", "&lt;")
+                    .replace(">", "&gt;")
+                    .replace("\"", "&quot;")
+                    .replace("'", "&#39;");
+        }
+
+        private String sanitizeXmlText(String value) {
+            String input = String.valueOf(value == null ? "" : value);
+            StringBuilder out = new StringBuilder(input.length());
+            input.codePoints().forEach(cp -> {
+                if (cp == 0x9 || cp == 0xA || cp == 0xD
+                        || (cp >= 0x20 && cp <= 0xD7FF)
+                        || (cp >= 0xE000 && cp <= 0xFFFD)
+                        || (cp >= 0x10000 && cp <= 0x10FFFF)) {
+                    out.appendCodePoint(cp);
+                }
+            });
+            return out.toString().trim();
+        }
+
+        private record DateParts(String day, String month, String year) {}
+    }
+}
@@ -0,0 +1,123 @@
+package com.vaticano.paroquia.service.certificate;
+
+import org.junit.jupiter.api.Test;
+import org.w3c.dom.Document;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.spy;
+
+class DocxWriterTest {
+
+    private static final byte[] LOGO = {(byte) 0x89, 'P', 'N', 'G', 1, 2, 3};
+
+    private static final CertificateData DATA = new CertificateData(Map.of(
+            "nome_baptizado", "Abílio Fernando Sozinho",
+            "nome_noivo", "Pedro <Tembe> & Filhos",
+            "assinante", "Pe. António \"Tó\" Mucavele",
+            "anotacoes", "linha\u0001 com controlo"
+    ), LocalDate.of(2024, 5, 17));
+
+    @Test
+    void packageHasAllPartsAndWellFormedXml() throws Exception {
+        CertificateTemplates templates = new CertificateTemplates();
+        DocxWriter writer = new DocxWriter(templates);
+
+        for (String type : templates.types()) {
+            Map<String, byte[]> parts = write(writer, type);
+
+            assertTrue(parts.containsKey("[Content_Types].xml"), type);
+            assertTrue(parts.containsKey("_rels/.rels"), type);
+            assertTrue(parts.containsKey("word/document.xml"), type);
+            assertTrue(parts.containsKey("word/_rels/document.xml.rels"), type);
+            for (Map.Entry<String, byte[]> part : parts.entrySet()) {
+                if (part.getKey().endsWith(".xml") || part.getKey().endsWith(".rels")) {
+                    parse(part.getValue());
+                }
+            }
+        }
+    }
+
+    @Test
+    void documentContainsEscapedValues() throws Exception {
+        DocxWriter writer = new DocxWriter(new CertificateTemplates());
+
+        Document document = parse(write(writer, "casamento").get("word/document.xml"));
+
+        String text = document.getDocumentElement().getTextContent();
+        assertTrue(text.contains("Pedro <Tembe> & Filhos"));
+        assertTrue(text.contains("Pe. António \"Tó\" Mucavele"));
+    }
+
+    @Test
+    void pngLogoIsEmbedded() throws Exception {
+        Map<String, byte[]> parts = write(new DocxWriter(templatesWithLogo("image/png")), "batismo");
+
+        assertTrue(parts.containsKey("word/media/logo.png"));
+        assertTrue(new String(parts.get("[Content_Types].xml"), StandardCharsets.UTF_8).contains("Extension=\"png\""));
+        assertTrue(new String(parts.get("word/_rels/document.xml.rels"), StandardCharsets.UTF_8).contains("media/logo.png"));
+        assertTrue(new String(parts.get("word/document.xml"), StandardCharsets.UTF_8).contains("r:embed=\"rId2\""));
+    }
+
+    @Test
+    void jpegLogoIsEmbedded() throws Exception {
+        Map<String, byte[]> parts = write(new DocxWriter(templatesWithLogo("image/jpeg")), "batismo");
+
+        assertTrue(parts.containsKey("word/media/logo.jpeg"));
+        assertTrue(new String(parts.get("[Content_Types].xml"), StandardCharsets.UTF_8).contains("ContentType=\"image/jpeg\""));
+    }
+
+    @Test
+    void svgLogoIsLeftOut() throws Exception {
+        Map<String, byte[]> parts = write(new DocxWriter(templatesWithLogo("image/svg+xml")), "batismo");
+
+        assertFalse(parts.keySet().stream().anyMatch(name -> name.startsWith("word/media/")));
+        assertFalse(new String(parts.get("word/_rels/document.xml.rels"), StandardCharsets.UTF_8).contains("image"));
+        assertFalse(new String(parts.get("word/document.xml"), StandardCharsets.UTF_8).contains("r:embed"));
+        parse(parts.get("word/document.xml"));
+    }
+
+    // ========== Helper Methods ==========
+
+    private static CertificateTemplates templatesWithLogo(String mimeType) {
+        CertificateTemplates templates = spy(new CertificateTemplates());
+        doReturn(true).when(templates).hasLogo();
+        doReturn(LOGO).when(templates).getLogoBytes();
+        doReturn(mimeType).when(templates).getLogoMimeType();
+        return templates;
+    }
+
+    private static Map<String, byte[]> write(DocxWriter writer, String type) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writer.write(type, DATA, out);
+
+        Map<String, byte[]> parts = new LinkedHashMap<>();
+        try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                parts.put(entry.getName(), zip.readAllBytes());
+            }
+        }
+        assertEquals(parts.size(), parts.keySet().stream().distinct().count());
+        return parts;
+    }
+
+    private static Document parse(byte[] xml) throws Exception {
+        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        factory.setNamespaceAware(true);
+        return factory.newDocumentBuilder().parse(new ByteArrayInputStream(xml));
+    }
+}
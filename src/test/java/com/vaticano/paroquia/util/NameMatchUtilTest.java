@@ -0,0 +1,47 @@
+package com.vaticano.paroquia.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class NameMatchUtilTest {
+
+    @Test
+    void canonicalDateUnifiesWrittenForms() {
+        assertEquals("2008-06-30", NameMatchUtil.canonicalDate("30 de Junho de 2008"));
+        assertEquals("2008-06-30", NameMatchUtil.canonicalDate("30/06/2008"));
+        assertEquals("2008-06-30", NameMatchUtil.canonicalDate("30-6-08"));
+    }
+
+    @Test
+    void canonicalDateIsEmptyWhenUnparseable() {
+        // Datas ilegíveis ou impossíveis não podem produzir um valor comum a outras
+        assertEquals("", NameMatchUtil.canonicalDate("31/02/2008"));
+        assertEquals("", NameMatchUtil.canonicalDate("15/13/2008"));
+        assertEquals("", NameMatchUtil.canonicalDate("desconhecida"));
+        assertEquals("", NameMatchUtil.canonicalDate(""));
+    }
+
+    @Test
+    void phoneticKeyMatchesPortugueseSpellings() {
+        assertEquals(NameMatchUtil.phoneticKey("Sozinho"), NameMatchUtil.phoneticKey("Sosinho"));
+        assertEquals(NameMatchUtil.phoneticKey("Chaves"), NameMatchUtil.phoneticKey("Xaves"));
+        assertEquals(NameMatchUtil.phoneticKey("Filipe"), NameMatchUtil.phoneticKey("Phelipe"));
+    }
+
+    @Test
+    void nameSimilarityToleratesAbbreviatedMiddleNames() {
+        assertTrue(NameMatchUtil.nameSimilarity("Abilio Fernando Sozinho", "Abilio F. Sozinho") > 0.85);
+        assertTrue(NameMatchUtil.nameSimilarity("Abilio Fernando Sozinho", "Joana Mendes") < 0.6);
+    }
+
+    @Test
+    void nameSimilarityOnTokensMatchesStringVersion() {
+        String a = "José da Silva Gonçalves";
+        String b = "Jose S. Goncalves";
+
+        assertEquals(NameMatchUtil.nameSimilarity(a, b),
+                NameMatchUtil.nameSimilarity(NameMatchUtil.nameTokens(a), NameMatchUtil.nameTokens(b)));
+    }
+}
@@ -0,0 +1,89 @@
+package com.vaticano.paroquia.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.Normalizer;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class NormalizeUtilTest {
+
+    private static final Path SAMPLE_CSV = Path.of("Modelo_Importacao_Membros.csv");
+
+    /**
+     * Implementação original (NFD + regex), usada como referência.
+     */
+    private static String legacyNormalizeForKey(String value) {
+        if (value == null || value.isBlank()) {
+            return "";
+        }
+        String normalized = Normalizer.normalize(value, Normalizer.Form.NFD);
+        normalized = normalized.replaceAll("\\p{M}", "");
+        normalized = normalized.toLowerCase();
+        normalized = normalized.replaceAll("[^a-z0-9]", "");
+        return normalized;
+    }
+
+    @Test
+    void normalizeForKeyMatchesLegacyOnSampleCsv() throws IOException {
+        int fields = 0;
+        try (Reader reader = Files.newBufferedReader(SAMPLE_CSV, Charset.forName("windows-1252"));
+             CsvReader csv = new CsvReader(reader, MemberCsvLayout.SEPARATOR)) {
+            List<String> record;
+            while ((record = csv.readRecord()) != null) {
+                for (String field : record) {
+                    assertEquals(legacyNormalizeForKey(field), NormalizeUtil.normalizeForKey(field),
+                            "linha " + csv.getLineNumber() + ": " + field);
+                    fields++;
+                }
+                // Chave completa do membro (nome + nascimento + pai + mãe)
+                if (record.size() > 10) {
+                    String legacyKey = legacyNormalizeForKey(NormalizeUtil.normalizeValue(record.get(1)))
+                            + legacyNormalizeForKey(NormalizeUtil.normalizeValue(record.get(4)))
+                            + legacyNormalizeForKey(NormalizeUtil.normalizeValue(record.get(6)))
+                            + legacyNormalizeForKey(NormalizeUtil.normalizeValue(record.get(10)));
+                    String key = NormalizeUtil.normalizeForKey(NormalizeUtil.normalizeValue(record.get(1)))
+                            + NormalizeUtil.normalizeForKey(NormalizeUtil.normalizeValue(record.get(4)))
+                            + NormalizeUtil.normalizeForKey(NormalizeUtil.normalizeValue(record.get(6)))
+                            + NormalizeUtil.normalizeForKey(NormalizeUtil.normalizeValue(record.get(10)));
+                    assertEquals(legacyKey, key);
+                }
+            }
+        }
+        assertTrue(fields > 1000, "CSV de exemplo não foi lido");
+    }
+
+    @Test
+    void normalizeForKeyMatchesLegacyForEveryBmpCharacter() {
+        for (int c = 0; c <= Character.MAX_VALUE; c++) {
+            if (Character.isSurrogate((char) c)) {
+                continue;
+            }
+            String value = "A" + (char) c + "b";
+            assertEquals(legacyNormalizeForKey(value), NormalizeUtil.normalizeForKey(value),
+                    "U+" + Integer.toHexString(c));
+        }
+    }
+
+    @Test
+    void normalizeForKeyHandlesDecomposedInputAndSupplementaryCharacters() {
+        for (String value : List.of("José Conceição", "Ana 𝐀 Maria", "😀 Ção",
+                "İlhan", "KK Å", "   ", "", "\uD800 solto")) {
+            assertEquals(legacyNormalizeForKey(value), NormalizeUtil.normalizeForKey(value), value);
+        }
+    }
+
+    @Test
+    void normalizeForKeyReturnsSameInstanceWhenAlreadyKey() {
+        String key = "abilioflorindosozinho30dejunhode2008";
+        assertSame(key, NormalizeUtil.normalizeForKey(key));
+    }
+}